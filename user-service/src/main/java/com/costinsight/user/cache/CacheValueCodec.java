@@ -0,0 +1,23 @@
+package com.costinsight.user.cache;
+
+/**
+ * 单个缓存值类型的紧凑二进制编解码器
+ * <p>
+ * 每个实现占用一个固定的类型标签（写入 Redis 的数据依赖它，已发布的标签不能复用）。
+ * 字段增减时提升 {@link #version()}，并在 {@link #read} 中继续支持旧版本，
+ * 这样滚动发布期间新旧格式的缓存条目都能读取。
+ *
+ * @param <T> 缓存值类型
+ */
+public interface CacheValueCodec<T> {
+
+    byte tag();
+
+    Class<T> type();
+
+    int version();
+
+    void write(T value, CompactValueSerializer.Output out);
+
+    T read(int version, CompactValueSerializer.Input in);
+}
@@ -0,0 +1,48 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.service.CacheAdminService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 启动时按持久化的热点集合预热 user 与 user-response 缓存
+ * <p>
+ * ApplicationRunner 在就绪状态切换为 ACCEPTING_TRAFFIC 之前执行，readiness 探针通过时热点条目已经在 Redis 与本地 L1 中；
+ * 预热失败只记录日志，不阻止启动。
+ */
+@Component
+public class CacheWarmupRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(CacheWarmupRunner.class);
+
+    private final CacheAdminService cacheAdminService;
+    private final boolean enabled;
+    private final int size;
+
+    public CacheWarmupRunner(CacheAdminService cacheAdminService,
+                             @Value("${app.cache.warm-up.enabled:true}") boolean enabled,
+                             @Value("${app.cache.warm-up.size:10000}") int size) {
+        this.cacheAdminService = cacheAdminService;
+        this.enabled = enabled;
+        this.size = size;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled || size <= 0) {
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            int loaded = cacheAdminService.warmUp("user", size);
+            logger.info("Warmed {} users into the user and user-response caches from the hot set in {} ms",
+                    loaded, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            logger.warn("Cache warm-up skipped: {}", e.getMessage());
+        }
+    }
+}
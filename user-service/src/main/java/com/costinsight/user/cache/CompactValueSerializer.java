@@ -0,0 +1,266 @@
+package com.costinsight.user.cache;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4SafeDecompressor;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 缓存值的紧凑二进制序列化器
+ * <p>
+ * 已注册 {@link CacheValueCodec} 的类型按如下格式写入：
+ * <pre>
+ * MAGIC(1) | flags(1) | tag(1) | version(varint) | [原始长度(varint)，仅压缩时] | body
+ * </pre>
+ * body 超过压缩阈值且 LZ4 压缩后确实更短时才压缩。未注册的类型交给回退序列化器（带类型信息的 JSON）。
+ * 读取时首字节不是 MAGIC 的数据同样交给回退序列化器，因此切换格式前写入的 JSON 条目仍可读取。
+ */
+public class CompactValueSerializer implements RedisSerializer<Object> {
+
+    // 不是合法的 JSON 起始字节，可与旧格式区分
+    static final byte MAGIC = (byte) 0xC7;
+    static final int FLAG_LZ4 = 1;
+
+    private static final int MAX_DECOMPRESSED_LENGTH = 16 * 1024 * 1024;
+    private static final byte[] EMPTY = new byte[0];
+
+    // 只使用纯 Java 的安全实现：不依赖 JNI，解压时按记录的原始长度分配新数组并校验
+    private static final LZ4Factory LZ4 = LZ4Factory.safeInstance();
+
+    private final Map<Class<?>, CacheValueCodec<?>> codecsByType = new HashMap<>();
+    private final CacheValueCodec<?>[] codecsByTag = new CacheValueCodec<?>[256];
+    private final RedisSerializer<Object> fallback;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4.fastCompressor();
+    private final LZ4SafeDecompressor decompressor = LZ4.safeDecompressor();
+
+    /**
+     * @param codecs               已注册类型的编解码器
+     * @param fallback             未注册类型及旧格式数据使用的序列化器
+     * @param compressionThreshold body 达到该字节数时尝试 LZ4 压缩，0 表示不压缩
+     */
+    public CompactValueSerializer(List<CacheValueCodec<?>> codecs, RedisSerializer<Object> fallback,
+                                  int compressionThreshold) {
+        for (CacheValueCodec<?> codec : codecs) {
+            int tag = codec.tag() & 0xFF;
+            if (codecsByTag[tag] != null) {
+                throw new IllegalArgumentException("Duplicate cache codec tag " + tag);
+            }
+            codecsByTag[tag] = codec;
+            codecsByType.put(codec.type(), codec);
+        }
+        this.fallback = fallback;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        CacheValueCodec<Object> codec = (CacheValueCodec<Object>) codecsByType.get(value.getClass());
+        if (codec == null) {
+            return fallback.serialize(value);
+        }
+        Output body = new Output(64);
+        codec.write(value, body);
+
+        Output out = new Output(body.size + 16);
+        out.writeByte(MAGIC);
+        boolean compress = compressionThreshold > 0 && body.size >= compressionThreshold;
+        byte[] compressed = null;
+        if (compress) {
+            compressed = compressor.compress(body.buffer, 0, body.size);
+            compress = compressed.length < body.size;
+        }
+        out.writeByte(compress ? FLAG_LZ4 : 0);
+        out.writeByte(codec.tag());
+        out.writeVarInt(codec.version());
+        if (compress) {
+            out.writeVarInt(body.size);
+            out.writeBytes(compressed, 0, compressed.length);
+        } else {
+            out.writeBytes(body.buffer, 0, body.size);
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return fallback.deserialize(bytes);
+        }
+        try {
+            Input header = new Input(bytes, 1, bytes.length);
+            int flags = header.readByte();
+            int tag = header.readByte();
+            int version = header.readVarInt();
+            CacheValueCodec<?> codec = codecsByTag[tag];
+            if (codec == null) {
+                throw new SerializationException("Unknown cache value tag " + tag);
+            }
+            Input body = header;
+            if ((flags & FLAG_LZ4) != 0) {
+                int rawLength = header.readVarInt();
+                if (rawLength < 0 || rawLength > MAX_DECOMPRESSED_LENGTH) {
+                    throw new SerializationException("Invalid decompressed length " + rawLength);
+                }
+                byte[] raw = new byte[rawLength];
+                int written = decompressor.decompress(bytes, header.position, bytes.length - header.position,
+                        raw, 0, rawLength);
+                if (written != rawLength) {
+                    throw new SerializationException("Truncated compressed cache value");
+                }
+                body = new Input(raw, 0, rawLength);
+            }
+            return codec.read(version, body);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read compact cache value", e);
+        }
+    }
+
+    /**
+     * 可增长的字节缓冲区，整数使用 varint（有符号数先 zigzag）编码
+     */
+    public static final class Output {
+
+        private byte[] buffer;
+        private int size;
+
+        Output(int capacity) {
+            this.buffer = new byte[capacity];
+        }
+
+        public void writeByte(int value) {
+            ensureCapacity(1);
+            buffer[size++] = (byte) value;
+        }
+
+        public void writeVarInt(int value) {
+            ensureCapacity(5);
+            while ((value & ~0x7F) != 0) {
+                buffer[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        public void writeVarLong(long value) {
+            long zigzag = (value << 1) ^ (value >> 63);
+            ensureCapacity(10);
+            while ((zigzag & ~0x7FL) != 0) {
+                buffer[size++] = (byte) ((zigzag & 0x7F) | 0x80);
+                zigzag >>>= 7;
+            }
+            buffer[size++] = (byte) zigzag;
+        }
+
+        public void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes, 0, bytes.length);
+        }
+
+        /**
+         * 按本地时间字段编码（不做时区换算），与 Jackson 写出的 LocalDateTime 语义一致
+         */
+        public void writeDateTime(LocalDateTime value) {
+            writeVarLong(value.toEpochSecond(ZoneOffset.UTC));
+            writeVarInt(value.getNano());
+        }
+
+        void writeBytes(byte[] bytes, int offset, int length) {
+            ensureCapacity(length);
+            System.arraycopy(bytes, offset, buffer, size, length);
+            size += length;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, size);
+        }
+
+        private void ensureCapacity(int extra) {
+            if (size + extra > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + extra));
+            }
+        }
+    }
+
+    /**
+     * {@link Output} 的读取端，越界时抛出 IllegalArgumentException
+     */
+    public static final class Input {
+
+        private final byte[] buffer;
+        private final int limit;
+        private int position;
+
+        Input(byte[] buffer, int offset, int limit) {
+            this.buffer = buffer;
+            this.position = offset;
+            this.limit = limit;
+        }
+
+        public int readByte() {
+            if (position >= limit) {
+                throw new IllegalArgumentException("Unexpected end of cache value");
+            }
+            return buffer[position++] & 0xFF;
+        }
+
+        public int readVarInt() {
+            int result = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                result |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return result;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint");
+        }
+
+        public long readVarLong() {
+            long zigzag = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = readByte();
+                zigzag |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return (zigzag >>> 1) ^ -(zigzag & 1);
+                }
+            }
+            throw new IllegalArgumentException("Malformed varlong");
+        }
+
+        public String readString() {
+            int length = readVarInt();
+            if (length < 0 || length > limit - position) {
+                throw new IllegalArgumentException("Invalid string length " + length);
+            }
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        public LocalDateTime readDateTime() {
+            long epochSecond = readVarLong();
+            int nano = readVarInt();
+            return LocalDateTime.ofEpochSecond(epochSecond, nano, ZoneOffset.UTC);
+        }
+    }
+}
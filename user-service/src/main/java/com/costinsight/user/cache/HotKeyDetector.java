@@ -0,0 +1,250 @@
+package com.costinsight.user.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+
+/**
+ * 本节点的热点键检测
+ * <p>
+ * 按来源（缓存名，或 jwt:blacklist 这类 Redis 键空间）对读取做 1/sample-rate 抽样，
+ * 抽中的读取进入 Space-Saving 摘要：每个来源最多 capacity 个计数器，满了之后替换计数最小的键，
+ * 新键继承其计数作为误差上界，因此出现频率高于 1/capacity 的键一定在摘要中。
+ * <p>
+ * 每个窗口结束时按保证计数（count - error）估算每秒读取次数，达到 threshold-per-second 的键标记为热点，
+ * 并通知监听器（两级缓存据此把这些键的 L1 TTL 延长到 pinned-ttl-ms），然后清空摘要开始下一个窗口。
+ * 管理接口和指标读取的都是上一个完整窗口的结果。
+ */
+@Component
+public class HotKeyDetector implements MeterBinder {
+
+    private final boolean enabled;
+    private final int capacity;
+    private final int sampleRate;
+    private final long windowMs;
+    private final double thresholdPerSecond;
+
+    private volatile Map<String, SpaceSaving> sketches = new ConcurrentHashMap<>();
+    private volatile Map<String, List<HotKey>> lastWindow = Map.of();
+    private volatile Map<String, Set<String>> hotKeys = Map.of();
+    private final List<BiConsumer<String, Set<String>>> listeners = new CopyOnWriteArrayList<>();
+    private final Set<String> gaugedSources = ConcurrentHashMap.newKeySet();
+    private volatile MeterRegistry meterRegistry;
+    private volatile Counter detections;
+
+    public HotKeyDetector(@Value("${app.cache.hot-keys.enabled:true}") boolean enabled,
+                          @Value("${app.cache.hot-keys.capacity:64}") int capacity,
+                          @Value("${app.cache.hot-keys.sample-rate:16}") int sampleRate,
+                          @Value("${app.cache.hot-keys.window-ms:10000}") long windowMs,
+                          @Value("${app.cache.hot-keys.threshold-per-second:200}") double thresholdPerSecond) {
+        this.enabled = enabled;
+        this.capacity = capacity;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.windowMs = windowMs;
+        this.thresholdPerSecond = thresholdPerSecond;
+    }
+
+    /**
+     * 记录一次读取（抽样）
+     *
+     * @param source 来源，如缓存名或 Redis 键空间
+     * @param key    键
+     */
+    public void record(String source, String key) {
+        if (!enabled || key == null) {
+            return;
+        }
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+            return;
+        }
+        sketches.computeIfAbsent(source, s -> new SpaceSaving(capacity)).offer(key);
+    }
+
+    /**
+     * 判断某个键在上一个窗口中是否为热点
+     */
+    public boolean isHot(String source, String key) {
+        Set<String> keys = hotKeys.get(source);
+        return keys != null && keys.contains(key);
+    }
+
+    /**
+     * 注册热点监听器，每个窗口结束时以（来源，新出现的热点键）回调
+     */
+    public void addListener(BiConsumer<String, Set<String>> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * 上一个完整窗口中各来源读取最多的键，按估算次数从高到低排列
+     *
+     * @return 来源到热点候选的映射
+     */
+    public Map<String, List<HotKey>> snapshot() {
+        return lastWindow;
+    }
+
+    /**
+     * 结束当前窗口：计算热点、通知监听器并开始新的窗口
+     */
+    @Scheduled(initialDelayString = "${app.cache.hot-keys.window-ms:10000}",
+            fixedRateString = "${app.cache.hot-keys.window-ms:10000}")
+    public void rotate() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, SpaceSaving> finished = sketches;
+        sketches = new ConcurrentHashMap<>();
+
+        Map<String, List<HotKey>> window = new HashMap<>();
+        Map<String, Set<String>> hot = new HashMap<>();
+        for (Map.Entry<String, SpaceSaving> entry : finished.entrySet()) {
+            List<HotKey> candidates = entry.getValue().top(sampleRate, windowMs, thresholdPerSecond);
+            window.put(entry.getKey(), candidates);
+            Set<String> keys = new HashSet<>();
+            for (HotKey candidate : candidates) {
+                if (candidate.hot()) {
+                    keys.add(candidate.key());
+                }
+            }
+            if (!keys.isEmpty()) {
+                hot.put(entry.getKey(), keys);
+            }
+            registerGauge(entry.getKey());
+        }
+        Map<String, Set<String>> previous = hotKeys;
+        lastWindow = window;
+        hotKeys = hot;
+
+        for (Map.Entry<String, Set<String>> entry : hot.entrySet()) {
+            Set<String> newlyHot = new HashSet<>(entry.getValue());
+            newlyHot.removeAll(previous.getOrDefault(entry.getKey(), Set.of()));
+            if (newlyHot.isEmpty()) {
+                continue;
+            }
+            Counter counter = detections;
+            if (counter != null) {
+                counter.increment(newlyHot.size());
+            }
+            for (BiConsumer<String, Set<String>> listener : listeners) {
+                listener.accept(entry.getKey(), newlyHot);
+            }
+        }
+    }
+
+    /**
+     * 导出每个来源当前的热点键数量 cache.hot.keys，以及新检测到热点的累计次数 cache.hot.key.detections。
+     * 热点键本身不作为标签导出，避免指标基数随键增长，具体的键通过管理接口查看。
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meterRegistry = registry;
+        detections = Counter.builder("cache.hot.key.detections")
+                .description("Keys that crossed the hot-key threshold on this node")
+                .register(registry);
+        for (String source : lastWindow.keySet()) {
+            gaugedSources.remove(source);
+            registerGauge(source);
+        }
+    }
+
+    private void registerGauge(String source) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null || !gaugedSources.add(source)) {
+            return;
+        }
+        Gauge.builder("cache.hot.keys", this, detector -> detector.hotKeys.getOrDefault(source, Set.of()).size())
+                .description("Keys above the hot-key threshold in the last window")
+                .tag("source", source)
+                .register(registry);
+    }
+
+    /**
+     * 单个热点候选
+     *
+     * @param key           键
+     * @param count         估算的读取次数（已按抽样率还原）
+     * @param error         估算次数的误差上界
+     * @param ratePerSecond 按保证计数估算的每秒读取次数
+     * @param hot           是否达到热点阈值
+     */
+    public record HotKey(String key, long count, long error, double ratePerSecond, boolean hot) {
+    }
+
+    /**
+     * Space-Saving 摘要；抽样后的写入频率较低，用一把锁保护即可
+     */
+    static final class SpaceSaving {
+
+        private final int capacity;
+        private final Map<String, long[]> counters; // key -> {count, error}
+        private final ReentrantLock lock = new ReentrantLock();
+
+        SpaceSaving(int capacity) {
+            this.capacity = capacity;
+            this.counters = new HashMap<>(capacity * 2);
+        }
+
+        void offer(String key) {
+            lock.lock();
+            try {
+                long[] counter = counters.get(key);
+                if (counter != null) {
+                    counter[0]++;
+                    return;
+                }
+                if (counters.size() < capacity) {
+                    counters.put(key, new long[]{1, 0});
+                    return;
+                }
+                String minKey = null;
+                long min = Long.MAX_VALUE;
+                for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                    if (entry.getValue()[0] < min) {
+                        min = entry.getValue()[0];
+                        minKey = entry.getKey();
+                    }
+                }
+                counters.remove(minKey);
+                counters.put(key, new long[]{min + 1, min});
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        List<HotKey> top(int sampleRate, long windowMs, double thresholdPerSecond) {
+            List<HotKey> result = new ArrayList<>();
+            lock.lock();
+            try {
+                for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+                    long count = entry.getValue()[0];
+                    long error = entry.getValue()[1];
+                    double rate = (count - error) * (double) sampleRate * 1000 / windowMs;
+                    result.add(new HotKey(entry.getKey(), count * sampleRate, error * sampleRate, rate,
+                            rate >= thresholdPerSecond));
+                }
+            } finally {
+                lock.unlock();
+            }
+            result.sort(Comparator.comparingLong(HotKey::count).reversed());
+            return result;
+        }
+    }
+}
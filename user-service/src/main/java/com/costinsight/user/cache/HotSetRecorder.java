@@ -0,0 +1,151 @@
+package com.costinsight.user.cache;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 缓存热点集合的记录与持久化
+ * <p>
+ * 每个节点在内存中按缓存名统计带加载函数的读取次数（最多跟踪 max-tracked-keys 个键，超出后新键不再计数），
+ * 定期把本周期计数最高的键通过 ZINCRBY 合并进 Redis 有序集合 cache:hotset:{cache}：
+ * <ul>
+ *     <li>每个周期由抢到 SET NX 标记的一个节点先把整个集合乘以 decay，旧热点逐渐让位；</li>
+ *     <li>合并后只保留分数最高的 snapshot-size 个键，并续期 TTL。</li>
+ * </ul>
+ * 启动预热与管理接口按分数从高到低读取该快照。
+ */
+@Component
+public class HotSetRecorder {
+
+    public static final String KEY_PREFIX = "cache:hotset:";
+
+    private static final Logger logger = LoggerFactory.getLogger(HotSetRecorder.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final int maxTrackedKeys;
+    private final int snapshotSize;
+    private final double decay;
+    private final Duration flushInterval;
+    private final Duration snapshotTtl;
+
+    private volatile Map<String, Map<String, LongAdder>> counts = new ConcurrentHashMap<>();
+    private final AtomicInteger trackedKeys = new AtomicInteger();
+
+    public HotSetRecorder(StringRedisTemplate redisTemplate,
+                          @Value("${app.cache.hot-set.enabled:true}") boolean enabled,
+                          @Value("${app.cache.hot-set.max-tracked-keys:100000}") int maxTrackedKeys,
+                          @Value("${app.cache.hot-set.snapshot-size:10000}") int snapshotSize,
+                          @Value("${app.cache.hot-set.decay:0.9}") double decay,
+                          @Value("${app.cache.hot-set.flush-interval-ms:60000}") long flushIntervalMs,
+                          @Value("${app.cache.hot-set.ttl-ms:604800000}") long snapshotTtlMs) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.snapshotSize = snapshotSize;
+        this.decay = decay;
+        this.flushInterval = Duration.ofMillis(flushIntervalMs);
+        this.snapshotTtl = Duration.ofMillis(snapshotTtlMs);
+    }
+
+    /**
+     * 记录一次读取
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存键（字符串形式）
+     */
+    public void record(String cacheName, String key) {
+        if (!enabled) {
+            return;
+        }
+        Map<String, LongAdder> cacheCounts = counts.computeIfAbsent(cacheName, name -> new ConcurrentHashMap<>());
+        LongAdder counter = cacheCounts.get(key);
+        if (counter == null) {
+            if (trackedKeys.get() >= maxTrackedKeys) {
+                return;
+            }
+            counter = cacheCounts.computeIfAbsent(key, k -> {
+                trackedKeys.incrementAndGet();
+                return new LongAdder();
+            });
+        }
+        counter.increment();
+    }
+
+    /**
+     * 把本周期的计数合并进 Redis 快照，失败时丢弃本周期计数
+     */
+    @Scheduled(initialDelayString = "${app.cache.hot-set.flush-interval-ms:60000}",
+            fixedDelayString = "${app.cache.hot-set.flush-interval-ms:60000}")
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        Map<String, Map<String, LongAdder>> snapshot = counts;
+        counts = new ConcurrentHashMap<>();
+        trackedKeys.set(0);
+
+        for (Map.Entry<String, Map<String, LongAdder>> entry : snapshot.entrySet()) {
+            List<Map.Entry<String, Long>> top = topLocal(entry.getValue());
+            if (top.isEmpty()) {
+                continue;
+            }
+            String key = KEY_PREFIX + entry.getKey();
+            try {
+                Boolean decayTurn = redisTemplate.opsForValue().setIfAbsent(key + ":decay", "1", flushInterval);
+                if (Boolean.TRUE.equals(decayTurn)) {
+                    redisTemplate.opsForZSet().unionAndStore(key, Collections.emptyList(), key,
+                            Aggregate.SUM, Weights.of(decay));
+                }
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                    for (Map.Entry<String, Long> count : top) {
+                        stringConnection.zIncrBy(key, count.getValue(), count.getKey());
+                    }
+                    stringConnection.zRemRange(key, 0, -(snapshotSize + 1L));
+                    stringConnection.pExpire(key, snapshotTtl.toMillis());
+                    return null;
+                });
+            } catch (Exception e) {
+                logger.warn("Failed to persist hot set for cache {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 按分数从高到低读取持久化的热点键
+     *
+     * @param cacheName 缓存名
+     * @param limit     最多返回的键数
+     * @return List<String> 热点键
+     */
+    public List<String> topKeys(String cacheName, int limit) {
+        Set<String> keys = redisTemplate.opsForZSet().reverseRange(KEY_PREFIX + cacheName, 0, limit - 1L);
+        return keys != null ? new ArrayList<>(keys) : List.of();
+    }
+
+    private List<Map.Entry<String, Long>> topLocal(Map<String, LongAdder> cacheCounts) {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(cacheCounts.size());
+        cacheCounts.forEach((key, counter) -> entries.add(Map.entry(key, counter.sum())));
+        entries.sort(Map.Entry.<String, Long>comparingByValue().reversed());
+        return entries.size() > snapshotSize ? entries.subList(0, snapshotSize) : entries;
+    }
+}
@@ -0,0 +1,69 @@
+package com.costinsight.user.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 在缓存值前附加写入时间的序列化器，供 XFetch 推算 Redis 条目的过期时间
+ * <p>
+ * 格式：
+ * <pre>
+ * MAGIC(1) | 写入时间（毫秒时间戳，8 字节大端） | 内层序列化器的输出
+ * </pre>
+ * 读取时返回 {@link Timestamped}，由 TwoLevelCache 拆开：过期时间 = 写入时间 + 策略 TTL，
+ * 任何节点从 Redis 回填 L1 时都能得到过期时间，不需要额外的 PTTL 往返。
+ * 首字节不是 MAGIC 的数据（加上写入时间之前写入的条目）直接交给内层序列化器，过期时间视为未知。
+ */
+public class TimestampedValueSerializer implements RedisSerializer<Object> {
+
+    // 既不是合法的 JSON 起始字节，也与 CompactValueSerializer.MAGIC 不同
+    static final byte MAGIC = (byte) 0xC8;
+    static final int HEADER_LENGTH = 1 + Long.BYTES;
+
+    private final RedisSerializer<Object> delegate;
+
+    /**
+     * @param delegate 缓存值本身使用的序列化器
+     */
+    @SuppressWarnings("unchecked")
+    public TimestampedValueSerializer(RedisSerializer<?> delegate) {
+        this.delegate = (RedisSerializer<Object>) delegate;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return delegate.serialize(null);
+        }
+        return encode(System.currentTimeMillis(), delegate.serialize(value));
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length < HEADER_LENGTH || bytes[0] != MAGIC) {
+            return delegate.deserialize(bytes);
+        }
+        long writtenAt = ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+        return new Timestamped(delegate.deserialize(Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length)),
+                writtenAt);
+    }
+
+    static byte[] encode(long writtenAt, byte[] body) {
+        int length = body != null ? body.length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_LENGTH + length);
+        buffer.put(MAGIC).putLong(writtenAt);
+        if (body != null) {
+            buffer.put(body);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * 反序列化结果：缓存值及其写入 Redis 的时间（毫秒时间戳）
+     */
+    record Timestamped(Object value, long writtenAt) {
+    }
+}
@@ -0,0 +1,558 @@
+package com.costinsight.user.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.cache.RedisCacheMetrics;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本地 Caffeine（L1）+ Redis（L2）组成的单个缓存
+ * <p>
+ * L1 以 {@code String.valueOf(key)} 为键，与 RedisCache 的键转换方式一致，
+ * 这样失效广播中的字符串键可以直接匹配。L1 中保存 ValueWrapper，缓存的 null 值同样会命中。
+ * <p>
+ * 带加载函数的读取（{@code @Cacheable(sync = true)}）额外提供击穿保护：
+ * <ul>
+ *     <li>同一节点内同一个键只有一个线程执行加载，其余线程等待同一个结果；</li>
+ *     <li>跨节点通过 Redis 短锁（SET NX PX）只让一个节点查库，其他节点轮询 Redis 等待回填，
+ *     锁超时后仍未等到则自行加载；</li>
+ *     <li>概率性提前刷新（XFetch）：距离 Redis 过期越近、加载越慢，越可能由某次命中在后台重新加载，
+ *     热点条目不会在同一时刻一起过期。过期时间由 {@link TimestampedValueSerializer} 写在值里的写入时间
+ *     加策略 TTL 推算，从 Redis 回填 L1 时不需要额外的 PTTL 往返。</li>
+ * </ul>
+ * <p>
+ * HotKeyDetector 检测到的热点键写入 L1 时使用 local.pinned-ttl-ms 而不是普通的 L1 TTL，
+ * 检测到时已在 L1 中的条目也会立即延长，热点读取不再周期性地回源 Redis。
+ */
+public class TwoLevelCache implements Cache {
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCache.class);
+
+    private static final long REMOTE_POLL_MS = 50;
+    // 与 RedisCache 写入 null 值时使用的字节一致
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, LocalEntry> local;
+    private final TwoLevelCacheManager manager;
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    // 加载耗时的指数加权平均（毫秒），作为 XFetch 的 delta
+    private volatile double loadMillis;
+    private final LongAdder loadCount = new LongAdder();
+    private final LongAdder loadFailureCount = new LongAdder();
+    private volatile Timer loadTimer;
+    private final long localTtlNanos;
+    // 热点键在 L1 中的 TTL，依赖失效广播保证一致性，丢失消息时最长陈旧时间相应变长
+    private final long pinnedTtlNanos;
+
+    TwoLevelCache(Cache remote, long localMaxSize, Duration localTtl, TwoLevelCacheManager manager) {
+        this.remote = remote;
+        this.manager = manager;
+        this.loadMillis = manager.getDefaultLoadMillis();
+        this.localTtlNanos = localTtl.toNanos();
+        this.pinnedTtlNanos = Math.max(localTtlNanos, manager.getPinnedTtl().toNanos());
+        this.local = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfter(new LocalExpiry())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = String.valueOf(key);
+        manager.recordRead(getName(), localKey);
+        return lookup(key, localKey);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper == null) {
+            return null;
+        }
+        Object value = wrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = String.valueOf(key);
+        manager.recordAccess(getName(), localKey);
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            maybeRefreshEarly(key, localKey, (LocalEntry) wrapper, valueLoader);
+            return (T) wrapper.get();
+        }
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(localKey, mine);
+        if (existing != null) {
+            try {
+                return (T) existing.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                throw new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            Object value = loadWithRemoteLock(key, localKey, valueLoader);
+            mine.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        String localKey = String.valueOf(key);
+        local.put(localKey, new LocalEntry(value, manager.expiresAt(getName(), System.currentTimeMillis())));
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        String localKey = String.valueOf(key);
+        local.invalidate(localKey);
+        if (existing == null) {
+            manager.publishInvalidation(getName(), localKey);
+            return null;
+        }
+        return fromRemote(existing.get());
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        String localKey = String.valueOf(key);
+        local.invalidate(localKey);
+        manager.publishInvalidation(getName(), localKey);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = remote.evictIfPresent(key);
+        String localKey = String.valueOf(key);
+        local.invalidate(localKey);
+        manager.publishInvalidation(getName(), localKey);
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        manager.publishInvalidation(getName(), TwoLevelCacheManager.CLEAR_ALL);
+    }
+
+    /**
+     * 预热写入：Redis 中已有条目时保留 Redis 中的值，只填充缺失的条目；同时回填本地 L1，不广播失效消息
+     *
+     * @return 写入后缓存中的值
+     */
+    public Object warm(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        LocalEntry entry = existing != null ? fromRemote(existing.get())
+                : new LocalEntry(value, manager.expiresAt(getName(), System.currentTimeMillis()));
+        local.put(String.valueOf(key), entry);
+        return entry.get();
+    }
+
+    /**
+     * 批量读取：先查 L1，L1 未命中的键通过一次 MGET 从 Redis 读取并回填 L1
+     *
+     * @return 命中的条目（包括缓存的 null 值），以键的字符串形式索引；未命中的键不在结果中
+     */
+    public Map<String, ValueWrapper> getAll(Collection<?> keys) {
+        Map<String, ValueWrapper> found = new LinkedHashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (Object key : keys) {
+            String localKey = String.valueOf(key);
+            manager.recordAccess(getName(), localKey);
+            manager.recordRead(getName(), localKey);
+            LocalEntry entry = local.getIfPresent(localKey);
+            if (entry != null) {
+                found.put(localKey, entry);
+            } else {
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+        List<LocalEntry> remoteValues = remoteGetAll(misses);
+        for (int i = 0; i < misses.size(); i++) {
+            LocalEntry entry = remoteValues.get(i);
+            if (entry != null) {
+                String localKey = String.valueOf(misses.get(i));
+                local.put(localKey, entry);
+                found.put(localKey, entry);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 批量回填：在一个管道内以 SET NX 写入 Redis，Redis 中已有的条目保持不变；
+     * 本次写入的条目同时放入本地 L1，不广播失效消息（与 {@link #warm} 相同）。
+     * 不缓存 null 的缓存（cache-null-values: false）跳过 null 值。
+     */
+    public void putAllIfAbsent(Map<?, ?> values) {
+        boolean cacheNullValues = manager.getPolicy(getName()).getCacheNullValues();
+        Map<Object, Object> toWrite = new LinkedHashMap<>();
+        values.forEach((key, value) -> {
+            if (value != null || cacheNullValues) {
+                toWrite.put(key, value);
+            }
+        });
+        if (toWrite.isEmpty()) {
+            return;
+        }
+        if (!(remote instanceof RedisCache redisCache)) {
+            toWrite.forEach(this::warm);
+            return;
+        }
+        RedisSerializationContext.SerializationPair<Object> valuePair =
+                redisCache.getCacheConfiguration().getValueSerializationPair();
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        toWrite.forEach((key, value) -> entries.put(manager.redisKey(getName(), key),
+                value == null ? BINARY_NULL_VALUE : ByteUtils.getBytes(valuePair.write(value))));
+        List<Boolean> written = manager.setAllIfAbsent(entries,
+                Duration.ofMillis(manager.getPolicy(getName()).getTtlMs()));
+        long expiresAt = manager.expiresAt(getName(), System.currentTimeMillis());
+        int i = 0;
+        for (Map.Entry<Object, Object> entry : toWrite.entrySet()) {
+            String localKey = String.valueOf(entry.getKey());
+            if (i < written.size() && written.get(i)) {
+                local.put(localKey, new LocalEntry(entry.getValue(), expiresAt));
+            } else {
+                // Redis 中已有其他值，下次读取从 Redis 回填
+                local.invalidate(localKey);
+            }
+            i++;
+        }
+    }
+
+    /**
+     * 导出 L1 的 Caffeine 统计（level=local）、L2 的 RedisCache 统计（level=remote，需开启 enableStatistics）
+     * 以及加载函数耗时 cache.loader.duration
+     */
+    void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, local, getName(), Tags.of("level", "local"));
+        if (remote instanceof RedisCache redisCache) {
+            new RedisCacheMetrics(redisCache, Tags.of("level", "remote")).bindTo(registry);
+        }
+        loadTimer = Timer.builder("cache.loader.duration")
+                .description("Time spent in cache value loaders after a miss or early refresh")
+                .tag("cache", getName())
+                .register(registry);
+        FunctionCounter.builder("cache.loader.failures", loadFailureCount, LongAdder::sum)
+                .tag("cache", getName())
+                .register(registry);
+    }
+
+    /**
+     * 只查看 L1，不回填也不访问 Redis（管理接口使用）
+     */
+    public ValueWrapper peekLocal(Object key) {
+        return local.getIfPresent(String.valueOf(key));
+    }
+
+    /**
+     * 只查看 Redis，不回填 L1（管理接口使用）
+     */
+    public ValueWrapper peekRemote(Object key) {
+        ValueWrapper wrapper = remote.get(key);
+        return wrapper != null ? fromRemote(wrapper.get()) : null;
+    }
+
+    public Cache getRemote() {
+        return remote;
+    }
+
+    public CacheStats localStats() {
+        return local.stats();
+    }
+
+    public long getLoadCount() {
+        return loadCount.sum();
+    }
+
+    /**
+     * 把已在 L1 中的条目的剩余 TTL 延长为热点 TTL，不在 L1 中时忽略
+     */
+    void pin(String localKey) {
+        local.policy().expireVariably().ifPresent(policy ->
+                policy.setExpiresAfter(localKey, pinnedTtlNanos, TimeUnit.NANOSECONDS));
+    }
+
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    public long localSize() {
+        return local.estimatedSize();
+    }
+
+    public double getLoadMillis() {
+        return loadMillis;
+    }
+
+    /**
+     * 先查 L1，未命中时从 Redis 回填；不计入热点键检测
+     */
+    private ValueWrapper lookup(Object key, String localKey) {
+        LocalEntry entry = local.getIfPresent(localKey);
+        if (entry != null) {
+            return entry;
+        }
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null) {
+            entry = fromRemote(wrapper.get());
+            local.put(localKey, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * 拆开 Redis 中读到的值：带写入时间的值按策略 TTL 推算过期时间，其余（null、旧格式条目）过期时间未知
+     */
+    private LocalEntry fromRemote(Object value) {
+        if (value instanceof TimestampedValueSerializer.Timestamped timestamped) {
+            return new LocalEntry(timestamped.value(), manager.expiresAt(getName(), timestamped.writtenAt()));
+        }
+        return new LocalEntry(value, 0);
+    }
+
+    private List<LocalEntry> remoteGetAll(List<Object> keys) {
+        if (!(remote instanceof RedisCache redisCache)) {
+            List<LocalEntry> values = new ArrayList<>(keys.size());
+            for (Object key : keys) {
+                ValueWrapper wrapper = remote.get(key);
+                values.add(wrapper != null ? fromRemote(wrapper.get()) : null);
+            }
+            return values;
+        }
+        List<String> redisKeys = new ArrayList<>(keys.size());
+        for (Object key : keys) {
+            redisKeys.add(manager.redisKey(getName(), key));
+        }
+        RedisSerializationContext.SerializationPair<Object> valuePair =
+                redisCache.getCacheConfiguration().getValueSerializationPair();
+        List<LocalEntry> values = new ArrayList<>(keys.size());
+        for (byte[] bytes : manager.multiGet(redisKeys)) {
+            if (bytes == null) {
+                values.add(null);
+            } else if (redisCache.isAllowNullValues() && Arrays.equals(bytes, BINARY_NULL_VALUE)) {
+                values.add(new LocalEntry(null, 0));
+            } else {
+                values.add(fromRemote(valuePair.read(ByteBuffer.wrap(bytes))));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * 缓存未命中时加载：抢到 Redis 锁的节点查库并回填，其他节点轮询 Redis 等待结果
+     */
+    private Object loadWithRemoteLock(Object key, String localKey, Callable<?> valueLoader) {
+        String lockToken = manager.tryLock(getName(), localKey);
+        if (lockToken == null) {
+            long deadline = System.nanoTime() + manager.getLockTtl().toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!sleep(REMOTE_POLL_MS)) {
+                    break;
+                }
+                // 轮询不是业务读取，不计入热点键检测
+                ValueWrapper wrapper = lookup(key, localKey);
+                if (wrapper != null) {
+                    return wrapper.get();
+                }
+            }
+            // 持锁节点超时或失败，自行加载
+            return load(key, valueLoader);
+        }
+        try {
+            // 可能在本次未命中之后、抢锁之前已有节点完成回填
+            ValueWrapper wrapper = lookup(key, localKey);
+            if (wrapper != null) {
+                return wrapper.get();
+            }
+            return load(key, valueLoader);
+        } finally {
+            manager.unlock(getName(), localKey, lockToken);
+        }
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            loadFailureCount.increment();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        loadMillis = loadMillis * 0.8 + elapsedNanos / 1e6 * 0.2;
+        loadCount.increment();
+        Timer timer = loadTimer;
+        if (timer != null) {
+            timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+        // 不缓存 null 的缓存（cache-null-values: false）直接返回，sync 模式下无法用 unless 排除
+        if (value != null || manager.getPolicy(getName()).getCacheNullValues()) {
+            put(key, value);
+        }
+        return value;
+    }
+
+    /**
+     * XFetch：当 {@code delta * beta * -ln(rand) >= 距离 Redis 过期的剩余时间} 时在后台重新加载。
+     * Redis 条目已经过期而 L1 仍持有旧值时，剩余时间为负，一定会触发刷新。
+     */
+    private void maybeRefreshEarly(Object key, String localKey, LocalEntry entry, Callable<?> valueLoader) {
+        double beta = manager.getEarlyRefreshBeta();
+        if (beta <= 0 || entry.expiresAt == 0 || inFlight.containsKey(localKey)) {
+            return;
+        }
+        long remainingMs = entry.expiresAt - System.currentTimeMillis();
+        double gap = loadMillis * beta * -Math.log(1 - ThreadLocalRandom.current().nextDouble());
+        if (gap < remainingMs) {
+            return;
+        }
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(localKey, mine) != null) {
+            return;
+        }
+        boolean submitted = manager.submitRefresh(() -> {
+            try {
+                // 拿不到锁说明其他节点正在刷新，本节点放弃
+                String lockToken = manager.tryLock(getName(), localKey);
+                if (lockToken != null) {
+                    try {
+                        mine.complete(load(key, valueLoader));
+                    } finally {
+                        manager.unlock(getName(), localKey, lockToken);
+                    }
+                }
+            } catch (RuntimeException e) {
+                logger.warn("Early refresh of {}::{} failed: {}", getName(), localKey, e.getMessage());
+            } finally {
+                // 未刷新或刷新失败时，等待者拿到旧值
+                mine.complete(entry.get());
+                inFlight.remove(localKey, mine);
+            }
+        });
+        if (!submitted) {
+            mine.complete(entry.get());
+            inFlight.remove(localKey, mine);
+        }
+    }
+
+    private static boolean sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * L1 过期策略：写入时按热点状态决定 TTL，读取不延长
+     */
+    private final class LocalExpiry implements Expiry<String, LocalEntry> {
+
+        @Override
+        public long expireAfterCreate(String key, LocalEntry value, long currentTime) {
+            return manager.isHot(getName(), key) ? pinnedTtlNanos : localTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, LocalEntry value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, LocalEntry value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * L1 条目：缓存值及其 Redis 过期时间（毫秒时间戳，0 表示未知）
+     */
+    static final class LocalEntry implements ValueWrapper {
+
+        private final Object value;
+        private final long expiresAt;
+
+        LocalEntry(Object value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        @Override
+        public Object get() {
+            return value;
+        }
+    }
+}
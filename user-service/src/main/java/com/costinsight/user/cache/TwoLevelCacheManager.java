@@ -0,0 +1,326 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.config.CacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 两级缓存管理器：每个 JVM 内的 Caffeine 近端缓存（L1）叠加在 Redis 缓存（L2）之上
+ * <p>
+ * 写入、驱逐和清空先作用于 Redis，再更新本地 L1，随后通过 pub/sub 广播失效消息，
+ * 其他节点收到后只驱逐自己的 L1 条目，下一次读取从 Redis 回填。
+ * 丢失的失效消息由 L1 的短 TTL 兜底，因此 TTL 应保持在秒级。
+ * <p>
+ * 同时提供击穿保护所需的跨节点加载锁（lock: + Redis 键）和后台提前刷新线程，见 {@link TwoLevelCache}。
+ * 各缓存的 TTL、null 值缓存、键前缀与 L1 大小由 {@link CacheProperties} 按缓存名配置。
+ */
+public class TwoLevelCacheManager implements CacheManager, MessageListener, MeterBinder, DisposableBean {
+
+    public static final String CHANNEL = "cache:invalidations";
+    public static final String LOCK_KEY_PREFIX = "lock:";
+
+    static final String CLEAR_ALL = "*";
+    // Redis 不可用时 tryLock 返回该值，调用方直接加载
+    static final String NO_LOCK = "";
+
+    private static final RedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheProperties properties;
+    private final ThreadPoolExecutor refreshExecutor;
+    // 用于忽略本节点自己发出的失效消息
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoLevelCache> caches = new ConcurrentHashMap<>();
+    private final HotSetRecorder hotSetRecorder;
+    private final HotKeyDetector hotKeyDetector;
+    private volatile MeterRegistry meterRegistry;
+
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                CacheProperties properties) {
+        this(remoteCacheManager, redisTemplate, properties, null, null);
+    }
+
+    /**
+     * @param remoteCacheManager Redis 缓存管理器（L2）
+     * @param properties         本地 L1、击穿保护与各缓存策略的配置
+     * @param hotSetRecorder     记录带加载函数的读取，用于启动预热；为 null 时不记录
+     * @param hotKeyDetector     统计每次读取，检测到的热点键在 L1 中延长 TTL；为 null 时不检测
+     */
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                CacheProperties properties, HotSetRecorder hotSetRecorder,
+                                HotKeyDetector hotKeyDetector) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.properties = properties;
+        this.hotSetRecorder = hotSetRecorder;
+        this.hotKeyDetector = hotKeyDetector;
+        if (hotKeyDetector != null) {
+            hotKeyDetector.addListener(this::pinHotKeys);
+        }
+        // 提前刷新是尽力而为的：队列满时直接放弃，命中请求照常返回旧值
+        this.refreshExecutor = new ThreadPoolExecutor(2, 2, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(1000), runnable -> {
+            Thread thread = new Thread(runnable, "cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+        }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        if (!properties.getLocal().isEnabled()) {
+            return remoteCacheManager.getCache(name);
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            Cache remote = remoteCacheManager.getCache(cacheName);
+            if (remote == null) {
+                return null;
+            }
+            CacheProperties.Policy policy = properties.policyFor(cacheName);
+            TwoLevelCache cache = new TwoLevelCache(remote, policy.getMaxSize(),
+                    Duration.ofMillis(policy.getLocalTtlMs()), this);
+            MeterRegistry registry = meterRegistry;
+            if (registry != null) {
+                cache.bindTo(registry);
+            }
+            return cache;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    /**
+     * 收到其他节点的失效广播，驱逐本地 L1 条目
+     * <p>
+     * 消息格式：{@code nodeId|cacheName|key}，key 为 {@value #CLEAR_ALL} 时清空整个 L1。
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoLevelCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR_ALL.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    /**
+     * 导出各缓存的 L1（Caffeine）、L2（Redis）统计与加载耗时；配置中列出的缓存立即创建，其余缓存在首次使用时注册
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        caches.values().forEach(cache -> cache.bindTo(registry));
+        this.meterRegistry = registry;
+        for (String name : properties.getCaches().keySet()) {
+            getCache(name);
+        }
+    }
+
+    /**
+     * 指定缓存生效的策略
+     */
+    public CacheProperties.Policy getPolicy(String cacheName) {
+        return properties.policyFor(cacheName);
+    }
+
+    /**
+     * 缓存条目在 Redis 中的完整键
+     */
+    public String redisKey(String cacheName, Object key) {
+        return properties.redisKeyPrefix(cacheName) + key;
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    /**
+     * 尝试获取跨节点加载锁
+     *
+     * @return 锁令牌；其他节点持有锁时返回 null；Redis 不可用时返回 {@link #NO_LOCK}
+     */
+    String tryLock(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(lockKey(cacheName, key), token, getLockTtl());
+            return Boolean.TRUE.equals(acquired) ? token : null;
+        } catch (Exception e) {
+            logger.warn("Failed to acquire cache load lock for {}::{}: {}", cacheName, key, e.getMessage());
+            return NO_LOCK;
+        }
+    }
+
+    /**
+     * 释放加载锁，只删除令牌匹配的锁，避免误删超时后被其他节点重新获取的锁
+     */
+    void unlock(String cacheName, String key, String token) {
+        if (NO_LOCK.equals(token)) {
+            return;
+        }
+        try {
+            redisTemplate.execute(UNLOCK_SCRIPT, List.of(lockKey(cacheName, key)), token);
+        } catch (Exception e) {
+            logger.warn("Failed to release cache load lock for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+
+    /**
+     * 按写入时间和缓存策略的 TTL 推算 Redis 条目的过期时间（毫秒时间戳），供 XFetch 使用；
+     * 关闭提前刷新或条目不过期时返回 0
+     */
+    long expiresAt(String cacheName, long writtenAt) {
+        long ttlMs = getPolicy(cacheName).getTtlMs();
+        if (getEarlyRefreshBeta() <= 0 || ttlMs <= 0) {
+            return 0;
+        }
+        return writtenAt + ttlMs;
+    }
+
+    /**
+     * 一次 MGET 读取多个 Redis 键的原始字节，结果与 redisKeys 一一对应，不存在的键为 null
+     */
+    List<byte[]> multiGet(List<String> redisKeys) {
+        byte[][] keys = new byte[redisKeys.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = redisKeys.get(i).getBytes(StandardCharsets.UTF_8);
+        }
+        List<byte[]> values = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(keys));
+        return values != null ? values : Collections.nCopies(keys.length, null);
+    }
+
+    /**
+     * 在一个管道内以 SET NX PX 写入多个键，已存在的键保持不变
+     *
+     * @param entries Redis 键到序列化后的值，按迭代顺序写入
+     * @param ttl     条目 TTL，为 0 时不过期
+     * @return 与 entries 迭代顺序对应的写入结果，true 表示本次写入
+     */
+    List<Boolean> setAllIfAbsent(Map<String, byte[]> entries, Duration ttl) {
+        Expiration expiration = ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+        List<Object> results = redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                connection.stringCommands().set(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue(),
+                        expiration, RedisStringCommands.SetOption.ifAbsent());
+            }
+            return null;
+        });
+        List<Boolean> written = new ArrayList<>(results.size());
+        for (Object result : results) {
+            written.add(Boolean.TRUE.equals(result));
+        }
+        return written;
+    }
+
+    void recordAccess(String cacheName, String key) {
+        if (hotSetRecorder != null) {
+            hotSetRecorder.record(cacheName, key);
+        }
+    }
+
+    void recordRead(String cacheName, String key) {
+        if (hotKeyDetector != null) {
+            hotKeyDetector.record(cacheName, key);
+        }
+    }
+
+    boolean isHot(String cacheName, String key) {
+        return hotKeyDetector != null && hotKeyDetector.isHot(cacheName, key);
+    }
+
+    Duration getPinnedTtl() {
+        return Duration.ofMillis(properties.getLocal().getPinnedTtlMs());
+    }
+
+    /**
+     * 新检测到的热点键如已在 L1 中，立即延长其 TTL；之后的写入由 L1 的过期策略按热点状态计算 TTL
+     */
+    private void pinHotKeys(String cacheName, Set<String> keys) {
+        TwoLevelCache cache = caches.get(cacheName);
+        if (cache != null) {
+            keys.forEach(cache::pin);
+        }
+    }
+
+    boolean submitRefresh(Runnable refresh) {
+        try {
+            refreshExecutor.execute(refresh);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    Duration getLockTtl() {
+        return Duration.ofMillis(properties.getStampede().getLockTtlMs());
+    }
+
+    double getEarlyRefreshBeta() {
+        return properties.getEarlyRefresh().getBeta();
+    }
+
+    long getDefaultLoadMillis() {
+        return properties.getEarlyRefresh().getDefaultLoadMs();
+    }
+
+    private String lockKey(String cacheName, String key) {
+        return LOCK_KEY_PREFIX + redisKey(cacheName, key);
+    }
+
+    /**
+     * 广播失效消息；Redis 不可用时只记录日志，其他节点的 L1 依靠 TTL 过期
+     */
+    void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(CHANNEL, nodeId + "|" + cacheName + "|" + key);
+        } catch (Exception e) {
+            logger.warn("Failed to publish cache invalidation for {}::{}: {}", cacheName, key, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.dto.UserResponseVO;
+
+/**
+ * UserResponseVO 的二进制格式
+ * <p>
+ * 版本 1：字段存在位图（1 字节） + id(varlong) + username + email + createdAt + updatedAt，
+ * 为 null 的字段不写入。
+ */
+public class UserResponseVOCodec implements CacheValueCodec<UserResponseVO> {
+
+    private static final int ID = 1;
+    private static final int USERNAME = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int CREATED_AT = 1 << 3;
+    private static final int UPDATED_AT = 1 << 4;
+
+    @Override
+    public byte tag() {
+        return 1;
+    }
+
+    @Override
+    public Class<UserResponseVO> type() {
+        return UserResponseVO.class;
+    }
+
+    @Override
+    public int version() {
+        return 1;
+    }
+
+    @Override
+    public void write(UserResponseVO value, CompactValueSerializer.Output out) {
+        int present = (value.getId() != null ? ID : 0)
+                | (value.getUsername() != null ? USERNAME : 0)
+                | (value.getEmail() != null ? EMAIL : 0)
+                | (value.getCreatedAt() != null ? CREATED_AT : 0)
+                | (value.getUpdatedAt() != null ? UPDATED_AT : 0);
+        out.writeByte(present);
+        if (value.getId() != null) {
+            out.writeVarLong(value.getId());
+        }
+        if (value.getUsername() != null) {
+            out.writeString(value.getUsername());
+        }
+        if (value.getEmail() != null) {
+            out.writeString(value.getEmail());
+        }
+        if (value.getCreatedAt() != null) {
+            out.writeDateTime(value.getCreatedAt());
+        }
+        if (value.getUpdatedAt() != null) {
+            out.writeDateTime(value.getUpdatedAt());
+        }
+    }
+
+    @Override
+    public UserResponseVO read(int version, CompactValueSerializer.Input in) {
+        if (version != 1) {
+            throw new IllegalArgumentException("Unsupported UserResponseVO cache format version " + version);
+        }
+        int present = in.readByte();
+        UserResponseVO value = new UserResponseVO();
+        if ((present & ID) != 0) {
+            value.setId(in.readVarLong());
+        }
+        if ((present & USERNAME) != 0) {
+            value.setUsername(in.readString());
+        }
+        if ((present & EMAIL) != 0) {
+            value.setEmail(in.readString());
+        }
+        if ((present & CREATED_AT) != 0) {
+            value.setCreatedAt(in.readDateTime());
+        }
+        if ((present & UPDATED_AT) != 0) {
+            value.setUpdatedAt(in.readDateTime());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,123 @@
+package com.costinsight.user.config;
+
+import lombok.Data;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 缓存配置（app.cache）
+ * <p>
+ * defaults 为所有缓存的默认策略，caches 按缓存名覆盖其中的部分字段，未填写的字段沿用默认值。
+ * 本地 L1 的大小与 TTL 未在策略中指定时取 local.max-size / local.ttl-ms。
+ */
+@Data
+public class CacheProperties {
+
+    private Local local = new Local();
+
+    private Serializer serializer = new Serializer();
+
+    private Stampede stampede = new Stampede();
+
+    private EarlyRefresh earlyRefresh = new EarlyRefresh();
+
+    private Policy defaults = new Policy();
+
+    private Map<String, Policy> caches = new LinkedHashMap<>();
+
+    /**
+     * 合并默认策略与指定缓存的覆盖项，返回字段全部非空的策略
+     */
+    public Policy policyFor(String cacheName) {
+        return resolve(caches.getOrDefault(cacheName, new Policy()));
+    }
+
+    /**
+     * 未单独配置的缓存使用的策略
+     */
+    public Policy defaultPolicy() {
+        return resolve(new Policy());
+    }
+
+    private Policy resolve(Policy override) {
+        Policy resolved = new Policy();
+        resolved.setTtlMs(firstNonNull(override.getTtlMs(), defaults.getTtlMs(), 600_000L));
+        resolved.setCacheNullValues(firstNonNull(override.getCacheNullValues(), defaults.getCacheNullValues(), true));
+        resolved.setKeyPrefix(firstNonNull(override.getKeyPrefix(), defaults.getKeyPrefix(), ""));
+        resolved.setMaxSize(firstNonNull(override.getMaxSize(), defaults.getMaxSize(), local.getMaxSize()));
+        resolved.setLocalTtlMs(firstNonNull(override.getLocalTtlMs(), defaults.getLocalTtlMs(), local.getTtlMs()));
+        return resolved;
+    }
+
+    /**
+     * 缓存条目在 Redis 中的键前缀：key-prefix + 缓存名 + "::"
+     */
+    public String redisKeyPrefix(String cacheName) {
+        return policyFor(cacheName).getKeyPrefix() + cacheName + "::";
+    }
+
+    @SafeVarargs
+    private static <T> T firstNonNull(T... values) {
+        for (T value : values) {
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    @Data
+    public static class Policy {
+
+        /** Redis 条目 TTL（毫秒） */
+        private Long ttlMs;
+
+        /** 是否缓存 null 结果（如不存在的用户ID） */
+        private Boolean cacheNullValues;
+
+        /** Redis 键前缀，拼接在缓存名之前 */
+        private String keyPrefix;
+
+        /** 本地 L1 最大条目数 */
+        private Long maxSize;
+
+        /** 本地 L1 TTL（毫秒） */
+        private Long localTtlMs;
+    }
+
+    @Data
+    public static class Local {
+
+        private boolean enabled = true;
+
+        private long maxSize = 10_000;
+
+        private long ttlMs = 30_000;
+
+        /** 热点键在 L1 中的 TTL（毫秒），见 HotKeyDetector */
+        private long pinnedTtlMs = 300_000;
+    }
+
+    @Data
+    public static class Serializer {
+
+        private String format = "compact";
+
+        private int compressionThreshold = 512;
+    }
+
+    @Data
+    public static class Stampede {
+
+        private long lockTtlMs = 3_000;
+    }
+
+    @Data
+    public static class EarlyRefresh {
+
+        private double beta = 1.0;
+
+        private long defaultLoadMs = 20;
+    }
+}
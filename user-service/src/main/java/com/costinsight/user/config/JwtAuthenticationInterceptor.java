@@ -1,31 +1,54 @@
 package com.costinsight.user.config;
 
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.security.Permission;
+import com.costinsight.user.security.RequirePermission;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
 import com.costinsight.user.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.JwtException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.core.annotation.AnnotatedElementUtils;
 import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.HandlerInterceptor;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class JwtAuthenticationInterceptor implements HandlerInterceptor {
 
+    // 黑名单查询的热点统计来源，对应 Redis 中的 jwt:blacklist:{jti}
+    private static final String BLACKLIST_SOURCE = "jwt:blacklist";
+
     @Autowired
     private JwtUtil jwtUtil;
 
     @Autowired
-    private StringRedisTemplate redisTemplate;
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Autowired
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @Autowired
+    private RolePermissionTable rolePermissionTable;
+
+    @Autowired
+    private HotKeyDetector hotKeyDetector;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    // 每个接口方法所需的权限位集，注解只解析一次
+    private final Map<Method, Long> requiredPermissions = new ConcurrentHashMap<>();
+
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
         String authHeader = request.getHeader("Authorization");
@@ -33,29 +56,35 @@ public class JwtAuthenticationInterceptor implements HandlerInterceptor {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             String token = authHeader.substring(7);
             try {
-                Claims claims = jwtUtil.parseTokenAndGetClaims(token);
-
-                // 1. 从 Claims 中获取 JTI
-                String jti = claims.getId();
-                if (jti == null) {
-                    throw new JwtException("Token does not have a JTI (JWT ID).");
+                // 1. 优先从已验签缓存中获取载荷，未命中时才做完整的验签和解析（JTI 缺失时会抛出异常）
+                TokenClaims claims = verifiedTokenCache.get(token);
+                if (claims == null) {
+                    claims = jwtUtil.verifyToken(token);
+                    verifiedTokenCache.put(token, claims);
                 }
 
-                // 2. 构造 Redis Key
-                String redisKey = "jwt:blacklist:" + jti;
-
-                // 3. 检查该 Key 是否存在于 Redis 中
-                Boolean isBlacklisted = redisTemplate.hasKey(redisKey);
-
-                // 4. 如果 isBlacklisted 为 true，说明 token 已登出，拒绝请求
-                if (isBlacklisted != null && isBlacklisted) {
+                // 2. 检查 Token 是否已被吊销（查询本地镜像，缓存命中时同样执行，保证登出立即生效）
+                //    JTI 在黑名单中说明已登出；签发时间早于用户纪元说明用户已修改密码或被删除
+                hotKeyDetector.record(BLACKLIST_SOURCE, claims.getJti());
+                if (tokenRevocationRegistry.isRevoked(claims)) {
                     sendErrorResponse(response, HttpServletResponse.SC_UNAUTHORIZED, "Token has been blacklisted and cannot be used.");
                     return false;
                 }
 
-                // Token 有效且不在黑名单中，将 userId 放入 request attribute，允许访问
-                Long userId = Long.parseLong(claims.getSubject());
+                // 3. 权限检查：Token 中携带权限位集时直接使用，旧 Token 按角色查内存映射表
+                long permissions = claims.hasPermissions()
+                        ? claims.getPermissions()
+                        : rolePermissionTable.permissionsOf(claims.getRole());
+                long required = requiredPermissions(handler);
+                if ((permissions & required) != required) {
+                    sendErrorResponse(response, HttpServletResponse.SC_FORBIDDEN, "Forbidden: Insufficient permissions.");
+                    return false;
+                }
+
+                // Token 有效且不在黑名单中，将 userId 和权限位集放入 request attribute，允许访问
+                Long userId = claims.getUserId();
                 request.setAttribute("userId", userId);
+                request.setAttribute("permissions", permissions);
                 return true;
 
             } catch (Exception e) {
@@ -70,6 +99,22 @@ public class JwtAuthenticationInterceptor implements HandlerInterceptor {
         return false;
     }
 
+    /**
+     * 获取接口所需的权限位集，方法上的 @RequirePermission 优先于类上的
+     */
+    private long requiredPermissions(Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return 0L;
+        }
+        return requiredPermissions.computeIfAbsent(handlerMethod.getMethod(), method -> {
+            RequirePermission annotation = AnnotatedElementUtils.findMergedAnnotation(method, RequirePermission.class);
+            if (annotation == null) {
+                annotation = AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), RequirePermission.class);
+            }
+            return annotation != null ? Permission.maskOf(annotation.value()) : 0L;
+        });
+    }
+
     /**
      * 发送统一的错误响应
      * @param response HttpServletResponse 对象
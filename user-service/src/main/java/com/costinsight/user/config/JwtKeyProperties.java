@@ -0,0 +1,42 @@
+package com.costinsight.user.config;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 非对称签名密钥环配置（app.jwt.key-ring）
+ * <p>
+ * 轮换步骤：先加入新密钥（仅公钥或完整密钥对）使其出现在 JWKS 中，
+ * 等下游缓存刷新后切换 active-kid，旧 Token 全部过期后再移除旧密钥。
+ */
+@Data
+public class JwtKeyProperties {
+
+    /**
+     * 当前用于签发的密钥 ID
+     */
+    private String activeKid;
+
+    /**
+     * 所有可用于验签的密钥
+     */
+    private List<KeyDefinition> keys = new ArrayList<>();
+
+    @Data
+    public static class KeyDefinition {
+
+        private String kid;
+
+        /**
+         * PKCS#8 私钥（PEM 或 Base64），仅用于验签的密钥可以留空
+         */
+        private String privateKey;
+
+        /**
+         * X.509 公钥（PEM 或 Base64），RSA 密钥可以从私钥推导
+         */
+        private String publicKey;
+    }
+}
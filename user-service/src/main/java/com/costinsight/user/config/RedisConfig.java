@@ -1,23 +1,40 @@
 package com.costinsight.user.config;
 
+import com.costinsight.user.cache.CompactValueSerializer;
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.cache.HotSetRecorder;
+import com.costinsight.user.cache.TimestampedValueSerializer;
+import com.costinsight.user.cache.TwoLevelCacheManager;
+import com.costinsight.user.cache.UserResponseVOCodec;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.UserIdentityIndex;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.PropertyAccessor;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.data.redis.cache.BatchStrategies;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @Configuration
@@ -25,23 +42,51 @@ import java.util.Map;
 public class RedisConfig {
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // 配置 JSON 序列化器
-        Jackson2JsonRedisSerializer<Object> serializer = buildJackson2JsonRedisSerializer();
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                             StringRedisTemplate stringRedisTemplate,
+                                             Environment environment,
+                                             HotSetRecorder hotSetRecorder,
+                                             HotKeyDetector hotKeyDetector) {
+        CacheProperties properties = Binder.get(environment)
+                .bind("app.cache", CacheProperties.class)
+                .orElseGet(CacheProperties::new);
 
-        // 默认缓存配置
-        RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(serializer))
-                .entryTtl(Duration.ofMinutes(10)); // 默认 TTL 为 10 分钟
+        // 配置值序列化器：compact 为二进制格式（未注册的类型及旧 JSON 条目回退到 JSON），json 为带类型信息的 JSON
+        RedisSerializer<Object> serializer = "json".equalsIgnoreCase(properties.getSerializer().getFormat())
+                ? buildJackson2JsonRedisSerializer()
+                : new CompactValueSerializer(List.of(new UserResponseVOCodec()),
+                buildJackson2JsonRedisSerializer(), properties.getSerializer().getCompressionThreshold());
+        // 值前附加写入时间，任何节点从 Redis 回填 L1 时都能推算过期时间供提前刷新使用，无需额外的 PTTL
+        RedisCacheConfiguration baseConfig = RedisCacheConfiguration.defaultCacheConfig()
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new TimestampedValueSerializer(serializer)));
 
-        // 你可以在这里为特定的缓存名称配置不同的 TTL
-        // Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-        // cacheConfigurations.put("user", defaultConfig.entryTtl(Duration.ofHours(1)));
+        // 未单独配置的缓存使用 defaults，app.cache.caches 下按缓存名覆盖 TTL、null 值缓存和键前缀
+        RedisCacheConfiguration defaultConfig = applyPolicy(baseConfig, properties.defaultPolicy());
+        Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
+        for (String name : properties.getCaches().keySet()) {
+            cacheConfigurations.put(name, applyPolicy(baseConfig, properties.policyFor(name)));
+        }
+        // user-response 缓存的是最终响应 JSON，原样以字节存入 Redis，命中时直接写到输出流
+        cacheConfigurations.put("user-response", applyPolicy(
+                baseConfig.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new TimestampedValueSerializer(RedisSerializer.byteArray()))),
+                properties.policyFor("user-response")));
 
-        return RedisCacheManager.builder(connectionFactory)
+        // clear() 使用 SCAN 而不是 KEYS 删除条目，避免管理接口清空缓存时阻塞 Redis；开启统计供指标导出
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(
+                        RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory, BatchStrategies.scan(1000)))
                 .cacheDefaults(defaultConfig)
-                // .withInitialCacheConfigurations(cacheConfigurations)
+                .withInitialCacheConfigurations(cacheConfigurations)
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        // 在 Redis 缓存之前叠加一层进程内 Caffeine 缓存，热点读取不再走网络和反序列化
+        // 同时负责 @Cacheable(sync = true) 的击穿保护：节点内单飞加载、跨节点 Redis 短锁和概率性提前刷新
+        // 带加载函数的读取计入热点集合，供重启后预热；所有读取参与热点键检测，热点键在 L1 中保留更久
+        return new TwoLevelCacheManager(redisCacheManager, stringRedisTemplate, properties, hotSetRecorder,
+                hotKeyDetector);
     }
 
     @Bean
@@ -63,7 +108,37 @@ public class RedisConfig {
         return template;
     }
 
-    private Jackson2JsonRedisSerializer<Object> buildJackson2JsonRedisSerializer() {
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                       TokenRevocationRegistry tokenRevocationRegistry,
+                                                                       UserIdentityIndex userIdentityIndex,
+                                                                       TwoLevelCacheManager cacheManager) {
+        // 首次订阅由 RedisSubscriptionStarter 在后台完成，Redis 不可达时不阻塞启动
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer() {
+            @Override
+            public boolean isAutoStartup() {
+                return false;
+            }
+        };
+        container.setConnectionFactory(connectionFactory);
+        // 订阅 Token 吊销广播，保持各节点本地黑名单镜像一致
+        container.addMessageListener(tokenRevocationRegistry, new ChannelTopic(TokenRevocationRegistry.CHANNEL));
+        // 订阅新占用的用户名/邮箱广播，保持各节点的存在性索引一致
+        container.addMessageListener(userIdentityIndex, new ChannelTopic(UserIdentityIndex.CHANNEL));
+        // 订阅缓存失效广播，驱逐本地 L1 中已被其他节点修改的条目
+        container.addMessageListener(cacheManager, new ChannelTopic(TwoLevelCacheManager.CHANNEL));
+        return container;
+    }
+
+    private static RedisCacheConfiguration applyPolicy(RedisCacheConfiguration base, CacheProperties.Policy policy) {
+        String keyPrefix = policy.getKeyPrefix();
+        RedisCacheConfiguration config = base
+                .entryTtl(Duration.ofMillis(policy.getTtlMs()))
+                .computePrefixWith(cacheName -> keyPrefix + cacheName + "::");
+        return policy.getCacheNullValues() ? config : config.disableCachingNullValues();
+    }
+
+    static Jackson2JsonRedisSerializer<Object> buildJackson2JsonRedisSerializer() {
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         objectMapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance, ObjectMapper.DefaultTyping.NON_FINAL);
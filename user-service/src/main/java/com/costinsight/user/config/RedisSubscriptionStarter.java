@@ -0,0 +1,76 @@
+package com.costinsight.user.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * 在后台线程中建立 Redis 订阅
+ * <p>
+ * RedisMessageListenerContainer 自动启动时会同步等待首次订阅，Redis 不可达时直接抛出异常导致应用启动失败。
+ * 容器因此关闭了自动启动，由这里在后台线程中启动，失败后按 retry-interval-ms 重试，直到订阅成功或应用关闭；
+ * 订阅建立之前，各节点的本地镜像依靠各自的定时全量同步保持最终一致。
+ */
+@Component
+public class RedisSubscriptionStarter implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(RedisSubscriptionStarter.class);
+
+    private final RedisMessageListenerContainer container;
+    private final long retryIntervalMs;
+    private volatile boolean running;
+    private volatile Thread worker;
+
+    public RedisSubscriptionStarter(RedisMessageListenerContainer container,
+                                    @Value("${app.redis.subscription.retry-interval-ms:5000}") long retryIntervalMs) {
+        this.container = container;
+        this.retryIntervalMs = retryIntervalMs;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::subscribe, "redis-subscription-starter");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+        }
+        container.stop();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    void subscribe() {
+        while (running) {
+            try {
+                container.start();
+                logger.info("Redis subscriptions established");
+                return;
+            } catch (RuntimeException e) {
+                // 重置容器的启动状态，下一次 start() 才会重新订阅
+                container.stop();
+                logger.warn("Redis subscription failed, retrying in {} ms: {}", retryIntervalMs, e.getMessage());
+            }
+            try {
+                Thread.sleep(retryIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
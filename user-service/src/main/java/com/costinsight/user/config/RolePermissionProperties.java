@@ -0,0 +1,25 @@
+package com.costinsight.user.config;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 角色与权限的映射配置（app.security）
+ * <p>
+ * 权限名取自 Permission 枚举，"*" 表示全部权限；修改后通过配置中心推送即可生效，新签发的 Token 使用新的权限集。
+ */
+@Data
+public class RolePermissionProperties {
+
+    private List<RoleDefinition> roles = new ArrayList<>();
+
+    @Data
+    public static class RoleDefinition {
+
+        private String role;
+
+        private List<String> permissions = new ArrayList<>();
+    }
+}
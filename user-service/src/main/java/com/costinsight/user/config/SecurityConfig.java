@@ -1,5 +1,9 @@
 package com.costinsight.user.config;
 
+import com.costinsight.user.security.BCryptCostCalibrator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -7,8 +11,24 @@ import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 @Configuration
 public class SecurityConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(SecurityConfig.class);
+
+    /**
+     * BCrypt 编码器
+     * <p>
+     * 未显式配置 strength 时，启动时按 target-ms 在本机校准代价因子。
+     * 哈希自身携带代价因子，不同代价的哈希可以共存，旧代价的哈希在登录成功后透明升级。
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BCryptPasswordEncoder passwordEncoder(@Value("${app.security.bcrypt.strength:0}") int strength,
+                                                 @Value("${app.security.bcrypt.target-ms:250}") long targetMs,
+                                                 @Value("${app.security.bcrypt.min-strength:10}") int minStrength,
+                                                 @Value("${app.security.bcrypt.max-strength:14}") int maxStrength) {
+        if (strength > 0) {
+            return new BCryptPasswordEncoder(strength);
+        }
+        int calibrated = BCryptCostCalibrator.calibrate(targetMs, minStrength, maxStrength);
+        logger.info("BCrypt strength calibrated to {} for a {} ms target", calibrated, targetMs);
+        return new BCryptPasswordEncoder(calibrated);
     }
 }
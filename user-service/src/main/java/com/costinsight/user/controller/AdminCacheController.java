@@ -0,0 +1,157 @@
+package com.costinsight.user.controller;
+
+import com.costinsight.user.dto.CacheEntryInfo;
+import com.costinsight.user.dto.CachePreloadRequest;
+import com.costinsight.user.dto.CacheSummary;
+import com.costinsight.user.security.Permission;
+import com.costinsight.user.security.RequirePermission;
+import com.costinsight.user.service.CacheAdminService;
+import com.costinsight.user.util.ResponseStatus;
+import com.costinsight.user.util.ResponseUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@RestController
+@RequestMapping("/api/admin/caches")
+@Tag(name = "缓存管理后台接口", description = "需要 CACHE_ADMIN 权限的缓存查看、驱逐与预加载")
+@RequirePermission(Permission.CACHE_ADMIN)
+public class AdminCacheController {
+
+    private final CacheAdminService cacheAdminService;
+
+    @Autowired
+    public AdminCacheController(CacheAdminService cacheAdminService) {
+        this.cacheAdminService = cacheAdminService;
+    }
+
+    @Operation(summary = "列出缓存", description = "返回各缓存的生效策略以及本节点的 L1 / Redis 命中统计和加载耗时",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "查询成功",
+                    content = {@Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = CacheSummary.class)))}),
+            @ApiResponse(responseCode = "403", description = "缺少 CACHE_ADMIN 权限",
+                    content = @Content)
+    })
+    @GetMapping
+    public ResponseEntity<?> listCaches() {
+        return ResponseUtil.success(cacheAdminService.listCaches(), ResponseStatus.SUCCESS);
+    }
+
+    @Operation(summary = "查看热点键", description = "返回本节点上一个检测窗口中各来源（缓存名、jwt:blacklist）读取最多的键及估算速率，"
+            + "hot 为 true 的缓存键在本节点 L1 中使用更长的 TTL",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "查询成功"),
+            @ApiResponse(responseCode = "403", description = "缺少 CACHE_ADMIN 权限",
+                    content = @Content)
+    })
+    @GetMapping("/hot-keys")
+    public ResponseEntity<?> hotKeys() {
+        return ResponseUtil.success(cacheAdminService.hotKeys(), ResponseStatus.SUCCESS);
+    }
+
+    @Operation(summary = "查看缓存条目", description = "查看条目在本节点 L1 与 Redis 中的状态、剩余 TTL 和序列化大小，不会回填 L1",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "查询成功",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = CacheEntryInfo.class))}),
+            @ApiResponse(responseCode = "404", description = "缓存不存在",
+                    content = @Content)
+    })
+    @GetMapping("/{name}/entries/{key}")
+    public ResponseEntity<?> inspect(@PathVariable("name") String name, @PathVariable("key") String key) {
+        try {
+            return ResponseUtil.success(cacheAdminService.inspect(name, key), ResponseStatus.SUCCESS);
+        } catch (NoSuchElementException e) {
+            return ResponseUtil.error(ResponseStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "驱逐缓存条目", description = "从 Redis 删除条目，并通知所有节点驱逐 L1",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "驱逐成功"),
+            @ApiResponse(responseCode = "404", description = "缓存不存在")
+    })
+    @DeleteMapping("/{name}/entries/{key}")
+    public ResponseEntity<?> evict(@PathVariable("name") String name, @PathVariable("key") String key) {
+        try {
+            cacheAdminService.evict(name, key);
+            return ResponseUtil.success(null, ResponseStatus.SUCCESS);
+        } catch (NoSuchElementException e) {
+            return ResponseUtil.error(ResponseStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "清空缓存", description = "通过 SCAN 删除该缓存在 Redis 中的全部条目，并通知所有节点清空 L1",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "清空成功"),
+            @ApiResponse(responseCode = "404", description = "缓存不存在")
+    })
+    @DeleteMapping("/{name}")
+    public ResponseEntity<?> clear(@PathVariable("name") String name) {
+        try {
+            cacheAdminService.clear(name);
+            return ResponseUtil.success(null, ResponseStatus.SUCCESS);
+        } catch (NoSuchElementException e) {
+            return ResponseUtil.error(ResponseStatus.NOT_FOUND, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "预加载缓存条目", description = "按批从数据库加载指定的键写入缓存（目前支持 user 与 user-response 缓存，两者一并写入，键为用户ID）",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "预加载完成，loaded 为存在的条目数"),
+            @ApiResponse(responseCode = "400", description = "缓存不支持预加载或键格式错误"),
+            @ApiResponse(responseCode = "404", description = "缓存不存在")
+    })
+    @PostMapping("/{name}/preload")
+    public ResponseEntity<?> preload(@PathVariable("name") String name,
+                                     @Valid @RequestBody CachePreloadRequest preloadRequest) {
+        try {
+            int loaded = cacheAdminService.preload(name, preloadRequest.getKeys());
+            return ResponseUtil.success(Map.of("requested", preloadRequest.getKeys().size(), "loaded", loaded),
+                    ResponseStatus.SUCCESS);
+        } catch (NoSuchElementException e) {
+            return ResponseUtil.error(ResponseStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "按热点集合预热缓存", description = "读取持久化的热点集合，按访问热度从高到低批量预热（目前支持 user 与 user-response 缓存，两者一并预热）",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "预热完成，loaded 为写入或已缓存的条目数"),
+            @ApiResponse(responseCode = "400", description = "缓存不支持预热或 limit 非法"),
+            @ApiResponse(responseCode = "404", description = "缓存不存在")
+    })
+    @PostMapping("/{name}/warm-up")
+    public ResponseEntity<?> warmUp(@PathVariable("name") String name,
+                                    @RequestParam(value = "limit", defaultValue = "10000") int limit) {
+        try {
+            int loaded = cacheAdminService.warmUp(name, limit);
+            return ResponseUtil.success(Map.of("limit", limit, "loaded", loaded), ResponseStatus.SUCCESS);
+        } catch (NoSuchElementException e) {
+            return ResponseUtil.error(ResponseStatus.NOT_FOUND, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+}
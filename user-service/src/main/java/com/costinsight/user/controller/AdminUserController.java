@@ -0,0 +1,64 @@
+package com.costinsight.user.controller;
+
+import com.costinsight.user.dto.UserImportResult;
+import com.costinsight.user.security.Permission;
+import com.costinsight.user.security.RequirePermission;
+import com.costinsight.user.service.UserImportService;
+import com.costinsight.user.util.ResponseStatus;
+import com.costinsight.user.util.ResponseUtil;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+
+@RestController
+@RequestMapping("/api/admin/users")
+@Tag(name = "用户管理后台接口", description = "需要 USER_ADMIN 权限的批量操作")
+@RequirePermission(Permission.USER_ADMIN)
+public class AdminUserController {
+
+    private static final String NDJSON = "application/x-ndjson";
+
+    private final UserImportService userImportService;
+
+    @Autowired
+    public AdminUserController(UserImportService userImportService) {
+        this.userImportService = userImportService;
+    }
+
+    @Operation(summary = "批量导入用户", description = "流式读取 CSV（表头 username,email,password）或 NDJSON，逐行返回导入结果",
+            security = @SecurityRequirement(name = "bearerAuth"))
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "导入完成（单行结果见 rows）",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = UserImportResult.class))}),
+            @ApiResponse(responseCode = "400", description = "格式错误或行数超出上限",
+                    content = @Content),
+            @ApiResponse(responseCode = "403", description = "缺少 USER_ADMIN 权限",
+                    content = @Content)
+    })
+    @PostMapping(value = "/import", consumes = {"text/csv", NDJSON})
+    public ResponseEntity<?> importUsers(HttpServletRequest request) {
+        UserImportService.Format format = request.getContentType().startsWith(NDJSON)
+                ? UserImportService.Format.NDJSON : UserImportService.Format.CSV;
+        try {
+            UserImportResult result = userImportService.importUsers(request.getInputStream(), format);
+            return ResponseUtil.success(result, ResponseStatus.SUCCESS);
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        } catch (IOException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, "Failed to read import body: " + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.costinsight.user.controller;
 
 import com.costinsight.user.dto.*;
+import com.costinsight.user.exception.ServiceBusyException;
+import com.costinsight.user.security.AuthRateLimiter;
+import com.costinsight.user.service.TokenService;
 import com.costinsight.user.service.UserService;
 import com.costinsight.user.util.JwtUtil;
 import com.costinsight.user.util.ResponseStatus;
@@ -9,6 +12,7 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -19,23 +23,32 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/auth")
 @Tag(name = "认证接口", description = "用户注册与登录相关接口")
 public class AuthController {
 
     private final UserService userService;
+    private final TokenService tokenService;
     private final JwtUtil jwtUtil;
+    private final AuthRateLimiter authRateLimiter;
 
     @Autowired
-    public AuthController(UserService userService, JwtUtil jwtUtil) {
+    public AuthController(UserService userService, TokenService tokenService, JwtUtil jwtUtil,
+                          AuthRateLimiter authRateLimiter) {
         this.userService = userService;
+        this.tokenService = tokenService;
         this.jwtUtil = jwtUtil;
+        this.authRateLimiter = authRateLimiter;
     }
 
     @Operation(summary = "用户注册", description = "使用用户名、邮箱和密码进行用户注册")
@@ -45,21 +58,59 @@ public class AuthController {
                             schema = @Schema(implementation = UserResponseVO.class))}),
             @ApiResponse(responseCode = "400", description = "请求参数错误",
                     content = @Content),
+            @ApiResponse(responseCode = "429", description = "请求过于频繁，请按 Retry-After 重试",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "密码哈希容量已满，请按 Retry-After 重试",
+                    content = @Content),
             @ApiResponse(responseCode = "500", description = "服务器内部错误",
                     content = @Content)
     })
     @PostMapping("/register")
-    public ResponseEntity<?> registerUser(@Valid @RequestBody RegisterRequest registerRequest) {
+    public ResponseEntity<?> registerUser(HttpServletRequest request,
+                                          @Valid @RequestBody RegisterRequest registerRequest) {
+        long retryAfterMs = authRateLimiter.checkRegister(authRateLimiter.clientIp(request));
+        if (retryAfterMs > 0) {
+            return tooManyRequests(retryAfterMs);
+        }
         try {
             UserResponseVO registeredUser = userService.register(registerRequest);
             return ResponseUtil.success(registeredUser, ResponseStatus.USER_REGISTERED_SUCCESS);
         } catch (IllegalArgumentException e) {
             return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        } catch (ServiceBusyException e) {
+            return ResponseUtil.retryLater(ResponseStatus.SERVICE_BUSY, e.getRetryAfterSeconds());
         } catch (Exception e) {
             return ResponseUtil.error(ResponseStatus.REGISTRATION_ERROR);
         }
     }
 
+    @Operation(summary = "检查用户名/邮箱是否可用", description = "供注册表单实时校验，至少提供 username 或 email 之一")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "检查完成",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = AvailabilityResponse.class))}),
+            @ApiResponse(responseCode = "400", description = "未提供 username 或 email",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "请求过于频繁，请按 Retry-After 重试",
+                    content = @Content)
+    })
+    @GetMapping("/availability")
+    public ResponseEntity<?> checkAvailability(HttpServletRequest request,
+                                               @RequestParam(value = "username", required = false) String username,
+                                               @RequestParam(value = "email", required = false) String email) {
+        if ((username == null || username.isBlank()) && (email == null || email.isBlank())) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, "Either username or email is required");
+        }
+        long retryAfterMs = authRateLimiter.checkAvailability(authRateLimiter.clientIp(request));
+        if (retryAfterMs > 0) {
+            return tooManyRequests(retryAfterMs);
+        }
+        AvailabilityResponse response = userService.checkAvailability(
+                username == null || username.isBlank() ? null : username,
+                email == null || email.isBlank() ? null : email);
+        return ResponseUtil.success(response);
+    }
+
     @Operation(summary = "用户登录", description = "使用用户名/邮箱和密码进行登录，获取 JWT Token")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "登录成功",
@@ -67,21 +118,54 @@ public class AuthController {
                             schema = @Schema(implementation = JwtResponse.class))}),
             @ApiResponse(responseCode = "401", description = "凭证无效",
                     content = @Content),
+            @ApiResponse(responseCode = "429", description = "请求过于频繁，请按 Retry-After 重试",
+                    content = @Content),
+            @ApiResponse(responseCode = "503", description = "密码哈希容量已满，请按 Retry-After 重试",
+                    content = @Content),
             @ApiResponse(responseCode = "500", description = "服务器内部错误",
                     content = @Content)
     })
     @PostMapping("/login")
-    public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    public ResponseEntity<?> authenticateUser(HttpServletRequest request,
+                                              @Valid @RequestBody LoginRequest loginRequest) {
+        // 限流先于任何数据库查询和 BCrypt 计算
+        long retryAfterMs = authRateLimiter.checkLogin(authRateLimiter.clientIp(request),
+                loginRequest.getUsernameOrEmail());
+        if (retryAfterMs > 0) {
+            return tooManyRequests(retryAfterMs);
+        }
         try {
             JwtResponse jwtResponse = userService.login(loginRequest);
             return ResponseUtil.success(jwtResponse, ResponseStatus.LOGIN_SUCCESS);
         } catch (IllegalArgumentException e) {
             return ResponseUtil.error(ResponseStatus.INVALID_CREDENTIALS, e.getMessage());
+        } catch (ServiceBusyException e) {
+            return ResponseUtil.retryLater(ResponseStatus.SERVICE_BUSY, e.getRetryAfterSeconds());
         } catch (Exception e) {
             return ResponseUtil.error(ResponseStatus.LOGIN_ERROR);
         }
     }
 
+    @Operation(summary = "刷新Token", description = "使用刷新令牌换取新的访问令牌，旧的刷新令牌随即失效")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "刷新成功",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = JwtResponse.class))}),
+            @ApiResponse(responseCode = "401", description = "刷新令牌无效、已使用或已过期",
+                    content = @Content)
+    })
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+        try {
+            JwtResponse jwtResponse = userService.refresh(refreshTokenRequest.getRefreshToken());
+            return ResponseUtil.success(jwtResponse, ResponseStatus.TOKEN_REFRESHED);
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.UNAUTHORIZED, e.getMessage());
+        } catch (Exception e) {
+            return ResponseUtil.error(ResponseStatus.INTERNAL_SERVER_ERROR, "An error occurred while refreshing the token.");
+        }
+    }
+
     @Operation(summary = "验证Token", description = "验证给定的 JWT Token 是否有效，并返回其载荷信息")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Token 有效",
@@ -102,19 +186,45 @@ public class AuthController {
         }
     }
 
-    @Operation(summary = "用户登出", description = "使当前的 JWT Token 失效",
+    @Operation(summary = "批量验证Token", description = "一次验证多个 JWT Token，按请求顺序返回每个 Token 的状态及载荷信息")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "验证完成（单个 Token 的结果见 status 字段）",
+                    content = {@Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = TokenValidationResult.class)))}),
+            @ApiResponse(responseCode = "400", description = "请求参数错误或数量超出上限",
+                    content = @Content),
+            @ApiResponse(responseCode = "429", description = "请求过于频繁，请按 Retry-After 重试",
+                    content = @Content)
+    })
+    @PostMapping("/validate/batch")
+    public ResponseEntity<?> validateTokens(HttpServletRequest request,
+                                            @Valid @RequestBody BatchValidateRequest batchValidateRequest) {
+        long retryAfterMs = authRateLimiter.checkValidateBatch(authRateLimiter.clientIp(request));
+        if (retryAfterMs > 0) {
+            return tooManyRequests(retryAfterMs);
+        }
+        try {
+            List<TokenValidationResult> results = tokenService.validateBatch(batchValidateRequest.getTokens());
+            return ResponseUtil.success(results, ResponseStatus.SUCCESS);
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    @Operation(summary = "用户登出", description = "吊销请求体中的刷新令牌；未提供刷新令牌时使当前的 JWT Token 失效",
             security = @SecurityRequirement(name = "bearerAuth"))
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "登出成功"),
             @ApiResponse(responseCode = "401", description = "未授权或 Token 无效")
     })
     @PostMapping("/logout")
-    public ResponseEntity<?> logoutUser(HttpServletRequest request) {
+    public ResponseEntity<?> logoutUser(HttpServletRequest request,
+                                        @RequestBody(required = false) RefreshTokenRequest refreshTokenRequest) {
         try {
             String authHeader = request.getHeader("Authorization");
             if (authHeader != null && authHeader.startsWith("Bearer ")) {
                 String token = authHeader.substring(7);
-                userService.logout(token);
+                userService.logout(token, refreshTokenRequest != null ? refreshTokenRequest.getRefreshToken() : null);
                 return ResponseUtil.success(null, ResponseStatus.SUCCESS);
             }
             return ResponseUtil.error(ResponseStatus.UNAUTHORIZED, "Authorization header is missing or invalid.");
@@ -122,4 +232,8 @@ public class AuthController {
             return ResponseUtil.error(ResponseStatus.INTERNAL_SERVER_ERROR, "An error occurred during logout.");
         }
     }
+
+    private static ResponseEntity<?> tooManyRequests(long retryAfterMs) {
+        return ResponseUtil.retryLater(ResponseStatus.TOO_MANY_REQUESTS, (retryAfterMs + 999) / 1000);
+    }
 }
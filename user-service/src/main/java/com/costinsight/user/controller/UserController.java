@@ -3,10 +3,12 @@ package com.costinsight.user.controller;
 import com.costinsight.user.dto.ChangePasswordRequest;
 import com.costinsight.user.dto.UserResponseVO;
 import com.costinsight.user.dto.UserUpdateRequest;
+import com.costinsight.user.exception.ServiceBusyException;
 import com.costinsight.user.service.UserService;
 import com.costinsight.user.util.ResponseStatus;
 import com.costinsight.user.util.ResponseUtil;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -18,6 +20,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/users")
 @Tag(name = "用户管理接口", description = "用户信息的增删改查接口")
@@ -57,6 +61,27 @@ public class UserController {
     }
 
 
+    @Operation(summary = "批量获取用户", description = "根据逗号分隔的用户ID批量获取用户信息，按请求顺序返回，不存在的用户不在结果中")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "查询成功",
+                    content = {@Content(mediaType = "application/json",
+                            array = @ArraySchema(schema = @Schema(implementation = UserResponseVO.class)))}),
+            @ApiResponse(responseCode = "400", description = "ID为空或数量超出上限",
+                    content = @Content)
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> getUsers(@RequestParam("ids") List<Long> ids) {
+        if (ids.isEmpty()) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, "Ids cannot be empty");
+        }
+        try {
+            List<UserResponseVO> users = userService.findUsersByIds(ids);
+            return ResponseUtil.success(users, ResponseStatus.SUCCESS);
+        } catch (IllegalArgumentException e) {
+            return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
     @Operation(summary = "根据ID获取用户", description = "根据用户ID获取用户详细信息")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "查询成功",
@@ -67,9 +92,10 @@ public class UserController {
     })
     @GetMapping("/{id}")
     public ResponseEntity<?> getUser(@PathVariable("id") Long id) {
-        UserResponseVO userVO = userService.findUserById(id);
-        if (userVO != null) {
-            return ResponseUtil.success(userVO, ResponseStatus.SUCCESS);
+        // 缓存中保存的是完整响应 JSON，命中时不再经过对象映射
+        byte[] body = userService.findUserResponseBody(id);
+        if (body != null) {
+            return ResponseUtil.successJson(body);
         } else {
             return ResponseUtil.error(ResponseStatus.USER_NOT_FOUND, "User not found with id: " + id);
         }
@@ -82,7 +108,8 @@ public class UserController {
             @ApiResponse(responseCode = "200", description = "密码更新成功"),
             @ApiResponse(responseCode = "400", description = "请求参数错误（如旧密码错误）"),
             @ApiResponse(responseCode = "401", description = "未授权"),
-            @ApiResponse(responseCode = "404", description = "用户未找到")
+            @ApiResponse(responseCode = "404", description = "用户未找到"),
+            @ApiResponse(responseCode = "503", description = "密码哈希容量已满，请按 Retry-After 重试")
     })
     @PutMapping("/me/password")
     public ResponseEntity<?> changeCurrentUserPassword(@RequestAttribute("userId") Long userId, @Valid @RequestBody ChangePasswordRequest changePasswordRequest) {
@@ -91,6 +118,8 @@ public class UserController {
             return ResponseUtil.success(null, ResponseStatus.PASSWORD_UPDATED_SUCCESS);
         } catch (IllegalArgumentException e) {
             return ResponseUtil.error(ResponseStatus.BAD_REQUEST, e.getMessage());
+        } catch (ServiceBusyException e) {
+            return ResponseUtil.retryLater(ResponseStatus.SERVICE_BUSY, e.getRetryAfterSeconds());
         } catch (Exception e) {
             return ResponseUtil.error(ResponseStatus.INTERNAL_SERVER_ERROR, "An error occurred while updating the password.");
         }
@@ -0,0 +1,21 @@
+package com.costinsight.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 用户名/邮箱可用性检查结果
+ * 只包含请求中提供的字段
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "用户名/邮箱可用性检查结果")
+public class AvailabilityResponse {
+
+    @Schema(description = "用户名是否可用")
+    private Boolean usernameAvailable;
+
+    @Schema(description = "邮箱是否可用")
+    private Boolean emailAvailable;
+}
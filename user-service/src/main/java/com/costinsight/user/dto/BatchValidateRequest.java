@@ -0,0 +1,17 @@
+package com.costinsight.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Schema(description = "批量 Token 验证请求 DTO")
+public class BatchValidateRequest {
+
+    @Schema(description = "待验证的JWT列表，结果按相同顺序返回", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotEmpty(message = "Tokens cannot be empty")
+    private List<String> tokens;
+
+}
@@ -0,0 +1,38 @@
+package com.costinsight.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 单个缓存条目在本地 L1 与 Redis 中的状态
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+@Schema(description = "缓存条目状态")
+public class CacheEntryInfo {
+
+    @Schema(description = "缓存名")
+    private String cache;
+
+    @Schema(description = "缓存键")
+    private String key;
+
+    @Schema(description = "Redis 中的完整键")
+    private String redisKey;
+
+    @Schema(description = "是否存在于本节点 L1")
+    private boolean inLocal;
+
+    @Schema(description = "是否存在于 Redis")
+    private boolean inRemote;
+
+    @Schema(description = "Redis 剩余 TTL（毫秒），不存在时为空")
+    private Long remoteTtlMs;
+
+    @Schema(description = "Redis 中序列化后的字节数，不存在时为空")
+    private Long remoteSizeBytes;
+
+    @Schema(description = "缓存值（优先取 L1）")
+    private Object value;
+}
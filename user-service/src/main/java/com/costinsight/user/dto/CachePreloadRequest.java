@@ -0,0 +1,21 @@
+package com.costinsight.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 缓存预加载请求
+ */
+@Data
+@Schema(description = "缓存预加载请求")
+public class CachePreloadRequest {
+
+    @NotEmpty(message = "Keys cannot be empty")
+    @Size(max = 1000, message = "At most 1000 keys can be preloaded at once")
+    @Schema(description = "要预加载的缓存键（user 缓存为用户ID）", example = "[\"1\", \"2\"]")
+    private List<String> keys;
+}
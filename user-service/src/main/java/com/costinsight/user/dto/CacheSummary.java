@@ -0,0 +1,60 @@
+package com.costinsight.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 单个缓存的生效策略与统计（本节点视角）
+ */
+@Data
+@Schema(description = "缓存策略与统计")
+public class CacheSummary {
+
+    @Schema(description = "缓存名")
+    private String name;
+
+    @Schema(description = "Redis 条目 TTL（毫秒）")
+    private long ttlMs;
+
+    @Schema(description = "是否缓存 null 结果")
+    private boolean cacheNullValues;
+
+    @Schema(description = "Redis 键前缀（含缓存名）")
+    private String redisKeyPrefix;
+
+    @Schema(description = "本地 L1 最大条目数")
+    private long localMaxSize;
+
+    @Schema(description = "本地 L1 TTL（毫秒）")
+    private long localTtlMs;
+
+    @Schema(description = "本地 L1 当前条目数（估计值）")
+    private long localSize;
+
+    @Schema(description = "本地 L1 命中次数")
+    private long localHits;
+
+    @Schema(description = "本地 L1 未命中次数")
+    private long localMisses;
+
+    @Schema(description = "本地 L1 因容量或过期被淘汰的条目数")
+    private long localEvictions;
+
+    @Schema(description = "Redis 命中次数")
+    private long remoteHits;
+
+    @Schema(description = "Redis 未命中次数")
+    private long remoteMisses;
+
+    @Schema(description = "Redis 写入次数")
+    private long remotePuts;
+
+    @Schema(description = "Redis 删除次数")
+    private long remoteDeletes;
+
+    @Schema(description = "本节点执行加载函数的次数")
+    private long loads;
+
+    @Schema(description = "加载耗时的指数加权平均（毫秒）")
+    private double averageLoadMillis;
+}
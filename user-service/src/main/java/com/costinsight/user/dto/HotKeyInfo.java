@@ -0,0 +1,27 @@
+package com.costinsight.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+/**
+ * 上一个检测窗口中的热点候选键
+ */
+@Data
+@Schema(description = "热点键候选")
+public class HotKeyInfo {
+
+    @Schema(description = "键")
+    private String key;
+
+    @Schema(description = "窗口内估算的读取次数（已按抽样率还原）")
+    private long count;
+
+    @Schema(description = "估算次数的误差上界")
+    private long error;
+
+    @Schema(description = "按保证计数估算的每秒读取次数")
+    private double ratePerSecond;
+
+    @Schema(description = "是否达到热点阈值（缓存中的热点键在本节点 L1 中延长 TTL）")
+    private boolean hot;
+}
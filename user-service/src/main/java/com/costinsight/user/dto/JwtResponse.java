@@ -7,9 +7,18 @@ public class JwtResponse {
     private String token;
     private String type = "Bearer";
     private long expiresIn; // Token 过期时间（毫秒）
+    private String refreshToken;
+    private long refreshExpiresIn; // 刷新令牌过期时间（毫秒）
 
     public JwtResponse(String token, long expiresIn) {
         this.token = token;
         this.expiresIn = expiresIn;
     }
-}
\ No newline at end of file
+
+    public JwtResponse(String token, long expiresIn, String refreshToken, long refreshExpiresIn) {
+        this.token = token;
+        this.expiresIn = expiresIn;
+        this.refreshToken = refreshToken;
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+}
@@ -0,0 +1,15 @@
+package com.costinsight.user.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+@Schema(description = "刷新令牌请求 DTO")
+public class RefreshTokenRequest {
+
+    @Schema(description = "登录或上一次刷新时获得的刷新令牌", requiredMode = Schema.RequiredMode.REQUIRED)
+    @NotBlank(message = "Refresh token cannot be blank")
+    private String refreshToken;
+
+}
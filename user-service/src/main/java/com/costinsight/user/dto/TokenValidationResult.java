@@ -0,0 +1,47 @@
+package com.costinsight.user.dto;
+
+import com.costinsight.user.security.TokenClaims;
+import lombok.Data;
+
+/**
+ * 单个 Token 的验证结果
+ * 只有 status 为 VALID 时才包含载荷信息
+ */
+@Data
+public class TokenValidationResult {
+
+    public enum Status {
+        VALID, EXPIRED, REVOKED, INVALID
+    }
+
+    private Status status;
+    private String message;
+    private Long userId;
+    private String jti;
+    private String role;
+    private Long issuedAtSeconds;  // 签发时间（Unix 秒，与 JWT iat 一致）
+    private Long expiresAtSeconds; // 过期时间（Unix 秒，与 JWT exp 一致）
+    private Long permissions; // 权限位集，Token 未携带时为 null
+
+    /**
+     * @throws NumberFormatException 主题不是数字用户ID时
+     */
+    public static TokenValidationResult valid(TokenClaims claims) {
+        TokenValidationResult result = new TokenValidationResult();
+        result.status = Status.VALID;
+        result.userId = claims.getUserId();
+        result.jti = claims.getJti();
+        result.role = claims.getRole();
+        result.issuedAtSeconds = claims.getIssuedAt();
+        result.expiresAtSeconds = claims.getExpiration() / 1000;
+        result.permissions = claims.hasPermissions() ? claims.getPermissions() : null;
+        return result;
+    }
+
+    public static TokenValidationResult failed(Status status, String message) {
+        TokenValidationResult result = new TokenValidationResult();
+        result.status = status;
+        result.message = message;
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package com.costinsight.user.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果，rows 按输入顺序逐行给出结果
+ */
+@Data
+@Schema(description = "批量导入结果")
+public class UserImportResult {
+
+    public enum Status {
+        CREATED, DUPLICATE, INVALID
+    }
+
+    @Schema(description = "读取的数据行数")
+    private int total;
+
+    @Schema(description = "创建成功的行数")
+    private int created;
+
+    @Schema(description = "失败的行数")
+    private int failed;
+
+    @Schema(description = "耗时（毫秒）")
+    private long elapsedMs;
+
+    @Schema(description = "逐行结果")
+    private List<RowResult> rows = new ArrayList<>();
+
+    @Data
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class RowResult {
+
+        private int line; // 输入中的行号（从 1 开始，CSV 含表头行）
+        private String username;
+        private Status status;
+        private Long userId;
+        private String message;
+
+        public static RowResult created(int line, String username, Long userId) {
+            RowResult result = new RowResult();
+            result.line = line;
+            result.username = username;
+            result.status = Status.CREATED;
+            result.userId = userId;
+            return result;
+        }
+
+        public static RowResult failed(int line, String username, Status status, String message) {
+            RowResult result = new RowResult();
+            result.line = line;
+            result.username = username;
+            result.status = status;
+            result.message = message;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.costinsight.user.dto;
+
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+/**
+ * 批量导入中的一行用户数据，校验规则与注册接口一致
+ */
+@Data
+public class UserImportRow {
+
+    @NotBlank(message = "Username is required")
+    @Size(min = 3, max = 20, message = "Username must be between 3 and 20 characters")
+    private String username;
+
+    @NotBlank(message = "Email is required")
+    @Email(message = "Email should be valid")
+    private String email;
+
+    @NotBlank(message = "Password is required")
+    @Pattern(
+        regexp = "^(?=.*[a-z])(?=.*[A-Z])(?=.*\\d).{8,}",
+        message = "Password must be at least 8 characters long, and contain at least one uppercase letter, one lowercase letter, and one number."
+    )
+    private String password;
+}
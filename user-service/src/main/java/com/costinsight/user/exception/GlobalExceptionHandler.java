@@ -1,5 +1,7 @@
 package com.costinsight.user.exception;
 
+import com.costinsight.user.util.ResponseStatus;
+import com.costinsight.user.util.ResponseUtil;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -30,6 +32,16 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(response, HttpStatus.BAD_REQUEST);
     }
 
+    /**
+     * 处理过载快速失败异常，返回 503 并附带 Retry-After
+     * @param ex ServiceBusyException
+     * @return ResponseEntity 错误响应
+     */
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<?> handleServiceBusyException(ServiceBusyException ex) {
+        return ResponseUtil.retryLater(ResponseStatus.SERVICE_BUSY, ex.getRetryAfterSeconds());
+    }
+
     /**
      * 处理通用异常
      * @param ex Exception
@@ -0,0 +1,18 @@
+package com.costinsight.user.exception;
+
+/**
+ * 服务过载时的快速失败异常，对应 HTTP 503，并通过 Retry-After 告知客户端重试间隔
+ */
+public class ServiceBusyException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceBusyException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
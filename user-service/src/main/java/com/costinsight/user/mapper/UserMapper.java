@@ -3,8 +3,15 @@ package com.costinsight.user.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.costinsight.user.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
@@ -24,4 +31,68 @@ public interface UserMapper extends BaseMapper<User> {
      */
     @Select("SELECT * FROM user WHERE email = #{email} AND deleted = 0")
     User selectByEmail(@Param("email") String email);
-}
\ No newline at end of file
+
+    /**
+     * 登录凭证查询：一次往返按用户名或邮箱查找用户，只取签发 Token 所需的列
+     * 两个分支分别走 username、email 唯一索引；同时命中时用户名优先，与原先"先用户名后邮箱"的语义一致
+     * @param identifier 用户名或邮箱
+     * @return User 仅填充 id、username、email、password、role、deleted
+     */
+    @Select("SELECT id, username, email, password, role, deleted, 0 AS match_rank FROM user "
+            + "WHERE username = #{identifier} AND deleted = 0 "
+            + "UNION ALL "
+            + "SELECT id, username, email, password, role, deleted, 1 AS match_rank FROM user "
+            + "WHERE email = #{identifier} AND deleted = 0 "
+            + "ORDER BY match_rank LIMIT 1")
+    User selectCredentials(@Param("identifier") String identifier);
+
+    /**
+     * 用户名是否已被任意行占用（包括逻辑删除的行，与唯一约束一致）
+     * @param username 用户名
+     * @return boolean 是否已占用
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM user WHERE username = #{username})")
+    boolean existsByUsername(@Param("username") String username);
+
+    /**
+     * 邮箱是否已被任意行占用（包括逻辑删除的行，与唯一约束一致）
+     * @param email 邮箱
+     * @return boolean 是否已占用
+     */
+    @Select("SELECT EXISTS(SELECT 1 FROM user WHERE email = #{email})")
+    boolean existsByEmail(@Param("email") String email);
+
+    /**
+     * 批量查询已被占用的用户名/邮箱（包括逻辑删除的行，与唯一约束一致）
+     * @param usernames 待检查的用户名，可为空
+     * @param emails 待检查的邮箱，可为空
+     * @return List<User> 命中的行，仅填充 username、email
+     */
+    @Select("<script>SELECT username, email FROM user WHERE 1 = 0"
+            + "<if test='usernames != null and !usernames.isEmpty()'> OR username IN "
+            + "<foreach collection='usernames' item='username' open='(' separator=',' close=')'>#{username}</foreach></if>"
+            + "<if test='emails != null and !emails.isEmpty()'> OR email IN "
+            + "<foreach collection='emails' item='email' open='(' separator=',' close=')'>#{email}</foreach></if>"
+            + "</script>")
+    List<User> selectTakenIdentities(@Param("usernames") Collection<String> usernames,
+                                     @Param("emails") Collection<String> emails);
+
+    /**
+     * 流式扫描全部用户名和邮箱（MySQL 驱动下 fetchSize = Integer.MIN_VALUE 表示逐行读取，不把结果集加载进内存）
+     * @param handler 逐行回调
+     */
+    @Select("SELECT username, email FROM user")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    void scanIdentities(ResultHandler<User> handler);
+
+    /**
+     * 仅当密码仍为旧哈希时更新密码（用于登录时的哈希升级，避免覆盖并发的密码修改）
+     * @param id 用户ID
+     * @param oldPassword 旧哈希
+     * @param newPassword 新哈希
+     * @return int 受影响的行数
+     */
+    @Update("UPDATE user SET password = #{newPassword} WHERE id = #{id} AND password = #{oldPassword} AND deleted = 0")
+    int updatePasswordIfUnchanged(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                                  @Param("newPassword") String newPassword);
+}
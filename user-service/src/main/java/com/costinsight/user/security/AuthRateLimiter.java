@@ -0,0 +1,305 @@
+package com.costinsight.user.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 认证接口限流（按客户端 IP 和登录标识）
+ * <p>
+ * 采用 GCRA（等价于令牌桶）算法，分两级检查：
+ * <ul>
+ *     <li>进程内：按 key 哈希分条的 AtomicLongArray，CAS 更新，无锁、无分配，挡住明显的洪泛；</li>
+ *     <li>Redis：Lua 脚本原子地检查并更新所有 key，在整个集群范围内生效，一次往返。</li>
+ * </ul>
+ * 哈希冲突的 key 共享同一条带，只会更严格而不会放过请求；Redis 不可用时退化为仅进程内限流。
+ * 检查发生在控制器中，先于任何数据库查询和 BCrypt 计算。
+ */
+@Component
+public class AuthRateLimiter implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuthRateLimiter.class);
+
+    static final String KEY_PREFIX = "rl:";
+
+    /**
+     * ARGV 按 key 成对传入：发射间隔（毫秒）、突发容量（毫秒）。
+     * 任一 key 超限时不更新任何 key，返回需要等待的毫秒数；全部通过时返回 0。
+     */
+    private static final RedisScript<Long> GCRA_SCRIPT = new DefaultRedisScript<>(
+            "local t = redis.call('TIME')\n"
+                    + "local now = tonumber(t[1]) * 1000 + math.floor(tonumber(t[2]) / 1000)\n"
+                    + "local wait = 0\n"
+                    + "local tats = {}\n"
+                    + "for i = 1, #KEYS do\n"
+                    + "  local interval = tonumber(ARGV[i * 2 - 1])\n"
+                    + "  local burst = tonumber(ARGV[i * 2])\n"
+                    + "  local tat = tonumber(redis.call('GET', KEYS[i]))\n"
+                    + "  if not tat or tat < now then tat = now end\n"
+                    + "  local newTat = tat + interval\n"
+                    + "  local allowAt = newTat - burst\n"
+                    + "  if now < allowAt then\n"
+                    + "    wait = math.max(wait, allowAt - now)\n"
+                    + "  end\n"
+                    + "  tats[i] = newTat\n"
+                    + "end\n"
+                    + "if wait > 0 then return wait end\n"
+                    + "for i = 1, #KEYS do\n"
+                    + "  redis.call('SET', KEYS[i], tats[i], 'PX', tats[i] - now)\n"
+                    + "end\n"
+                    + "return 0",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final boolean redisEnabled;
+    private final boolean trustForwardedFor;
+    private final Limit ipLimit;
+    private final Limit identifierLimit;
+    private final Limit availabilityLimit;
+    private final Limit validateBatchLimit;
+    private final long origin = System.nanoTime();
+
+    private volatile Counter ipRejected;
+    private volatile Counter identifierRejected;
+    private volatile Counter globalRejected;
+
+    public AuthRateLimiter(StringRedisTemplate redisTemplate,
+                           @Value("${app.security.rate-limit.enabled:true}") boolean enabled,
+                           @Value("${app.security.rate-limit.redis-enabled:true}") boolean redisEnabled,
+                           @Value("${app.security.rate-limit.trust-forwarded-for:false}") boolean trustForwardedFor,
+                           @Value("${app.security.rate-limit.stripes:65536}") int stripes,
+                           @Value("${app.security.rate-limit.ip.per-minute:60}") int ipPerMinute,
+                           @Value("${app.security.rate-limit.ip.burst:20}") int ipBurst,
+                           @Value("${app.security.rate-limit.identifier.per-minute:10}") int identifierPerMinute,
+                           @Value("${app.security.rate-limit.identifier.burst:5}") int identifierBurst,
+                           @Value("${app.security.rate-limit.availability.per-minute:120}") int availabilityPerMinute,
+                           @Value("${app.security.rate-limit.availability.burst:30}") int availabilityBurst,
+                           @Value("${app.security.rate-limit.validate-batch.per-minute:600}") int validateBatchPerMinute,
+                           @Value("${app.security.rate-limit.validate-batch.burst:100}") int validateBatchBurst) {
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+        this.redisEnabled = redisEnabled;
+        this.trustForwardedFor = trustForwardedFor;
+        int size = Integer.highestOneBit(Math.max(1, stripes));
+        this.ipLimit = new Limit("ip", ipPerMinute, ipBurst, size);
+        this.identifierLimit = new Limit("id", identifierPerMinute, identifierBurst, size);
+        this.availabilityLimit = new Limit("av", availabilityPerMinute, availabilityBurst, size);
+        this.validateBatchLimit = new Limit("vb", validateBatchPerMinute, validateBatchBurst, size);
+    }
+
+    /**
+     * 登录限流：同时按 IP 和登录标识检查
+     *
+     * @param clientIp   客户端 IP
+     * @param identifier 用户名或邮箱
+     * @return long 需要等待的毫秒数，0 表示放行
+     */
+    public long checkLogin(String clientIp, String identifier) {
+        if (!enabled) {
+            return 0L;
+        }
+        long wait = ipLimit.acquire(clientIp, now());
+        if (wait > 0) {
+            increment(ipRejected);
+            return wait;
+        }
+        String normalized = identifier == null ? "" : identifier.trim().toLowerCase(Locale.ROOT);
+        wait = identifierLimit.acquire(normalized, now());
+        if (wait > 0) {
+            increment(identifierRejected);
+            return wait;
+        }
+        return acquireGlobal(List.of(ipLimit.redisKey(clientIp), identifierLimit.redisKey(normalized)),
+                ipLimit.intervalMs(), ipLimit.burstMs(), identifierLimit.intervalMs(), identifierLimit.burstMs());
+    }
+
+    /**
+     * 注册限流：按 IP 检查
+     *
+     * @param clientIp 客户端 IP
+     * @return long 需要等待的毫秒数，0 表示放行
+     */
+    public long checkRegister(String clientIp) {
+        if (!enabled) {
+            return 0L;
+        }
+        long wait = ipLimit.acquire(clientIp, now());
+        if (wait > 0) {
+            increment(ipRejected);
+            return wait;
+        }
+        return acquireGlobal(List.of(ipLimit.redisKey(clientIp)), ipLimit.intervalMs(), ipLimit.burstMs());
+    }
+
+    /**
+     * 可用性检查限流：按 IP 检查，独立于注册额度（表单输入时会频繁调用），同时限制批量探测用户名/邮箱
+     * 只做进程内检查，不访问 Redis
+     *
+     * @param clientIp 客户端 IP
+     * @return long 需要等待的毫秒数，0 表示放行
+     */
+    public long checkAvailability(String clientIp) {
+        if (!enabled) {
+            return 0L;
+        }
+        long wait = availabilityLimit.acquire(clientIp, now());
+        if (wait > 0) {
+            increment(ipRejected);
+        }
+        return wait;
+    }
+
+    /**
+     * 批量验证 Token 限流：按 IP 检查，独立于登录/注册额度
+     * 单次请求最多验签数百个 Token，不限流时可被用来放大 CPU 消耗
+     *
+     * @param clientIp 客户端 IP
+     * @return long 需要等待的毫秒数，0 表示放行
+     */
+    public long checkValidateBatch(String clientIp) {
+        if (!enabled) {
+            return 0L;
+        }
+        long wait = validateBatchLimit.acquire(clientIp, now());
+        if (wait > 0) {
+            increment(ipRejected);
+            return wait;
+        }
+        return acquireGlobal(List.of(validateBatchLimit.redisKey(clientIp)),
+                validateBatchLimit.intervalMs(), validateBatchLimit.burstMs());
+    }
+
+    /**
+     * 解析客户端 IP；仅在部署于可信反向代理之后时才采信 X-Forwarded-For
+     *
+     * @param request HTTP 请求
+     * @return String 客户端 IP
+     */
+    public String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwardedFor = request.getHeader("X-Forwarded-For");
+            if (forwardedFor != null && !forwardedFor.isBlank()) {
+                int comma = forwardedFor.indexOf(',');
+                return (comma < 0 ? forwardedFor : forwardedFor.substring(0, comma)).trim();
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private long acquireGlobal(List<String> keys, Object... args) {
+        if (!redisEnabled) {
+            return 0L;
+        }
+        try {
+            String[] argv = new String[args.length];
+            for (int i = 0; i < args.length; i++) {
+                argv[i] = String.valueOf(args[i]);
+            }
+            Long wait = redisTemplate.execute(GCRA_SCRIPT, keys, (Object[]) argv);
+            if (wait != null && wait > 0) {
+                increment(globalRejected);
+                return wait;
+            }
+        } catch (RuntimeException e) {
+            // Redis 不可用时只依赖进程内限流，不阻断登录
+            logger.debug("Global rate limit check failed, falling back to local limits: {}", e.getMessage());
+        }
+        return 0L;
+    }
+
+    private long now() {
+        return System.nanoTime() - origin + 1;
+    }
+
+    private static void increment(Counter counter) {
+        if (counter != null) {
+            counter.increment();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.ipRejected = Counter.builder("auth.rate-limit.rejected")
+                .tag("scope", "ip")
+                .description("Auth requests rejected by the rate limiter")
+                .register(registry);
+        this.identifierRejected = Counter.builder("auth.rate-limit.rejected")
+                .tag("scope", "identifier")
+                .description("Auth requests rejected by the rate limiter")
+                .register(registry);
+        this.globalRejected = Counter.builder("auth.rate-limit.rejected")
+                .tag("scope", "global")
+                .description("Auth requests rejected by the rate limiter")
+                .register(registry);
+    }
+
+    /**
+     * 单个维度的 GCRA 参数与进程内条带
+     * 每个条带保存"理论到达时间"（TAT，纳秒），请求放行即把 TAT 推后一个发射间隔
+     */
+    private static final class Limit {
+
+        private final String scope;
+        private final long intervalNanos;
+        private final long burstNanos;
+        private final AtomicLongArray tats;
+        private final int mask;
+
+        Limit(String scope, int perMinute, int burst, int stripes) {
+            this.scope = scope;
+            this.intervalNanos = TimeUnit.MINUTES.toNanos(1) / Math.max(1, perMinute);
+            this.burstNanos = intervalNanos * Math.max(1, burst);
+            this.tats = new AtomicLongArray(stripes);
+            this.mask = stripes - 1;
+        }
+
+        long acquire(String key, long now) {
+            int index = spread(key == null ? 0 : key.hashCode()) & mask;
+            while (true) {
+                long current = tats.get(index);
+                long tat = Math.max(current, now);
+                long newTat = tat + intervalNanos;
+                long allowAt = newTat - burstNanos;
+                if (now < allowAt) {
+                    return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(allowAt - now));
+                }
+                if (tats.compareAndSet(index, current, newTat)) {
+                    return 0L;
+                }
+            }
+        }
+
+        String redisKey(String key) {
+            return KEY_PREFIX + scope + ":" + key;
+        }
+
+        long intervalMs() {
+            return Math.max(1L, TimeUnit.NANOSECONDS.toMillis(intervalNanos));
+        }
+
+        long burstMs() {
+            return TimeUnit.NANOSECONDS.toMillis(burstNanos);
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85ebca6b;
+            hash ^= hash >>> 13;
+            return hash;
+        }
+    }
+}
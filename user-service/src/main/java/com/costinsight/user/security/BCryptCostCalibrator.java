@@ -0,0 +1,62 @@
+package com.costinsight.user.security;
+
+import org.springframework.security.crypto.bcrypt.BCrypt;
+
+import java.util.Arrays;
+
+/**
+ * BCrypt 代价因子校准
+ * <p>
+ * 在当前机器上实测一次哈希的耗时，选出不超过目标延迟的最大代价因子。
+ * BCrypt 每提高 1 个代价因子耗时翻倍，因此只需实测下限代价，再按 2 的幂外推，
+ * 避免启动时真正跑一遍高代价哈希。
+ */
+public final class BCryptCostCalibrator {
+
+    private static final int SAMPLES = 5;
+
+    private BCryptCostCalibrator() {
+    }
+
+    /**
+     * 选出耗时不超过目标的最大代价因子
+     *
+     * @param targetMs 单次哈希的目标耗时（毫秒）
+     * @param minCost  代价因子下限（即使超出目标也不会低于它）
+     * @param maxCost  代价因子上限
+     * @return int 代价因子
+     */
+    public static int calibrate(long targetMs, int minCost, int maxCost) {
+        return costFor(measureNanos(minCost), minCost, maxCost, targetMs);
+    }
+
+    /**
+     * 根据下限代价的实测耗时外推出目标代价因子
+     */
+    static int costFor(long nanosAtMinCost, int minCost, int maxCost, long targetMs) {
+        long targetNanos = targetMs * 1_000_000L;
+        long nanos = Math.max(1L, nanosAtMinCost);
+        int cost = minCost;
+        while (cost < maxCost && nanos * 2 <= targetNanos) {
+            nanos *= 2;
+            cost++;
+        }
+        return cost;
+    }
+
+    /**
+     * 取多次采样的中位数，第一次采样用于预热，不计入
+     */
+    private static long measureNanos(int cost) {
+        String salt = BCrypt.gensalt(cost);
+        BCrypt.hashpw("calibration", salt);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            BCrypt.hashpw("calibration", salt);
+            samples[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
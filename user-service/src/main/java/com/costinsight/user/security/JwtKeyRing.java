@@ -0,0 +1,337 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.config.JwtKeyProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 非对称签名密钥环
+ * <p>
+ * 保存一把用于签发的活动密钥和若干仅用于验签的密钥，每把密钥都有 kid，
+ * 签发的 Token 在 header 中携带 kid，下游服务通过 JWKS 找到对应公钥在本地验签。
+ * 配置变更（如 Nacos 推送）时原子地切换到新的密钥集合，实现不停机轮换。
+ */
+@Component
+public class JwtKeyRing {
+
+    private static final Logger logger = LoggerFactory.getLogger(JwtKeyRing.class);
+
+    private static final String PROPERTY_PREFIX = "app.jwt.key-ring";
+
+    private final Environment environment;
+    private final SignatureAlgorithm algorithm;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    private volatile State state = State.EMPTY;
+
+    public JwtKeyRing(Environment environment, @Value("${app.jwt.algorithm:HS512}") String algorithm) {
+        this.environment = environment;
+        this.algorithm = SignatureAlgorithm.forName(algorithm);
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY_PREFIX))) {
+            try {
+                reload();
+            } catch (IllegalStateException e) {
+                // 新配置有误时保留当前密钥集合，避免服务不可用
+                logger.error("Failed to reload JWT key ring, keeping the current keys: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 从当前配置重新加载密钥
+     *
+     * @throws IllegalStateException 如果密钥配置无效
+     */
+    public void reload() {
+        // 用 ReentrantLock 而不是 synchronized：生成 RSA 密钥耗时较长，监视器锁会在虚拟线程上钉住载体线程
+        reloadLock.lock();
+        try {
+            if (!isAsymmetric()) {
+                this.state = State.EMPTY;
+                return;
+            }
+            JwtKeyProperties properties = Binder.get(environment)
+                    .bind(PROPERTY_PREFIX, JwtKeyProperties.class)
+                    .orElseGet(JwtKeyProperties::new);
+
+            Map<String, KeyEntry> keys = new LinkedHashMap<>();
+            for (JwtKeyProperties.KeyDefinition definition : properties.getKeys()) {
+                KeyEntry entry = parse(definition);
+                keys.put(entry.kid, entry);
+            }
+
+            KeyEntry active;
+            if (keys.isEmpty()) {
+                logger.warn("No JWT signing keys configured for {}, generating an ephemeral key pair. " +
+                        "Tokens will not verify across nodes or restarts.", algorithm.getValue());
+                active = generate();
+                keys.put(active.kid, active);
+            } else {
+                String activeKid = properties.getActiveKid();
+                active = activeKid != null ? keys.get(activeKid) : keys.values().iterator().next();
+                if (active == null || active.privateKey == null) {
+                    throw new IllegalStateException("Active JWT key '" + activeKid + "' is missing or has no private key");
+                }
+            }
+
+            String jwks = buildJwks(keys);
+            this.state = new State(Collections.unmodifiableMap(keys), active, jwks, etag(jwks));
+            logger.info("JWT key ring loaded: active kid={}, {} verification key(s)", active.kid, keys.size());
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    public boolean isAsymmetric() {
+        return algorithm.isRsa() || algorithm.isEllipticCurve();
+    }
+
+    public SignatureAlgorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * 获取当前用于签发的密钥
+     */
+    public KeyEntry getActiveKey() {
+        KeyEntry active = state.active;
+        if (active == null) {
+            throw new IllegalStateException("Asymmetric JWT signing is not enabled");
+        }
+        return active;
+    }
+
+    /**
+     * 根据 kid 获取验签公钥
+     *
+     * @param kid 密钥 ID
+     * @return PublicKey，未知 kid 返回 null
+     */
+    public PublicKey getVerificationKey(String kid) {
+        KeyEntry entry = kid != null ? state.keys.get(kid) : null;
+        return entry != null ? entry.publicKey : null;
+    }
+
+    /**
+     * JWKS 文档（RFC 7517），密钥集合变化时才重新生成
+     */
+    public String getJwksJson() {
+        return state.jwks;
+    }
+
+    public String getJwksEtag() {
+        return state.etag;
+    }
+
+    private KeyEntry parse(JwtKeyProperties.KeyDefinition definition) {
+        if (definition.getKid() == null || definition.getKid().isBlank()) {
+            throw new IllegalStateException("JWT key without kid");
+        }
+        String keyFactoryAlgorithm = algorithm.isRsa() ? "RSA" : "EC";
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance(keyFactoryAlgorithm);
+            PrivateKey privateKey = definition.getPrivateKey() != null
+                    ? keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(definition.getPrivateKey())))
+                    : null;
+            PublicKey publicKey;
+            if (definition.getPublicKey() != null) {
+                publicKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(definition.getPublicKey())));
+            } else if (privateKey instanceof RSAPrivateCrtKey rsa) {
+                publicKey = keyFactory.generatePublic(new RSAPublicKeySpec(rsa.getModulus(), rsa.getPublicExponent()));
+            } else {
+                throw new IllegalStateException("JWT key '" + definition.getKid() + "' has no public key");
+            }
+            return new KeyEntry(definition.getKid(), algorithm, privateKey, publicKey);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Invalid JWT key '" + definition.getKid() + "': " + e.getMessage(), e);
+        }
+    }
+
+    private KeyEntry generate() {
+        try {
+            KeyPairGenerator generator;
+            if (algorithm.isRsa()) {
+                generator = KeyPairGenerator.getInstance("RSA");
+                generator.initialize(2048);
+            } else {
+                generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec(curveName()));
+            }
+            KeyPair keyPair = generator.generateKeyPair();
+            return new KeyEntry("ephemeral-" + UUID.randomUUID(), algorithm, keyPair.getPrivate(), keyPair.getPublic());
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to generate JWT key pair", e);
+        }
+    }
+
+    private String buildJwks(Map<String, KeyEntry> keys) {
+        List<Map<String, String>> jwks = new ArrayList<>();
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        for (KeyEntry entry : keys.values()) {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kid", entry.kid);
+            jwk.put("use", "sig");
+            jwk.put("alg", entry.algorithm.getValue());
+            if (entry.publicKey instanceof RSAPublicKey rsa) {
+                jwk.put("kty", "RSA");
+                jwk.put("n", encoder.encodeToString(unsigned(rsa.getModulus(), 0)));
+                jwk.put("e", encoder.encodeToString(unsigned(rsa.getPublicExponent(), 0)));
+            } else if (entry.publicKey instanceof ECPublicKey ec) {
+                int size = (ec.getParams().getCurve().getField().getFieldSize() + 7) / 8;
+                jwk.put("kty", "EC");
+                jwk.put("crv", jwkCurveName());
+                jwk.put("x", encoder.encodeToString(unsigned(ec.getW().getAffineX(), size)));
+                jwk.put("y", encoder.encodeToString(unsigned(ec.getW().getAffineY(), size)));
+            }
+            jwks.add(jwk);
+        }
+        try {
+            return objectMapper.writeValueAsString(Map.of("keys", jwks));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to build JWKS", e);
+        }
+    }
+
+    private String curveName() {
+        return switch (algorithm) {
+            case ES384 -> "secp384r1";
+            case ES512 -> "secp521r1";
+            default -> "secp256r1";
+        };
+    }
+
+    private String jwkCurveName() {
+        return switch (algorithm) {
+            case ES384 -> "P-384";
+            case ES512 -> "P-521";
+            default -> "P-256";
+        };
+    }
+
+    /**
+     * 大整数的无符号大端表示；size 大于 0 时左侧补零到固定长度
+     */
+    private static byte[] unsigned(BigInteger value, int size) {
+        byte[] bytes = value.toByteArray();
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        if (size > bytes.length) {
+            byte[] padded = new byte[size];
+            System.arraycopy(bytes, 0, padded, size - bytes.length, bytes.length);
+            return padded;
+        }
+        return bytes;
+    }
+
+    private static byte[] decodePem(String pem) {
+        String base64 = pem.replaceAll("-----(BEGIN|END) [A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static String etag(String json) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(json.getBytes(StandardCharsets.UTF_8));
+            return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(hash).substring(0, 22) + "\"";
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * 密钥环中的一把密钥
+     */
+    public static final class KeyEntry {
+
+        private final String kid;
+        private final SignatureAlgorithm algorithm;
+        private final PrivateKey privateKey;
+        private final PublicKey publicKey;
+
+        KeyEntry(String kid, SignatureAlgorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+            this.kid = kid;
+            this.algorithm = algorithm;
+            this.privateKey = privateKey;
+            this.publicKey = publicKey;
+        }
+
+        public String getKid() {
+            return kid;
+        }
+
+        public SignatureAlgorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public PrivateKey getPrivateKey() {
+            return privateKey;
+        }
+
+        public PublicKey getPublicKey() {
+            return publicKey;
+        }
+    }
+
+    private static final class State {
+
+        static final State EMPTY = new State(Collections.emptyMap(), null, "{\"keys\":[]}", "\"empty\"");
+
+        final Map<String, KeyEntry> keys;
+        final KeyEntry active;
+        final String jwks;
+        final String etag;
+
+        State(Map<String, KeyEntry> keys, KeyEntry active, String jwks, String etag) {
+            this.keys = keys;
+            this.active = active;
+            this.jwks = jwks;
+            this.etag = etag;
+        }
+    }
+}
@@ -0,0 +1,199 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BCrypt 计算的隔离舱
+ * <p>
+ * 所有密码哈希与校验都在固定大小（默认等于 CPU 核数）的专用线程池中执行，等待队列有界：
+ * <ul>
+ *     <li>登录风暴最多占满这些线程，Tomcat 工作线程不会被 BCrypt 耗尽，廉价接口不受影响；</li>
+ *     <li>队列已满或排队超时时立即抛出 ServiceBusyException（503 + Retry-After），而不是无限堆积。</li>
+ * </ul>
+ * 队列深度、排队时间、执行时间和拒绝次数通过 Micrometer 暴露，用于评估节点容量。
+ */
+@Component
+public class PasswordHasher implements MeterBinder, DisposableBean {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final int threads;
+    private final long maxWaitMs;
+
+    private final AtomicLong averageExecutionNanos = new AtomicLong(TimeUnit.MILLISECONDS.toNanos(100));
+    private volatile Timer waitTimer;
+    private volatile Timer executionTimer;
+    private volatile Counter rejectedCounter;
+
+    public PasswordHasher(BCryptPasswordEncoder passwordEncoder,
+                          @Value("${app.security.password-hasher.threads:0}") int threads,
+                          @Value("${app.security.password-hasher.queue-capacity:0}") int queueCapacity,
+                          @Value("${app.security.password-hasher.max-wait-ms:3000}") long maxWaitMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxWaitMs = maxWaitMs;
+        int capacity = queueCapacity > 0 ? queueCapacity : this.threads * 16;
+        this.executor = new ThreadPoolExecutor(this.threads, this.threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(capacity), new NamedThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * 计算密码哈希
+     *
+     * @param rawPassword 明文密码
+     * @return BCrypt 哈希
+     * @throws ServiceBusyException 如果隔离舱已满或排队超时
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword));
+    }
+
+    /**
+     * 校验密码
+     *
+     * @param rawPassword     明文密码
+     * @param encodedPassword BCrypt 哈希
+     * @return boolean 是否匹配
+     * @throws ServiceBusyException 如果隔离舱已满或排队超时
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    /**
+     * 判断已存储的哈希是否低于当前代价因子，需要在下次拿到明文时重新哈希
+     * <p>
+     * 只解析哈希前缀，不做 BCrypt 计算，因此不经过线程池。
+     *
+     * @param encodedPassword 已存储的 BCrypt 哈希
+     * @return boolean 是否需要升级
+     */
+    public boolean needsRehash(String encodedPassword) {
+        try {
+            return passwordEncoder.upgradeEncoding(encodedPassword);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                record(waitTimer, startedAt - submittedAt);
+                try {
+                    return task.call();
+                } finally {
+                    long elapsed = System.nanoTime() - startedAt;
+                    record(executionTimer, elapsed);
+                    // 指数加权平均，用于估算 Retry-After
+                    averageExecutionNanos.updateAndGet(average -> average + (elapsed - average) / 8);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            throw busy("Password hashing capacity exhausted");
+        }
+
+        try {
+            return future.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 仍在排队的任务不再执行；已开始的 BCrypt 无法中断，让它自然结束
+            future.cancel(false);
+            throw busy("Timed out waiting for password hashing capacity");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw busy("Interrupted while waiting for password hashing");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private ServiceBusyException busy(String message) {
+        Counter counter = rejectedCounter;
+        if (counter != null) {
+            counter.increment();
+        }
+        // 按当前队列深度和平均执行时间估算队列排空所需时间
+        long drainNanos = (getQueueDepth() + threads) * averageExecutionNanos.get() / threads;
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(drainNanos) + 1);
+        return new ServiceBusyException(message, retryAfterSeconds);
+    }
+
+    private static void record(Timer timer, long nanos) {
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hasher.queue.depth", this, PasswordHasher::getQueueDepth)
+                .description("Password hashing tasks waiting for a worker")
+                .register(registry);
+        Gauge.builder("password.hasher.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing workers currently busy")
+                .register(registry);
+        this.waitTimer = Timer.builder("password.hasher.wait")
+                .description("Time password hashing tasks spend queued")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.executionTimer = Timer.builder("password.hasher.execution")
+                .description("Time spent computing BCrypt")
+                .register(registry);
+        this.rejectedCounter = Counter.builder("password.hasher.rejected")
+                .description("Password hashing requests rejected with 503")
+                .register(registry);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static final class NamedThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hasher-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
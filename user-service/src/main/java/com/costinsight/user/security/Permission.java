@@ -0,0 +1,47 @@
+package com.costinsight.user.security;
+
+/**
+ * 权限位
+ * <p>
+ * 每个权限占用权限位集中的固定一位（0-62），位号一经发布不可修改或复用（已签发的 Token 中携带的是位值）。
+ */
+public enum Permission {
+
+    USER_READ(0),
+    USER_UPDATE_SELF(1),
+    USER_DELETE_SELF(2),
+    USER_ADMIN(8),
+    CACHE_ADMIN(9);
+
+    private final int bit;
+
+    Permission(int bit) {
+        this.bit = bit;
+    }
+
+    public int getBit() {
+        return bit;
+    }
+
+    public long mask() {
+        return 1L << bit;
+    }
+
+    /**
+     * 合并多个权限为位集
+     */
+    public static long maskOf(Permission... permissions) {
+        long mask = 0L;
+        for (Permission permission : permissions) {
+            mask |= permission.mask();
+        }
+        return mask;
+    }
+
+    /**
+     * 所有已定义权限的位集
+     */
+    public static long all() {
+        return maskOf(values());
+    }
+}
@@ -0,0 +1,101 @@
+package com.costinsight.user.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 刷新令牌的服务端存储
+ * <p>
+ * 刷新令牌是不透明的随机串，Redis 中只保存其 SHA-256 摘要（jwt:refresh:&lt;digest&gt; -> "userId|签发时间"），
+ * 每次使用时通过 GETDEL 原子地取出并删除，再签发新的刷新令牌（轮换），同一令牌无法被使用两次。
+ * 修改密码、删除账号后，用户纪元之前签发的刷新令牌同样失效。
+ */
+@Component
+public class RefreshTokenStore {
+
+    public static final String KEY_PREFIX = "jwt:refresh:";
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final long refreshExpirationMs;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenStore(StringRedisTemplate redisTemplate, TokenRevocationRegistry tokenRevocationRegistry,
+                             @Value("${app.jwt.refresh-expiration:1209600000}") long refreshExpirationMs) {
+        this.redisTemplate = redisTemplate;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.refreshExpirationMs = refreshExpirationMs;
+    }
+
+    /**
+     * 为用户签发一个新的刷新令牌
+     *
+     * @param userId 用户ID
+     * @return 刷新令牌
+     */
+    public String issue(Long userId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        String value = userId + "|" + System.currentTimeMillis() / 1000;
+        redisTemplate.opsForValue().set(key(refreshToken), value, refreshExpirationMs, TimeUnit.MILLISECONDS);
+        return refreshToken;
+    }
+
+    /**
+     * 使用（并删除）一个刷新令牌
+     *
+     * @param refreshToken 刷新令牌
+     * @return 令牌所属的用户ID，令牌不存在、已过期、已使用或已随用户纪元失效时返回 null
+     */
+    public Long consume(String refreshToken) {
+        String value = redisTemplate.opsForValue().getAndDelete(key(refreshToken));
+        if (value == null) {
+            return null;
+        }
+        int separator = value.indexOf('|');
+        String userId = value.substring(0, separator);
+        long issuedAt = Long.parseLong(value.substring(separator + 1));
+        if (tokenRevocationRegistry.isIssuedBeforeUserEpoch(userId, issuedAt)) {
+            return null;
+        }
+        return Long.valueOf(userId);
+    }
+
+    /**
+     * 吊销用户自己的刷新令牌（登出时调用），不属于该用户的令牌不受影响
+     *
+     * @param refreshToken 刷新令牌
+     * @param userId       当前用户ID
+     */
+    public void revoke(String refreshToken, Long userId) {
+        String key = key(refreshToken);
+        String value = redisTemplate.opsForValue().get(key);
+        if (value != null && value.startsWith(userId + "|")) {
+            redisTemplate.delete(key);
+        }
+    }
+
+    public long getExpirationMs() {
+        return refreshExpirationMs;
+    }
+
+    private static String key(String refreshToken) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(refreshToken.getBytes(StandardCharsets.UTF_8));
+            return KEY_PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.costinsight.user.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 声明访问接口所需的权限（需要同时具备全部权限）
+ * <p>
+ * 由 JwtAuthenticationInterceptor 使用 Token 中的权限位集检查，标注在类上时对所有方法生效，方法上的标注优先。
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface RequirePermission {
+
+    Permission[] value();
+}
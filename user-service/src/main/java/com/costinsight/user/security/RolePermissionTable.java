@@ -0,0 +1,105 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.config.RolePermissionProperties;
+import com.costinsight.user.constant.RoleConstants;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 角色到权限位集的内存映射表
+ * <p>
+ * 签发 Token 时把角色编译为位集写入 "pm" 声明，鉴权时只需一次按位与，不查询数据库也不解析字符串。
+ * 未配置时使用内置默认值；配置变化时整体替换映射表，无需重启。
+ */
+@Component
+public class RolePermissionTable {
+
+    private static final Logger logger = LoggerFactory.getLogger(RolePermissionTable.class);
+
+    private static final String PROPERTY_PREFIX = "app.security";
+
+    private static final Map<String, Long> DEFAULTS = Map.of(
+            RoleConstants.ROLE_USER, Permission.maskOf(Permission.USER_READ, Permission.USER_UPDATE_SELF, Permission.USER_DELETE_SELF),
+            RoleConstants.ROLE_ADMIN, Permission.all());
+
+    private final Environment environment;
+
+    private volatile Map<String, Long> table = DEFAULTS;
+
+    public RolePermissionTable(Environment environment) {
+        this.environment = environment;
+    }
+
+    @PostConstruct
+    public void init() {
+        reload();
+    }
+
+    @EventListener
+    public void onEnvironmentChange(EnvironmentChangeEvent event) {
+        if (event.getKeys().stream().anyMatch(key -> key.startsWith(PROPERTY_PREFIX + ".roles"))) {
+            try {
+                reload();
+            } catch (IllegalStateException e) {
+                logger.error("Failed to reload role permissions, keeping the current table: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 从当前配置重新加载映射表
+     *
+     * @throws IllegalStateException 如果配置中包含未知的权限名
+     */
+    public void reload() {
+        RolePermissionProperties properties = Binder.get(environment)
+                .bind(PROPERTY_PREFIX, RolePermissionProperties.class)
+                .orElseGet(RolePermissionProperties::new);
+        if (properties.getRoles().isEmpty()) {
+            this.table = DEFAULTS;
+            return;
+        }
+
+        Map<String, Long> compiled = new HashMap<>();
+        for (RolePermissionProperties.RoleDefinition definition : properties.getRoles()) {
+            long mask = 0L;
+            for (String name : definition.getPermissions()) {
+                if ("*".equals(name.trim())) {
+                    mask |= Permission.all();
+                    continue;
+                }
+                try {
+                    mask |= Permission.valueOf(name.trim()).mask();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalStateException("Unknown permission '" + name + "' for role " + definition.getRole());
+                }
+            }
+            compiled.put(definition.getRole(), mask);
+        }
+        this.table = Map.copyOf(compiled);
+        logger.info("Role permission table loaded: {} role(s)", compiled.size());
+    }
+
+    /**
+     * 获取角色对应的权限位集
+     *
+     * @param role 角色名
+     * @return 权限位集，未知角色返回 0
+     */
+    public long permissionsOf(String role) {
+        if (role == null) {
+            return 0L;
+        }
+        Long mask = table.get(role);
+        return mask != null ? mask : 0L;
+    }
+}
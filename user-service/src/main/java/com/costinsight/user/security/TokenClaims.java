@@ -0,0 +1,106 @@
+package com.costinsight.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+
+import java.util.Date;
+
+/**
+ * 已通过签名校验的 Token 载荷视图
+ * 只保留鉴权链路需要的字段，不可变，可以安全地在线程间和本地缓存中共享
+ */
+public final class TokenClaims {
+
+    /**
+     * Token 中没有权限位集（"pm" 声明）时的取值，此时由调用方按角色查表
+     */
+    public static final long UNKNOWN_PERMISSIONS = -1L;
+
+    private final String subject;
+    private final String jti;
+    private final long issuedAt;   // 签发时间（秒），0 表示缺失
+    private final long expiration; // 过期时间（毫秒）
+    private final String role;
+    private final long permissions; // 权限位集，UNKNOWN_PERMISSIONS 表示缺失
+
+    public TokenClaims(String subject, String jti, long issuedAt, long expiration, String role) {
+        this(subject, jti, issuedAt, expiration, role, UNKNOWN_PERMISSIONS);
+    }
+
+    public TokenClaims(String subject, String jti, long issuedAt, long expiration, String role, long permissions) {
+        this.subject = subject;
+        this.jti = jti;
+        this.issuedAt = issuedAt;
+        this.expiration = expiration;
+        this.role = role;
+        this.permissions = permissions;
+    }
+
+    /**
+     * 从 jjwt 解析出的 Claims 构建视图
+     *
+     * @param claims 已校验的 Claims
+     * @return TokenClaims
+     * @throws JwtException 如果 Token 缺少 JTI
+     */
+    public static TokenClaims from(Claims claims) {
+        String jti = claims.getId();
+        if (jti == null) {
+            throw new JwtException("Token does not have a JTI (JWT ID).");
+        }
+        Date issuedAt = claims.getIssuedAt();
+        Date expiration = claims.getExpiration();
+        Object permissions = claims.get("pm");
+        return new TokenClaims(
+                claims.getSubject(),
+                jti,
+                issuedAt != null ? issuedAt.getTime() / 1000 : 0L,
+                expiration != null ? expiration.getTime() : Long.MAX_VALUE,
+                role(claims),
+                permissions instanceof Number number && number.longValue() >= 0 ? number.longValue() : UNKNOWN_PERMISSIONS);
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Long getUserId() {
+        return Long.parseLong(subject);
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public long getIssuedAt() {
+        return issuedAt;
+    }
+
+    public long getExpiration() {
+        return expiration;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public long getPermissions() {
+        return permissions;
+    }
+
+    public boolean hasPermissions() {
+        return permissions != UNKNOWN_PERMISSIONS;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiration <= nowMillis;
+    }
+
+    /**
+     * 角色声明，兼容完整形态的 "role" 与精简形态的 "r"
+     */
+    private static String role(Claims claims) {
+        String role = claims.get("role", String.class);
+        return role != null ? role : claims.get("r", String.class);
+    }
+}
@@ -0,0 +1,344 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已吊销 JTI 的本地镜像
+ * <p>
+ * Redis 中的 jwt:blacklist:* 仍是唯一可信来源，每个节点在内存中维护一份镜像：
+ * <ul>
+ *     <li>启动后通过 SCAN 全量加载，并按固定间隔重新同步，用于修复丢失的订阅消息；</li>
+ *     <li>登出时写入 Redis 后通过 pub/sub 广播，其他节点收到消息后更新本地镜像；</li>
+ *     <li>查询时先走布隆过滤器，"一定未吊销"的常见情况只需几次内存访问。</li>
+ * </ul>
+ * 首次同步完成前，查询会回退到 Redis hasKey。
+ * <p>
+ * 除单个 JTI 外，还维护每个用户的吊销纪元（jwt:user-epoch 哈希，userId -> 秒级时间戳）：
+ * 签发时间早于纪元的 Token 全部失效，一次写入即可让该用户的所有会话下线。
+ * 超过保留期的纪元在定时同步时从 Redis 哈希中删除，哈希大小只与保留期内修改过密码或删除的用户数有关。
+ */
+@Component
+public class TokenRevocationRegistry implements MessageListener, MeterBinder {
+
+    public static final String BLACKLIST_KEY_PREFIX = "jwt:blacklist:";
+    public static final String USER_EPOCH_KEY = "jwt:user-epoch";
+    public static final String CHANNEL = "jwt:revocations";
+
+    private static final String USER_EPOCH_MESSAGE_PREFIX = "user:";
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationRegistry.class);
+
+    private static final double BLOOM_FPP = 0.01;
+    private static final int MIN_BLOOM_CAPACITY = 1024;
+    private static final int PRUNE_BATCH_SIZE = 1000;
+
+    /**
+     * ARGV[1] 为保留下限（秒），其余为待删除的 userId。
+     * 删除前重新读取每个字段，读取快照之后被其他节点更新的纪元不会被误删；返回删除的字段数。
+     */
+    private static final RedisScript<Long> PRUNE_EPOCHS_SCRIPT = new DefaultRedisScript<>(
+            "local cutoff = tonumber(ARGV[1])\n"
+                    + "local removed = 0\n"
+                    + "for i = 2, #ARGV do\n"
+                    + "  local epoch = tonumber(redis.call('HGET', KEYS[1], ARGV[i]))\n"
+                    + "  if epoch and epoch < cutoff then\n"
+                    + "    removed = removed + redis.call('HDEL', KEYS[1], ARGV[i])\n"
+                    + "  end\n"
+                    + "end\n"
+                    + "return removed",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final long jwtExpirationMs;
+    private final long epochRetentionMs; // 纪元需要覆盖访问令牌和刷新令牌中较长的有效期
+
+    private final Object lock = new Object();
+    private volatile Map<String, Long> revoked = new ConcurrentHashMap<>(); // jti -> 过期时间（毫秒）
+    private volatile Map<String, Long> userEpochs = new ConcurrentHashMap<>(); // userId -> 纪元（秒）
+    private volatile BloomFilter bloomFilter = new BloomFilter(MIN_BLOOM_CAPACITY, BLOOM_FPP);
+    private volatile boolean ready = false;
+
+    public TokenRevocationRegistry(StringRedisTemplate redisTemplate,
+                                   @Value("${app.jwt.expiration}") long jwtExpirationMs,
+                                   @Value("${app.jwt.refresh-expiration:1209600000}") long refreshExpirationMs) {
+        this.redisTemplate = redisTemplate;
+        this.jwtExpirationMs = jwtExpirationMs;
+        this.epochRetentionMs = Math.max(jwtExpirationMs, refreshExpirationMs);
+    }
+
+    /**
+     * 判断 JTI 是否已被吊销
+     *
+     * @param jti Token 唯一标识
+     * @return boolean 是否已吊销
+     */
+    public boolean isRevoked(String jti) {
+        if (!ready) {
+            Boolean isBlacklisted = redisTemplate.hasKey(BLACKLIST_KEY_PREFIX + jti);
+            return isBlacklisted != null && isBlacklisted;
+        }
+        return bloomFilter.mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    /**
+     * 判断 Token 是否已被吊销：JTI 在黑名单中，或签发时间不晚于该用户的吊销纪元
+     *
+     * @param claims 已验签的载荷视图
+     * @return boolean 是否已吊销
+     */
+    public boolean isRevoked(TokenClaims claims) {
+        return isRevoked(claims.getJti()) || isIssuedBeforeUserEpoch(claims.getSubject(), claims.getIssuedAt());
+    }
+
+    /**
+     * 判断某个凭证的签发时间是否早于该用户的吊销纪元（也用于刷新令牌）
+     *
+     * @param userId   用户ID
+     * @param issuedAt 签发时间（秒）
+     * @return boolean 是否已随纪元失效
+     */
+    public boolean isIssuedBeforeUserEpoch(String userId, long issuedAt) {
+        Long epoch;
+        if (!ready) {
+            Object value = redisTemplate.opsForHash().get(USER_EPOCH_KEY, userId);
+            epoch = value != null ? Long.valueOf(value.toString()) : null;
+        } else {
+            epoch = userEpochs.get(userId);
+        }
+        return epoch != null && issuedAt < epoch;
+    }
+
+    /**
+     * 批量判断 Token 是否已被吊销
+     * <p>
+     * 首次同步完成前通过 MGET / HMGET 批量查询 Redis，而不是逐个查询。
+     *
+     * @param claims 已验签的载荷视图列表
+     * @return 与输入顺序一致的吊销状态
+     */
+    public boolean[] areRevoked(List<TokenClaims> claims) {
+        boolean[] result = new boolean[claims.size()];
+        if (claims.isEmpty()) {
+            return result;
+        }
+        if (!ready) {
+            List<String> keys = new ArrayList<>(claims.size());
+            List<Object> userIds = new ArrayList<>(claims.size());
+            for (TokenClaims token : claims) {
+                keys.add(BLACKLIST_KEY_PREFIX + token.getJti());
+                userIds.add(token.getSubject());
+            }
+            List<String> blacklisted = redisTemplate.opsForValue().multiGet(keys);
+            List<Object> epochs = redisTemplate.opsForHash().multiGet(USER_EPOCH_KEY, userIds);
+            for (int i = 0; i < result.length; i++) {
+                Object epoch = epochs.get(i);
+                result[i] = (blacklisted != null && blacklisted.get(i) != null)
+                        || issuedBefore(claims.get(i), epoch != null ? Long.valueOf(epoch.toString()) : null);
+            }
+            return result;
+        }
+        for (int i = 0; i < result.length; i++) {
+            TokenClaims token = claims.get(i);
+            result[i] = (bloomFilter.mightContain(token.getJti()) && revoked.containsKey(token.getJti()))
+                    || issuedBefore(token, userEpochs.get(token.getSubject()));
+        }
+        return result;
+    }
+
+    /**
+     * 吊销某个用户在此刻之前签发的全部 Token（修改密码、删除账号时调用）
+     * <p>
+     * iat 只精确到秒，纪元取下一秒：本秒内已签发的 Token 一并失效。
+     * 返回前等到纪元所在的秒，调用方随后签发的 Token（如改密后重新登录）iat 不早于纪元，不会被误判为已吊销。
+     *
+     * @param userId 用户ID
+     */
+    public void revokeAllForUser(Long userId) {
+        String subject = String.valueOf(userId);
+        long epoch = System.currentTimeMillis() / 1000 + 1;
+        redisTemplate.opsForHash().put(USER_EPOCH_KEY, subject, String.valueOf(epoch));
+        addLocalEpoch(subject, epoch);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, USER_EPOCH_MESSAGE_PREFIX + subject + "|" + epoch);
+        } catch (Exception e) {
+            logger.warn("Failed to publish token epoch of user {}: {}", subject, e.getMessage());
+        }
+        awaitSecond(epoch);
+    }
+
+    /**
+     * 吊销一个 Token：写入 Redis 黑名单，更新本地镜像并通知其他节点
+     *
+     * @param jti             Token 唯一标识
+     * @param expiresAtMillis Token 的过期时间（毫秒）
+     */
+    public void revoke(String jti, long expiresAtMillis) {
+        long remainingMillis = expiresAtMillis - System.currentTimeMillis();
+        // 只有当 token 尚未过期时，才将其加入黑名单
+        if (remainingMillis <= 0) {
+            return;
+        }
+        redisTemplate.opsForValue().set(BLACKLIST_KEY_PREFIX + jti, "1", remainingMillis, TimeUnit.MILLISECONDS);
+        addLocal(jti, expiresAtMillis);
+        try {
+            redisTemplate.convertAndSend(CHANNEL, jti + "|" + expiresAtMillis);
+        } catch (Exception e) {
+            // 广播失败时其他节点会在下一次定时同步中补齐
+            logger.warn("Failed to publish revocation of {}: {}", jti, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        int separator = body.lastIndexOf('|');
+        if (separator <= 0) {
+            logger.warn("Ignoring malformed revocation message: {}", body);
+            return;
+        }
+        try {
+            long value = Long.parseLong(body.substring(separator + 1));
+            if (body.startsWith(USER_EPOCH_MESSAGE_PREFIX)) {
+                addLocalEpoch(body.substring(USER_EPOCH_MESSAGE_PREFIX.length(), separator), value);
+            } else {
+                addLocal(body.substring(0, separator), value);
+            }
+        } catch (NumberFormatException e) {
+            logger.warn("Ignoring malformed revocation message: {}", body);
+        }
+    }
+
+    /**
+     * 通过 SCAN 重建本地镜像
+     * <p>
+     * SCAN 拿不到精确的过期时间，按 Token 的最长有效期保守估计；已知精确过期时间的条目保留原值。
+     * 用户纪元一并重新加载；纪元同样约束刷新令牌，因此按访问令牌与刷新令牌中较长的有效期保留，
+     * 更早的纪元已不会影响任何未过期的凭证，不再保留在内存中，并在同一轮中从 Redis 删除。
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.jwt.revocation.resync-interval-ms:300000}")
+    public void resync() {
+        Map<String, Long> snapshot = new HashMap<>();
+        long assumedExpiry = System.currentTimeMillis() + jwtExpirationMs;
+        long oldestRelevantEpoch = (System.currentTimeMillis() - epochRetentionMs) / 1000;
+        ScanOptions options = ScanOptions.scanOptions().match(BLACKLIST_KEY_PREFIX + "*").count(1000).build();
+        Map<String, Long> epochSnapshot = new HashMap<>();
+        try (Cursor<String> cursor = redisTemplate.scan(options)) {
+            while (cursor.hasNext()) {
+                snapshot.put(cursor.next().substring(BLACKLIST_KEY_PREFIX.length()), assumedExpiry);
+            }
+            redisTemplate.opsForHash().entries(USER_EPOCH_KEY)
+                    .forEach((userId, epoch) -> epochSnapshot.put(userId.toString(), Long.valueOf(epoch.toString())));
+        } catch (Exception e) {
+            logger.warn("Failed to resync revoked tokens from Redis, keeping the current mirror: {}", e.getMessage());
+            return;
+        }
+
+        List<String> staleEpochs = new ArrayList<>();
+        epochSnapshot.forEach((userId, epoch) -> {
+            if (epoch < oldestRelevantEpoch) {
+                staleEpochs.add(userId);
+            }
+        });
+
+        synchronized (lock) {
+            long now = System.currentTimeMillis();
+            // 同步期间通过 pub/sub 收到的条目不能丢失；已过期的条目在这里被清理
+            revoked.forEach((jti, expiresAt) -> {
+                if (expiresAt > now) {
+                    snapshot.put(jti, expiresAt);
+                }
+            });
+            userEpochs.forEach((userId, epoch) -> epochSnapshot.merge(userId, epoch, Math::max));
+            epochSnapshot.values().removeIf(epoch -> epoch < oldestRelevantEpoch);
+            BloomFilter newBloomFilter = new BloomFilter(Math.max(MIN_BLOOM_CAPACITY, snapshot.size() * 2L), BLOOM_FPP);
+            snapshot.keySet().forEach(newBloomFilter::put);
+            this.revoked = new ConcurrentHashMap<>(snapshot);
+            this.userEpochs = new ConcurrentHashMap<>(epochSnapshot);
+            this.bloomFilter = newBloomFilter;
+            this.ready = true;
+        }
+        logger.debug("Revoked token mirror resynced, {} entries", snapshot.size());
+        pruneEpochs(staleEpochs, oldestRelevantEpoch);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("jwt.revocation.mirror.size", this, TokenRevocationRegistry::size)
+                .description("Number of revoked JTIs held in the local mirror")
+                .register(registry);
+    }
+
+    private void pruneEpochs(List<String> userIds, long oldestRelevantEpoch) {
+        for (int from = 0; from < userIds.size(); from += PRUNE_BATCH_SIZE) {
+            List<String> batch = userIds.subList(from, Math.min(userIds.size(), from + PRUNE_BATCH_SIZE));
+            Object[] args = new Object[batch.size() + 1];
+            args[0] = String.valueOf(oldestRelevantEpoch);
+            for (int i = 0; i < batch.size(); i++) {
+                args[i + 1] = batch.get(i);
+            }
+            try {
+                redisTemplate.execute(PRUNE_EPOCHS_SCRIPT, List.of(USER_EPOCH_KEY), args);
+            } catch (Exception e) {
+                // 下一轮同步会重试
+                logger.warn("Failed to prune stale user epochs: {}", e.getMessage());
+                return;
+            }
+        }
+    }
+
+    private static boolean issuedBefore(TokenClaims claims, Long epoch) {
+        return epoch != null && claims.getIssuedAt() < epoch;
+    }
+
+    private static void awaitSecond(long epochSecond) {
+        long waitMs = epochSecond * 1000 - System.currentTimeMillis();
+        if (waitMs <= 0) {
+            return;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(waitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void addLocal(String jti, long expiresAtMillis) {
+        synchronized (lock) {
+            bloomFilter.put(jti);
+            revoked.put(jti, expiresAtMillis);
+        }
+    }
+
+    private void addLocalEpoch(String userId, long epoch) {
+        synchronized (lock) {
+            userEpochs.merge(userId, epoch, Math::max);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.costinsight.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Locale;
+
+/**
+ * 不存在的登录标识（用户名/邮箱）的短期负缓存
+ * <p>
+ * 撞库流量中大部分标识并不存在，命中负缓存时直接拒绝，不再访问 MySQL。
+ * 本节点注册时会立即移除对应条目；其他节点上的条目最多在 TTL 后失效，
+ * 因此 TTL 应保持在秒级。
+ * 键统一转为小写，与 MySQL 不区分大小写的比较保持一致，大小写不同的写法共享同一条目。
+ */
+@Component
+public class UnknownIdentifierCache implements MeterBinder {
+
+    private final Cache<String, Boolean> cache;
+
+    public UnknownIdentifierCache(@Value("${app.security.unknown-identifier-cache.max-size:100000}") long maxSize,
+                                  @Value("${app.security.unknown-identifier-cache.ttl-ms:30000}") long ttlMs) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMillis(ttlMs))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 标识是否已确认不存在
+     *
+     * @param identifier 用户名或邮箱
+     * @return boolean 是否命中负缓存
+     */
+    public boolean isUnknown(String identifier) {
+        return cache.getIfPresent(key(identifier)) != null;
+    }
+
+    /**
+     * 记录一个查询不到用户的标识
+     *
+     * @param identifier 用户名或邮箱
+     */
+    public void markUnknown(String identifier) {
+        cache.put(key(identifier), Boolean.TRUE);
+    }
+
+    /**
+     * 移除标识（注册新用户、修改邮箱时调用）
+     *
+     * @param identifiers 用户名、邮箱，null 会被忽略
+     */
+    public void forget(String... identifiers) {
+        for (String identifier : identifiers) {
+            if (identifier != null) {
+                cache.invalidate(key(identifier));
+            }
+        }
+    }
+
+    private static String key(String identifier) {
+        return identifier.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "auth.unknown-identifier");
+    }
+}
@@ -0,0 +1,186 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.util.BloomFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 用户名/邮箱占用情况的布隆过滤器索引
+ * <p>
+ * 注册和可用性检查先查询本索引，"一定未占用"时跳过数据库唯一性查询；
+ * "可能已占用"时再由数据库确认，唯一约束始终是最终裁决。
+ * <ul>
+ *     <li>启动时及定期通过流式游标扫描全表重建（包括逻辑删除的行：它们仍受唯一约束约束）；</li>
+ *     <li>注册、修改邮箱时写入本地索引，并通过 Redis pub/sub 通知其他节点；</li>
+ *     <li>逻辑删除不释放用户名和邮箱，因此删除时无需更新索引。</li>
+ * </ul>
+ * 键统一转为小写：MySQL 默认排序规则不区分大小写，这样只会多出误判而不会漏判。
+ */
+@Component
+public class UserIdentityIndex implements MessageListener, MeterBinder {
+
+    public static final String CHANNEL = "user:identities";
+
+    private static final Logger logger = LoggerFactory.getLogger(UserIdentityIndex.class);
+
+    private static final double BLOOM_FPP = 0.01;
+    private static final String USERNAME_PREFIX = "u:";
+    private static final String EMAIL_PREFIX = "e:";
+
+    private final UserMapper userMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final long minCapacity;
+
+    private final Object lock = new Object();
+    private final AtomicLong insertions = new AtomicLong();
+    private volatile BloomFilter bloomFilter;
+    private volatile BloomFilter building;
+    private volatile long capacity;
+    private volatile boolean ready = false;
+
+    public UserIdentityIndex(UserMapper userMapper, StringRedisTemplate redisTemplate,
+                             @Value("${app.security.identity-index.min-capacity:100000}") long minCapacity) {
+        this.userMapper = userMapper;
+        this.redisTemplate = redisTemplate;
+        this.minCapacity = minCapacity;
+        this.capacity = minCapacity;
+        this.bloomFilter = new BloomFilter(minCapacity, BLOOM_FPP);
+    }
+
+    /**
+     * 用户名是否一定未被占用（索引未就绪时返回 false，由调用方查询数据库）
+     *
+     * @param username 用户名
+     * @return boolean 是否一定未被占用
+     */
+    public boolean isUsernameDefinitelyFree(String username) {
+        return ready && !bloomFilter.mightContain(key(USERNAME_PREFIX, username));
+    }
+
+    /**
+     * 邮箱是否一定未被占用（索引未就绪时返回 false，由调用方查询数据库）
+     *
+     * @param email 邮箱
+     * @return boolean 是否一定未被占用
+     */
+    public boolean isEmailDefinitelyFree(String email) {
+        return ready && !bloomFilter.mightContain(key(EMAIL_PREFIX, email));
+    }
+
+    /**
+     * 记录新占用的用户名和/或邮箱，并广播给其他节点
+     *
+     * @param username 用户名，可为 null
+     * @param email    邮箱，可为 null
+     */
+    public void add(String username, String email) {
+        StringBuilder message = new StringBuilder();
+        if (username != null) {
+            String key = key(USERNAME_PREFIX, username);
+            addLocal(key);
+            message.append(key);
+        }
+        if (email != null) {
+            String key = key(EMAIL_PREFIX, email);
+            addLocal(key);
+            message.append(message.length() > 0 ? "\n" : "").append(key);
+        }
+        if (message.length() == 0) {
+            return;
+        }
+        try {
+            redisTemplate.convertAndSend(CHANNEL, message.toString());
+        } catch (Exception e) {
+            // 其他节点最晚在下次重建时追上；在此之前唯一约束兜底
+            logger.warn("Failed to broadcast new user identity: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        for (String key : body.split("\n")) {
+            if (key.startsWith(USERNAME_PREFIX) || key.startsWith(EMAIL_PREFIX)) {
+                addLocal(key);
+            }
+        }
+    }
+
+    /**
+     * 流式扫描全表重建索引，同时按当前数据量重新确定容量
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${app.security.identity-index.rebuild-interval-ms:21600000}")
+    public void rebuild() {
+        try {
+            long rows = userMapper.selectCount(null);
+            long newCapacity = Math.max(minCapacity, rows * 4); // 每行两个键，预留一倍增长空间
+            BloomFilter newBloomFilter = new BloomFilter(newCapacity, BLOOM_FPP);
+            AtomicLong scanned = new AtomicLong();
+            synchronized (lock) {
+                this.building = newBloomFilter;
+            }
+            userMapper.scanIdentities(context -> {
+                newBloomFilter.put(key(USERNAME_PREFIX, context.getResultObject().getUsername()));
+                newBloomFilter.put(key(EMAIL_PREFIX, context.getResultObject().getEmail()));
+                scanned.addAndGet(2);
+            });
+            synchronized (lock) {
+                this.bloomFilter = newBloomFilter;
+                this.building = null;
+                this.capacity = newCapacity;
+                this.insertions.set(scanned.get());
+                this.ready = true;
+            }
+            logger.debug("User identity index rebuilt, {} keys", scanned.get());
+        } catch (Exception e) {
+            synchronized (lock) {
+                this.building = null;
+            }
+            logger.warn("Failed to rebuild user identity index, keeping the current one: {}", e.getMessage());
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.identity-index.keys", insertions, AtomicLong::get)
+                .description("Keys inserted into the username/email bloom filter")
+                .register(registry);
+        Gauge.builder("user.identity-index.capacity", this, index -> index.capacity)
+                .description("Sized capacity of the username/email bloom filter")
+                .register(registry);
+    }
+
+    private void addLocal(String key) {
+        synchronized (lock) {
+            // 重建期间的新增同时写入新旧两个过滤器，切换时不会丢失
+            bloomFilter.put(key);
+            BloomFilter pending = building;
+            if (pending != null) {
+                pending.put(key);
+            }
+        }
+        insertions.incrementAndGet();
+    }
+
+    private static String key(String prefix, String value) {
+        return prefix + value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,126 @@
+package com.costinsight.user.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签 Token 的进程内缓存
+ * <p>
+ * 同一个 Token 在有效期内会被反复携带，命中缓存时可以跳过 HS512 验签和载荷解析。
+ * Key 为 Token 的 SHA-256 摘要，条目最晚在 Token 的 exp 时刻失效。
+ * 缓存只保存"签名有效"这一事实，黑名单检查仍由调用方在每次请求时执行。
+ */
+@Component
+public class VerifiedTokenCache implements MeterBinder {
+
+    // 每次调用克隆一个原型实例，不使用 ThreadLocal：虚拟线程数量不受限，ThreadLocal 缓存会随线程数膨胀
+    private static final MessageDigest SHA256 = newSha256();
+
+    private final Cache<String, TokenClaims> cache;
+
+    public VerifiedTokenCache(@Value("${app.jwt.verified-cache.max-size:100000}") long maxSize,
+                              @Value("${app.jwt.verified-cache.max-ttl-ms:600000}") long maxTtlMs) {
+        long maxTtlNanos = TimeUnit.MILLISECONDS.toNanos(maxTtlMs);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new Expiry<String, TokenClaims>() {
+                    @Override
+                    public long expireAfterCreate(String key, TokenClaims value, long currentTime) {
+                        long remainingMs = value.getExpiration() - System.currentTimeMillis();
+                        return Math.max(0L, Math.min(maxTtlNanos, TimeUnit.MILLISECONDS.toNanos(remainingMs)));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, TokenClaims value, long currentTime, long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, TokenClaims value, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * 查询已验签的 Token
+     *
+     * @param token JWT Token
+     * @return TokenClaims，未命中或已过期时返回 null
+     */
+    public TokenClaims get(String token) {
+        TokenClaims claims = cache.getIfPresent(digest(token));
+        if (claims != null && claims.isExpired(System.currentTimeMillis())) {
+            // Caffeine 的过期清理存在时间粒度，这里再兜底一次
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 记录一个已通过验签的 Token
+     *
+     * @param token  JWT Token
+     * @param claims 验签后得到的载荷视图
+     */
+    public void put(String token, TokenClaims claims) {
+        cache.put(digest(token), claims);
+    }
+
+    /**
+     * 移除一个 Token（如登出时）
+     *
+     * @param token JWT Token
+     */
+    public void invalidate(String token) {
+        cache.invalidate(digest(token));
+    }
+
+    public long getHitCount() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMissCount() {
+        return cache.stats().missCount();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "jwt.verified-token");
+    }
+
+    private static String digest(String token) {
+        byte[] hash = sha256().digest(token.getBytes(StandardCharsets.UTF_8));
+        return Base64.getEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return (MessageDigest) SHA256.clone();
+        } catch (CloneNotSupportedException e) {
+            return newSha256();
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
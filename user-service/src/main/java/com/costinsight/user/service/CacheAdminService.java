@@ -0,0 +1,79 @@
+package com.costinsight.user.service;
+
+import com.costinsight.user.dto.CacheEntryInfo;
+import com.costinsight.user.dto.CacheSummary;
+import com.costinsight.user.dto.HotKeyInfo;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+public interface CacheAdminService {
+
+    /**
+     * 列出所有缓存的生效策略与本节点统计
+     *
+     * @return List<CacheSummary> 缓存列表
+     */
+    List<CacheSummary> listCaches();
+
+    /**
+     * 查看单个条目在 L1 与 Redis 中的状态，不会回填 L1
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存键
+     * @return CacheEntryInfo 条目状态
+     * @throws NoSuchElementException 如果缓存不存在
+     */
+    CacheEntryInfo inspect(String cacheName, String key);
+
+    /**
+     * 驱逐单个条目（Redis 与所有节点的 L1）
+     *
+     * @param cacheName 缓存名
+     * @param key       缓存键
+     * @throws NoSuchElementException 如果缓存不存在
+     */
+    void evict(String cacheName, String key);
+
+    /**
+     * 清空整个缓存（Redis 中通过 SCAN 删除，所有节点的 L1 同时清空）
+     *
+     * @param cacheName 缓存名
+     * @throws NoSuchElementException 如果缓存不存在
+     */
+    void clear(String cacheName);
+
+    /**
+     * 按批从数据库加载指定的条目写入缓存，Redis 中已有的条目保持不变
+     * <p>
+     * user 与 user-response 缓存同一批用户，预加载其中任何一个都会同时写入两者。
+     *
+     * @param cacheName 缓存名
+     * @param keys      缓存键
+     * @return int 写入或已缓存的条目数（不存在的键不计）
+     * @throws NoSuchElementException   如果缓存不存在
+     * @throws IllegalArgumentException 如果该缓存不支持预加载或键格式错误
+     */
+    int preload(String cacheName, List<String> keys);
+
+    /**
+     * 按持久化的热点集合从高到低预热缓存
+     * <p>
+     * 对 user / user-response 按 user-response 的热度排序（不足 limit 时用 user 的热点补齐），同时预热两个缓存。
+     *
+     * @param cacheName 缓存名
+     * @param limit     最多预热的键数
+     * @return int 写入或已缓存的条目数
+     * @throws NoSuchElementException   如果缓存不存在
+     * @throws IllegalArgumentException 如果该缓存不支持预热或 limit 非正数
+     */
+    int warmUp(String cacheName, int limit);
+
+    /**
+     * 本节点上一个检测窗口中各来源（缓存名、jwt:blacklist）的热点候选键
+     *
+     * @return Map<String, List<HotKeyInfo>> 来源到按读取次数降序排列的候选键
+     */
+    Map<String, List<HotKeyInfo>> hotKeys();
+}
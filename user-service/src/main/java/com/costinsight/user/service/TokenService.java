@@ -0,0 +1,17 @@
+package com.costinsight.user.service;
+
+import com.costinsight.user.dto.TokenValidationResult;
+
+import java.util.List;
+
+public interface TokenService {
+
+    /**
+     * 批量验证 Token
+     *
+     * @param tokens 待验证的 JWT 列表
+     * @return 与输入顺序一致的验证结果
+     * @throws IllegalArgumentException 如果数量超过单次批量上限
+     */
+    List<TokenValidationResult> validateBatch(List<String> tokens);
+}
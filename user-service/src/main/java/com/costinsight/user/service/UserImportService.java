@@ -0,0 +1,30 @@
+package com.costinsight.user.service;
+
+import com.costinsight.user.dto.UserImportResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface UserImportService {
+
+    /**
+     * 导入格式
+     */
+    enum Format {
+        CSV, NDJSON
+    }
+
+    /**
+     * 流式批量导入用户
+     * <p>
+     * 逐块读取输入：每块一次校验、一次唯一性查询、并行计算密码哈希、一次 JDBC 批量插入。
+     * 单行失败不影响其他行，结果按输入顺序逐行返回。
+     *
+     * @param input  CSV（表头 username,email,password）或 NDJSON
+     * @param format 输入格式
+     * @return UserImportResult 导入结果
+     * @throws IOException              如果读取输入失败
+     * @throws IllegalArgumentException 如果输入格式错误或行数超出上限
+     */
+    UserImportResult importUsers(InputStream input, Format format) throws IOException;
+}
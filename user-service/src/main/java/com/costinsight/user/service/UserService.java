@@ -4,6 +4,8 @@ import com.baomidou.mybatisplus.extension.service.IService;
 import com.costinsight.user.dto.*;
 import com.costinsight.user.entity.User;
 
+import java.util.List;
+
 public interface UserService extends IService<User> {
 
     /**
@@ -14,6 +16,15 @@ public interface UserService extends IService<User> {
      */
     UserResponseVO register(RegisterRequest registerRequest);
 
+    /**
+     * 检查用户名和/或邮箱是否可用于注册
+     *
+     * @param username 用户名，可为 null
+     * @param email    邮箱，可为 null
+     * @return AvailabilityResponse 仅包含所提供字段的检查结果
+     */
+    AvailabilityResponse checkAvailability(String username, String email);
+
     /**
      * 用户登录
      *
@@ -30,12 +41,24 @@ public interface UserService extends IService<User> {
      */
     User findByUsername(String username);
 
+    /**
+     * 使用刷新令牌换取新的访问令牌，刷新令牌同时轮换
+     *
+     * @param refreshToken 刷新令牌
+     * @return JwtResponse 新的访问令牌和刷新令牌
+     * @throws IllegalArgumentException 如果刷新令牌无效、已使用或用户不存在
+     */
+    JwtResponse refresh(String refreshToken);
+
     /**
      * 用户登出
+     * <p>
+     * 提供刷新令牌时吊销该刷新令牌，访问令牌在短有效期内自然过期；否则将访问令牌加入黑名单。
      *
-     * @param token 待失效的 JWT
+     * @param token        当前访问令牌
+     * @param refreshToken 刷新令牌，可以为 null
      */
-    void logout(String token);
+    void logout(String token, String refreshToken);
 
     /**
      * 根据ID安全地查找用户信息
@@ -45,6 +68,31 @@ public interface UserService extends IService<User> {
      */
     UserResponseVO findUserById(Long id);
 
+    /**
+     * 获取 GET /api/users/{id} 成功响应的完整 JSON（含 code/message/data），结果以字节形式缓存
+     *
+     * @param id 用户ID
+     * @return byte[] 序列化后的响应体，用户不存在时返回 null
+     */
+    byte[] findUserResponseBody(Long id);
+
+    /**
+     * 批量查找用户：缓存命中通过一次 MGET 读取，未命中的用户通过一次 IN 查询加载并在一个管道内写回缓存
+     *
+     * @param ids 用户ID列表，重复的ID只返回一次
+     * @return List<UserResponseVO> 按请求顺序排列的用户，不存在或已删除的用户不在结果中
+     * @throws IllegalArgumentException 如果ID数量超出上限
+     */
+    List<UserResponseVO> findUsersByIds(List<Long> ids);
+
+    /**
+     * 按批从数据库加载用户并写入 user 缓存及 user-response 缓存，Redis 中已有的条目保持不变
+     *
+     * @param ids 用户ID列表
+     * @return int 写入或已存在于缓存中的用户数（不存在或已删除的用户不计）
+     */
+    int warmUserCache(List<Long> ids);
+
 
     /**
      * 根据ID更新用户信息
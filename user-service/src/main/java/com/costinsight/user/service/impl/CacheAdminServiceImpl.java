@@ -0,0 +1,205 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.cache.HotSetRecorder;
+import com.costinsight.user.cache.TwoLevelCache;
+import com.costinsight.user.cache.TwoLevelCacheManager;
+import com.costinsight.user.config.CacheProperties;
+import com.costinsight.user.dto.CacheEntryInfo;
+import com.costinsight.user.dto.CacheSummary;
+import com.costinsight.user.dto.HotKeyInfo;
+import com.costinsight.user.service.CacheAdminService;
+import com.costinsight.user.service.UserService;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+@Service
+public class CacheAdminServiceImpl implements CacheAdminService {
+
+    private static final String USER_CACHE = "user";
+    private static final String USER_RESPONSE_CACHE = "user-response";
+
+    private final TwoLevelCacheManager cacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final UserService userService;
+    private final HotSetRecorder hotSetRecorder;
+    private final HotKeyDetector hotKeyDetector;
+
+    public CacheAdminServiceImpl(TwoLevelCacheManager cacheManager, StringRedisTemplate redisTemplate,
+                                 UserService userService, HotSetRecorder hotSetRecorder,
+                                 HotKeyDetector hotKeyDetector) {
+        this.cacheManager = cacheManager;
+        this.redisTemplate = redisTemplate;
+        this.userService = userService;
+        this.hotSetRecorder = hotSetRecorder;
+        this.hotKeyDetector = hotKeyDetector;
+    }
+
+    @Override
+    public List<CacheSummary> listCaches() {
+        List<CacheSummary> summaries = new ArrayList<>();
+        for (String name : cacheManager.getCacheNames()) {
+            summaries.add(summarize(name, cacheManager.getCache(name)));
+        }
+        return summaries;
+    }
+
+    @Override
+    public CacheEntryInfo inspect(String cacheName, String key) {
+        Cache cache = requireCache(cacheName);
+        CacheEntryInfo info = new CacheEntryInfo();
+        info.setCache(cacheName);
+        info.setKey(key);
+        info.setRedisKey(cacheManager.redisKey(cacheName, key));
+
+        Cache.ValueWrapper local = null;
+        Cache.ValueWrapper remote;
+        if (cache instanceof TwoLevelCache twoLevel) {
+            local = twoLevel.peekLocal(key);
+            remote = twoLevel.peekRemote(key);
+        } else {
+            remote = cache.get(key);
+        }
+        info.setInLocal(local != null);
+        info.setInRemote(remote != null);
+        if (local != null) {
+            info.setValue(local.get());
+        } else if (remote != null) {
+            info.setValue(remote.get());
+        }
+        if (remote != null) {
+            Long ttl = redisTemplate.getExpire(info.getRedisKey(), TimeUnit.MILLISECONDS);
+            info.setRemoteTtlMs(ttl != null && ttl >= 0 ? ttl : null);
+            info.setRemoteSizeBytes(redisTemplate.opsForValue().size(info.getRedisKey()));
+        }
+        return info;
+    }
+
+    @Override
+    public void evict(String cacheName, String key) {
+        requireCache(cacheName).evict(key);
+    }
+
+    @Override
+    public void clear(String cacheName) {
+        requireCache(cacheName).clear();
+    }
+
+    @Override
+    public int preload(String cacheName, List<String> keys) {
+        requireWarmable(cacheName);
+        List<Long> ids = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            try {
+                ids.add(Long.parseLong(key));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid user id: " + key);
+            }
+        }
+        return userService.warmUserCache(ids);
+    }
+
+    @Override
+    public int warmUp(String cacheName, int limit) {
+        requireWarmable(cacheName);
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Limit must be positive");
+        }
+        // GET /api/users/{id} 只读 user-response，user 只看到它的未命中，因此以 user-response 的热度为主，
+        // 再补上只经由 user 缓存读取（批量查询等）的热点键
+        Set<String> keys = new LinkedHashSet<>(hotSetRecorder.topKeys(USER_RESPONSE_CACHE, limit));
+        for (String key : hotSetRecorder.topKeys(USER_CACHE, limit)) {
+            if (keys.size() >= limit) {
+                break;
+            }
+            keys.add(key);
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String key : keys) {
+            try {
+                ids.add(Long.parseLong(key));
+            } catch (NumberFormatException e) {
+                // 快照中的非法键直接跳过，不影响其余条目
+            }
+        }
+        return userService.warmUserCache(ids);
+    }
+
+    @Override
+    public Map<String, List<HotKeyInfo>> hotKeys() {
+        Map<String, List<HotKeyInfo>> result = new TreeMap<>();
+        hotKeyDetector.snapshot().forEach((source, candidates) -> {
+            List<HotKeyInfo> infos = new ArrayList<>(candidates.size());
+            for (HotKeyDetector.HotKey candidate : candidates) {
+                HotKeyInfo info = new HotKeyInfo();
+                info.setKey(candidate.key());
+                info.setCount(candidate.count());
+                info.setError(candidate.error());
+                info.setRatePerSecond(candidate.ratePerSecond());
+                info.setHot(candidate.hot());
+                infos.add(info);
+            }
+            result.put(source, infos);
+        });
+        return result;
+    }
+
+    private void requireWarmable(String cacheName) {
+        requireCache(cacheName);
+        if (!USER_CACHE.equals(cacheName) && !USER_RESPONSE_CACHE.equals(cacheName)) {
+            throw new IllegalArgumentException("Cache '" + cacheName + "' does not support preloading");
+        }
+    }
+
+    private Cache requireCache(String cacheName) {
+        // RedisCacheManager 会按需创建任意名字的缓存，这里只允许已存在的缓存
+        if (!cacheManager.getCacheNames().contains(cacheName)) {
+            throw new NoSuchElementException("Unknown cache: " + cacheName);
+        }
+        return cacheManager.getCache(cacheName);
+    }
+
+    private CacheSummary summarize(String name, Cache cache) {
+        CacheProperties.Policy policy = cacheManager.getPolicy(name);
+        CacheSummary summary = new CacheSummary();
+        summary.setName(name);
+        summary.setTtlMs(policy.getTtlMs());
+        summary.setCacheNullValues(policy.getCacheNullValues());
+        summary.setRedisKeyPrefix(cacheManager.redisKey(name, ""));
+        summary.setLocalMaxSize(policy.getMaxSize());
+        summary.setLocalTtlMs(policy.getLocalTtlMs());
+
+        Cache remote = cache;
+        if (cache instanceof TwoLevelCache twoLevel) {
+            CacheStats stats = twoLevel.localStats();
+            summary.setLocalSize(twoLevel.localSize());
+            summary.setLocalHits(stats.hitCount());
+            summary.setLocalMisses(stats.missCount());
+            summary.setLocalEvictions(stats.evictionCount());
+            summary.setLoads(twoLevel.getLoadCount());
+            summary.setAverageLoadMillis(twoLevel.getLoadMillis());
+            remote = twoLevel.getRemote();
+        }
+        if (remote instanceof RedisCache redisCache) {
+            CacheStatistics statistics = redisCache.getStatistics();
+            summary.setRemoteHits(statistics.getHits());
+            summary.setRemoteMisses(statistics.getMisses());
+            summary.setRemotePuts(statistics.getPuts());
+            summary.setRemoteDeletes(statistics.getDeletes());
+        }
+        return summary;
+    }
+}
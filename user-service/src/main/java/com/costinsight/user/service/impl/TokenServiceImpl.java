@@ -0,0 +1,101 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.dto.TokenValidationResult;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
+import com.costinsight.user.service.TokenService;
+import com.costinsight.user.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.IntStream;
+
+@Service
+public class TokenServiceImpl implements TokenService {
+
+    // 少量 Token 时并行调度的开销大于验签本身
+    private static final int PARALLEL_THRESHOLD = 32;
+
+    private final JwtUtil jwtUtil;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final int maxBatchSize;
+
+    @Autowired
+    public TokenServiceImpl(JwtUtil jwtUtil, TokenRevocationRegistry tokenRevocationRegistry,
+                            VerifiedTokenCache verifiedTokenCache,
+                            @Value("${app.jwt.validate-batch.max-size:500}") int maxBatchSize) {
+        this.jwtUtil = jwtUtil;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    @Override
+    public List<TokenValidationResult> validateBatch(List<String> tokens) {
+        if (tokens.size() > maxBatchSize) {
+            throw new IllegalArgumentException("At most " + maxBatchSize + " tokens can be validated per request");
+        }
+
+        // 1. 验签（CPU 密集，批量较大时并行）
+        TokenValidationResult[] results = new TokenValidationResult[tokens.size()];
+        TokenClaims[] verified = new TokenClaims[tokens.size()];
+        IntStream indexes = IntStream.range(0, tokens.size());
+        if (tokens.size() >= PARALLEL_THRESHOLD) {
+            indexes = indexes.parallel();
+        }
+        indexes.forEach(i -> {
+            try {
+                TokenClaims claims = verify(tokens.get(i));
+                // 在单个 Token 的 try 内解析用户ID：主题不是数字的 Token（如服务 Token）只判为无效，不影响整批
+                results[i] = TokenValidationResult.valid(claims);
+                verified[i] = claims;
+            } catch (ExpiredJwtException e) {
+                results[i] = TokenValidationResult.failed(TokenValidationResult.Status.EXPIRED, "Token has expired");
+            } catch (NumberFormatException e) {
+                results[i] = TokenValidationResult.failed(TokenValidationResult.Status.INVALID, "Token subject is not a user ID");
+            } catch (JwtException | IllegalArgumentException e) {
+                results[i] = TokenValidationResult.failed(TokenValidationResult.Status.INVALID, "Invalid token: " + e.getMessage());
+            }
+        });
+
+        // 2. 一次性检查所有签名有效的 Token 是否已被吊销（JTI 黑名单及用户纪元）
+        List<TokenClaims> valid = new ArrayList<>();
+        for (TokenClaims claims : verified) {
+            if (claims != null) {
+                valid.add(claims);
+            }
+        }
+        boolean[] revoked = tokenRevocationRegistry.areRevoked(valid);
+
+        int next = 0;
+        for (int i = 0; i < verified.length; i++) {
+            if (verified[i] == null) {
+                continue;
+            }
+            if (revoked[next++]) {
+                results[i] = TokenValidationResult.failed(TokenValidationResult.Status.REVOKED, "Token has been blacklisted and cannot be used.");
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    private TokenClaims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("Token cannot be blank");
+        }
+        TokenClaims claims = verifiedTokenCache.get(token);
+        if (claims == null) {
+            claims = jwtUtil.verifyToken(token);
+            verifiedTokenCache.put(token, claims);
+        }
+        return claims;
+    }
+}
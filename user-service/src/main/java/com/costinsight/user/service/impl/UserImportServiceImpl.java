@@ -0,0 +1,335 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.constant.RoleConstants;
+import com.costinsight.user.dto.UserImportResult;
+import com.costinsight.user.dto.UserImportResult.RowResult;
+import com.costinsight.user.dto.UserImportRow;
+import com.costinsight.user.entity.User;
+import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.security.UnknownIdentifierCache;
+import com.costinsight.user.security.UserIdentityIndex;
+import com.costinsight.user.service.UserImportService;
+import com.costinsight.user.service.UserService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+@Service
+public class UserImportServiceImpl implements UserImportService, DisposableBean {
+
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final BCryptPasswordEncoder passwordEncoder;
+    private final UserIdentityIndex userIdentityIndex;
+    private final UnknownIdentifierCache unknownIdentifierCache;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+    private final int maxRows;
+
+    // 独立的哈希线程池：并行度默认为 CPU 核数的一半，给登录隔离舱留出余量
+    private final ForkJoinPool hashPool;
+
+    @Autowired
+    public UserImportServiceImpl(UserService userService, UserMapper userMapper,
+                                 BCryptPasswordEncoder passwordEncoder, UserIdentityIndex userIdentityIndex,
+                                 UnknownIdentifierCache unknownIdentifierCache, Validator validator,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.user-import.chunk-size:500}") int chunkSize,
+                                 @Value("${app.user-import.max-rows:100000}") int maxRows,
+                                 @Value("${app.user-import.hash-parallelism:0}") int hashParallelism) {
+        this.userService = userService;
+        this.userMapper = userMapper;
+        this.passwordEncoder = passwordEncoder;
+        this.userIdentityIndex = userIdentityIndex;
+        this.unknownIdentifierCache = unknownIdentifierCache;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+        this.maxRows = maxRows;
+        int parallelism = hashParallelism > 0 ? hashParallelism
+                : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        this.hashPool = new ForkJoinPool(parallelism);
+    }
+
+    @Override
+    public UserImportResult importUsers(InputStream input, Format format) throws IOException {
+        long start = System.currentTimeMillis();
+        UserImportResult result = new UserImportResult();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            RowParser parser = format == Format.CSV ? new CsvRowParser(reader.readLine()) : this::parseJson;
+            int lineNumber = format == Format.CSV ? 1 : 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (result.getTotal() >= maxRows) {
+                    throw new IllegalArgumentException("Import exceeds the limit of " + maxRows + " rows; rows up to line "
+                            + (lineNumber - 1) + " were processed");
+                }
+                result.setTotal(result.getTotal() + 1);
+                chunk.add(parser.parse(lineNumber, line));
+                if (chunk.size() >= chunkSize) {
+                    processChunk(chunk, seenUsernames, seenEmails, result);
+                    chunk.clear();
+                }
+            }
+            processChunk(chunk, seenUsernames, seenEmails, result);
+        }
+
+        result.setFailed(result.getTotal() - result.getCreated());
+        result.setElapsedMs(System.currentTimeMillis() - start);
+        return result;
+    }
+
+    private void processChunk(List<ParsedRow> chunk, Set<String> seenUsernames, Set<String> seenEmails,
+                              UserImportResult result) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        RowResult[] rowResults = new RowResult[chunk.size()];
+
+        // 1. 校验格式，并排除本次导入内部的重复
+        List<Integer> candidates = new ArrayList<>(chunk.size());
+        for (int i = 0; i < chunk.size(); i++) {
+            ParsedRow parsed = chunk.get(i);
+            String error = parsed.error != null ? parsed.error : validate(parsed.row);
+            if (error != null) {
+                rowResults[i] = RowResult.failed(parsed.line, usernameOf(parsed), UserImportResult.Status.INVALID, error);
+            } else if (!seenUsernames.add(normalize(parsed.row.getUsername()))) {
+                rowResults[i] = RowResult.failed(parsed.line, parsed.row.getUsername(),
+                        UserImportResult.Status.DUPLICATE, "Duplicate username in import");
+            } else if (!seenEmails.add(normalize(parsed.row.getEmail()))) {
+                rowResults[i] = RowResult.failed(parsed.line, parsed.row.getUsername(),
+                        UserImportResult.Status.DUPLICATE, "Duplicate email in import");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        // 2. 一次查询排除已占用的用户名/邮箱（存在性索引确认一定未占用的不参与查询）
+        Set<String> takenUsernames = new HashSet<>();
+        Set<String> takenEmails = new HashSet<>();
+        List<String> usernamesToCheck = new ArrayList<>();
+        List<String> emailsToCheck = new ArrayList<>();
+        for (int i : candidates) {
+            UserImportRow row = chunk.get(i).row;
+            if (!userIdentityIndex.isUsernameDefinitelyFree(row.getUsername())) {
+                usernamesToCheck.add(row.getUsername());
+            }
+            if (!userIdentityIndex.isEmailDefinitelyFree(row.getEmail())) {
+                emailsToCheck.add(row.getEmail());
+            }
+        }
+        if (!usernamesToCheck.isEmpty() || !emailsToCheck.isEmpty()) {
+            for (User taken : userMapper.selectTakenIdentities(usernamesToCheck, emailsToCheck)) {
+                takenUsernames.add(normalize(taken.getUsername()));
+                takenEmails.add(normalize(taken.getEmail()));
+            }
+        }
+        List<Integer> toInsert = new ArrayList<>(candidates.size());
+        for (int i : candidates) {
+            UserImportRow row = chunk.get(i).row;
+            if (takenUsernames.contains(normalize(row.getUsername()))) {
+                rowResults[i] = RowResult.failed(chunk.get(i).line, row.getUsername(),
+                        UserImportResult.Status.DUPLICATE, "Username already exists");
+            } else if (takenEmails.contains(normalize(row.getEmail()))) {
+                rowResults[i] = RowResult.failed(chunk.get(i).line, row.getUsername(),
+                        UserImportResult.Status.DUPLICATE, "Email already exists");
+            } else {
+                toInsert.add(i);
+            }
+        }
+
+        // 3. 并行计算密码哈希
+        List<User> users = hashPool.invoke(ForkJoinTask.adapt(() -> toInsert.parallelStream()
+                .map(i -> toUser(chunk.get(i).row))
+                .toList()));
+
+        // 4. JDBC 批量插入；并发注册导致唯一约束冲突时整块回滚，退化为逐行插入以给出逐行结果
+        boolean[] inserted = new boolean[users.size()];
+        try {
+            userService.saveBatch(users, chunkSize);
+            Arrays.fill(inserted, true);
+        } catch (DuplicateKeyException e) {
+            for (int k = 0; k < users.size(); k++) {
+                User user = users.get(k);
+                user.setId(null);
+                try {
+                    userMapper.insert(user);
+                    inserted[k] = true;
+                } catch (DuplicateKeyException duplicate) {
+                    int i = toInsert.get(k);
+                    rowResults[i] = RowResult.failed(chunk.get(i).line, user.getUsername(),
+                            UserImportResult.Status.DUPLICATE, "Username or email already exists");
+                }
+            }
+        }
+        for (int k = 0; k < users.size(); k++) {
+            if (!inserted[k]) {
+                continue;
+            }
+            User user = users.get(k);
+            int i = toInsert.get(k);
+            rowResults[i] = RowResult.created(chunk.get(i).line, user.getUsername(), user.getId());
+            userIdentityIndex.add(user.getUsername(), user.getEmail());
+            unknownIdentifierCache.forget(user.getUsername(), user.getEmail());
+            result.setCreated(result.getCreated() + 1);
+        }
+
+        result.getRows().addAll(List.of(rowResults));
+    }
+
+    private User toUser(UserImportRow row) {
+        User user = new User();
+        user.setUsername(row.getUsername());
+        user.setEmail(row.getEmail());
+        user.setRole(RoleConstants.ROLE_USER);
+        user.setPassword(passwordEncoder.encode(row.getPassword()));
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+        user.setDeleted(0);
+        return user;
+    }
+
+    private String validate(UserImportRow row) {
+        Set<ConstraintViolation<UserImportRow>> violations = validator.validate(row);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        // 按字段名排序，保证同一行的错误信息稳定
+        return violations.stream()
+                .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+                .map(ConstraintViolation::getMessage)
+                .orElse(null);
+    }
+
+    private ParsedRow parseJson(int line, String json) {
+        try {
+            return new ParsedRow(line, objectMapper.readValue(json, UserImportRow.class), null);
+        } catch (JsonProcessingException e) {
+            return new ParsedRow(line, null, "Malformed JSON");
+        }
+    }
+
+    private static String usernameOf(ParsedRow parsed) {
+        return parsed.row != null ? parsed.row.getUsername() : null;
+    }
+
+    private static String normalize(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void destroy() {
+        hashPool.shutdown();
+    }
+
+    private record ParsedRow(int line, UserImportRow row, String error) {
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ParsedRow parse(int line, String text);
+    }
+
+    /**
+     * 最小 CSV 解析：按表头定位列，支持双引号包裹的字段和 "" 转义
+     */
+    private static final class CsvRowParser implements RowParser {
+
+        private final int usernameColumn;
+        private final int emailColumn;
+        private final int passwordColumn;
+
+        CsvRowParser(String header) {
+            if (header == null) {
+                throw new IllegalArgumentException("CSV header is missing");
+            }
+            Map<String, Integer> columns = new HashMap<>();
+            List<String> names = split(header);
+            for (int i = 0; i < names.size(); i++) {
+                columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+            if (!columns.containsKey("username") || !columns.containsKey("email") || !columns.containsKey("password")) {
+                throw new IllegalArgumentException("CSV header must contain username, email and password");
+            }
+            this.usernameColumn = columns.get("username");
+            this.emailColumn = columns.get("email");
+            this.passwordColumn = columns.get("password");
+        }
+
+        @Override
+        public ParsedRow parse(int line, String text) {
+            List<String> fields = split(text);
+            int required = Math.max(usernameColumn, Math.max(emailColumn, passwordColumn));
+            if (fields.size() <= required) {
+                return new ParsedRow(line, null, "Expected at least " + (required + 1) + " columns");
+            }
+            UserImportRow row = new UserImportRow();
+            row.setUsername(fields.get(usernameColumn).trim());
+            row.setEmail(fields.get(emailColumn).trim());
+            row.setPassword(fields.get(passwordColumn));
+            return new ParsedRow(line, row, null);
+        }
+
+        static List<String> split(String text) {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        field.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
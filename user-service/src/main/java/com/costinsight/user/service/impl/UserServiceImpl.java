@@ -2,43 +2,85 @@ package com.costinsight.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.costinsight.user.cache.TwoLevelCache;
 import com.costinsight.user.constant.RoleConstants;
 import com.costinsight.user.dto.*;
 import com.costinsight.user.entity.User;
+import com.costinsight.user.exception.ServiceBusyException;
 import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.security.PasswordHasher;
+import com.costinsight.user.security.RefreshTokenStore;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.UnknownIdentifierCache;
+import com.costinsight.user.security.UserIdentityIndex;
+import com.costinsight.user.security.VerifiedTokenCache;
 import com.costinsight.user.service.UserService;
 import com.costinsight.user.util.JwtUtil;
+import com.costinsight.user.util.ResponseStatus;
+import com.costinsight.user.util.ResponseUtil;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.data.redis.core.StringRedisTemplate;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.concurrent.TimeUnit;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 
 @Service
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
-    private final BCryptPasswordEncoder passwordEncoder;
+    private static final int WARM_BATCH_SIZE = 500; // 预热时每条 IN 查询的最大ID数
+
+    private final PasswordHasher passwordHasher;
     private final UserMapper userMapper;
     private final JwtUtil jwtUtil;
-    private final StringRedisTemplate redisTemplate;
+    private final TokenRevocationRegistry tokenRevocationRegistry;
+    private final VerifiedTokenCache verifiedTokenCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UnknownIdentifierCache unknownIdentifierCache;
+    private final UserIdentityIndex userIdentityIndex;
+    private final CacheManager cacheManager;
+    private final ObjectMapper objectMapper;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs; // JWT 过期时间 (毫秒)
 
+    @Value("${app.jwt.logout.blacklist-access-token:false}")
+    private boolean blacklistAccessTokenOnLogout; // 登出时是否同时将访问令牌加入黑名单
+
+    @Value("${app.user.batch-lookup.max-size:500}")
+    private int maxBatchLookupSize; // GET /api/users?ids= 单次最多查询的用户数
+
     @Autowired
-    public UserServiceImpl(BCryptPasswordEncoder passwordEncoder, UserMapper userMapper, JwtUtil jwtUtil, StringRedisTemplate redisTemplate) {
-        this.passwordEncoder = passwordEncoder;
+    public UserServiceImpl(PasswordHasher passwordHasher, UserMapper userMapper, JwtUtil jwtUtil,
+                           TokenRevocationRegistry tokenRevocationRegistry, VerifiedTokenCache verifiedTokenCache,
+                           RefreshTokenStore refreshTokenStore, UnknownIdentifierCache unknownIdentifierCache,
+                           UserIdentityIndex userIdentityIndex, CacheManager cacheManager,
+                           ObjectMapper objectMapper) {
+        this.passwordHasher = passwordHasher;
         this.userMapper = userMapper;
         this.jwtUtil = jwtUtil;
-        this.redisTemplate = redisTemplate;
+        this.tokenRevocationRegistry = tokenRevocationRegistry;
+        this.verifiedTokenCache = verifiedTokenCache;
+        this.refreshTokenStore = refreshTokenStore;
+        this.unknownIdentifierCache = unknownIdentifierCache;
+        this.userIdentityIndex = userIdentityIndex;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
     }
 
     @Override
@@ -48,12 +90,14 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             throw new IllegalArgumentException("Passwords do not match");
         }
 
-        // 2. 检查用户名和邮箱是否已存在
-        if (userMapper.selectOne(
+        // 2. 检查用户名和邮箱是否已存在（索引确认一定未占用时跳过数据库查询）
+        if (!userIdentityIndex.isUsernameDefinitelyFree(registerRequest.getUsername())
+                && userMapper.selectOne(
                 new QueryWrapper<User>().eq("username", registerRequest.getUsername()).eq("deleted", 0)) != null) {
             throw new IllegalArgumentException("Username already exists");
         }
-        if (userMapper
+        if (!userIdentityIndex.isEmailDefinitelyFree(registerRequest.getEmail())
+                && userMapper
                 .selectOne(new QueryWrapper<User>().eq("email", registerRequest.getEmail()).eq("deleted", 0)) != null) {
             throw new IllegalArgumentException("Email already exists");
         }
@@ -64,41 +108,103 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         user.setEmail(registerRequest.getEmail());
         user.setRole(RoleConstants.ROLE_USER);
         // 4. 密码加密
-        user.setPassword(passwordEncoder.encode(registerRequest.getPassword()));
+        user.setPassword(passwordHasher.encode(registerRequest.getPassword()));
         user.setCreatedAt(LocalDateTime.now());
         user.setUpdatedAt(LocalDateTime.now());
         user.setDeleted(0); // 未删除
 
-        // 5. 保存到数据库
-        userMapper.insert(user);
+        // 5. 保存到数据库（唯一约束是最终裁决：并发注册或被逻辑删除用户占用的用户名/邮箱在这里被拦下）
+        try {
+            userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Username or email already exists");
+        }
+        userIdentityIndex.add(user.getUsername(), user.getEmail());
+        unknownIdentifierCache.forget(user.getUsername(), user.getEmail());
 
         // 6. 转换为 VO 并返回
         return convertToVO(user);
     }
 
+    @Override
+    public AvailabilityResponse checkAvailability(String username, String email) {
+        AvailabilityResponse response = new AvailabilityResponse();
+        if (username != null) {
+            response.setUsernameAvailable(userIdentityIndex.isUsernameDefinitelyFree(username)
+                    || !userMapper.existsByUsername(username));
+        }
+        if (email != null) {
+            response.setEmailAvailable(userIdentityIndex.isEmailDefinitelyFree(email)
+                    || !userMapper.existsByEmail(email));
+        }
+        return response;
+    }
+
     @Override
     public JwtResponse login(LoginRequest loginRequest) {
-        // 1. 根据用户名或邮箱查找用户
-        User user = userMapper.selectByUsername(loginRequest.getUsernameOrEmail());
-        if (user == null) {
-            user = userMapper.selectByEmail(loginRequest.getUsernameOrEmail());
+        // 1. 根据用户名或邮箱查找用户（已确认不存在的标识直接拒绝，不访问数据库）
+        String identifier = loginRequest.getUsernameOrEmail();
+        if (unknownIdentifierCache.isUnknown(identifier)) {
+            throw new IllegalArgumentException("User not found");
         }
+        User user = userMapper.selectCredentials(identifier);
 
         // 2. 校验用户是否存在且未被删除
         if (user == null || user.getDeleted() == 1) {
+            unknownIdentifierCache.markUnknown(identifier);
             throw new IllegalArgumentException("User not found");
         }
 
         // 3. 校验密码
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
+        if (!passwordHasher.matches(loginRequest.getPassword(), user.getPassword())) {
             throw new IllegalArgumentException("Invalid password");
         }
 
-        // 4. 生成 JWT Token
+        // 4. 代价因子已过时的哈希透明升级
+        rehashIfNeeded(user, loginRequest.getPassword());
+
+        // 5. 生成 JWT Token 和刷新令牌
         String token = jwtUtil.generateToken(user);
+        String refreshToken = refreshTokenStore.issue(user.getId());
+
+        // 6. 返回 JwtResponse
+        return new JwtResponse(token, jwtExpirationMs, refreshToken, refreshTokenStore.getExpirationMs());
+    }
+
+    /**
+     * 登录成功后用明文按当前代价因子重新哈希
+     * 尽力而为：隔离舱繁忙时跳过，下次登录再升级；密码已被并发修改时条件更新不生效
+     */
+    private void rehashIfNeeded(User user, String rawPassword) {
+        if (!passwordHasher.needsRehash(user.getPassword())) {
+            return;
+        }
+        try {
+            String upgraded = passwordHasher.encode(rawPassword);
+            userMapper.updatePasswordIfUnchanged(user.getId(), user.getPassword(), upgraded);
+        } catch (ServiceBusyException e) {
+            // 不因升级失败影响本次登录
+        }
+    }
 
-        // 5. 返回 JwtResponse
-        return new JwtResponse(token, jwtExpirationMs);
+    @Override
+    public JwtResponse refresh(String refreshToken) {
+        // 1. 取出并作废旧的刷新令牌（同一刷新令牌只能使用一次）
+        Long userId = refreshTokenStore.consume(refreshToken);
+        if (userId == null) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+
+        // 2. 用户可能已被删除
+        User user = userMapper.selectById(userId);
+        if (user == null || user.getDeleted() == 1) {
+            throw new IllegalArgumentException("Invalid or expired refresh token");
+        }
+
+        // 3. 签发新的访问令牌，并轮换刷新令牌
+        String token = jwtUtil.generateToken(user);
+        String newRefreshToken = refreshTokenStore.issue(userId);
+        return new JwtResponse(token, jwtExpirationMs, newRefreshToken, refreshTokenStore.getExpirationMs());
     }
 
     @Override
@@ -107,17 +213,122 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     }
 
     @Override
-    @Cacheable(cacheNames = "user", key = "#id")
+    @Cacheable(cacheNames = "user", key = "#id", sync = true)
     public UserResponseVO findUserById(Long id) {
-        User user = userMapper.selectById(id);
-        if (user == null || user.getDeleted() == 1) {
-            return null; // 或者抛出异常
+        return loadUser(id);
+    }
+
+    @Override
+    @Cacheable(cacheNames = "user-response", key = "#id", sync = true)
+    public byte[] findUserResponseBody(Long id) {
+        // 自调用不经过 @Cacheable 代理，这里直接通过 user 缓存读取，未命中时同样走单飞加载
+        Cache userCache = cacheManager.getCache("user");
+        UserResponseVO user = userCache != null ? userCache.get(id, () -> loadUser(id)) : loadUser(id);
+        return user != null ? responseBody(user) : null;
+    }
+
+    @Override
+    public List<UserResponseVO> findUsersByIds(List<Long> ids) {
+        List<Long> uniqueIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        if (uniqueIds.size() > maxBatchLookupSize) {
+            throw new IllegalArgumentException("At most " + maxBatchLookupSize + " users can be looked up per request");
         }
-        return convertToVO(user);
+        Cache cache = cacheManager.getCache("user");
+        Map<Long, UserResponseVO> resolved = new HashMap<>();
+        List<Long> misses = new ArrayList<>();
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            Map<String, Cache.ValueWrapper> hits = twoLevelCache.getAll(uniqueIds);
+            for (Long id : uniqueIds) {
+                Cache.ValueWrapper hit = hits.get(String.valueOf(id));
+                if (hit != null) {
+                    resolved.put(id, (UserResponseVO) hit.get());
+                } else {
+                    misses.add(id);
+                }
+            }
+        } else {
+            misses.addAll(uniqueIds);
+        }
+
+        if (!misses.isEmpty()) {
+            Map<Long, UserResponseVO> loaded = new HashMap<>();
+            for (User user : userMapper.selectBatchIds(misses)) {
+                if (user.getDeleted() != 1) {
+                    loaded.put(user.getId(), convertToVO(user));
+                }
+            }
+            // 与 findUserById 一致：不存在的ID同样以 null 缓存，避免反复穿透到数据库
+            Map<Long, UserResponseVO> toCache = new HashMap<>();
+            for (Long id : misses) {
+                toCache.put(id, loaded.get(id));
+            }
+            if (cache instanceof TwoLevelCache twoLevelCache) {
+                twoLevelCache.putAllIfAbsent(toCache);
+            } else if (cache != null) {
+                toCache.forEach(cache::putIfAbsent);
+            }
+            resolved.putAll(loaded);
+        }
+
+        List<UserResponseVO> users = new ArrayList<>(uniqueIds.size());
+        for (Long id : uniqueIds) {
+            UserResponseVO vo = resolved.get(id);
+            if (vo != null) {
+                users.add(vo);
+            }
+        }
+        return users;
     }
 
     @Override
-    @CachePut(cacheNames = "user", key = "#id")
+    public int warmUserCache(List<Long> ids) {
+        Cache cache = cacheManager.getCache("user");
+        // GET /api/users/{id} 读取的是 user-response，两个缓存一起预热
+        Cache responseCache = cacheManager.getCache("user-response");
+        if (cache == null || ids.isEmpty()) {
+            return 0;
+        }
+        int warmed = 0;
+        for (int from = 0; from < ids.size(); from += WARM_BATCH_SIZE) {
+            List<Long> batch = ids.subList(from, Math.min(from + WARM_BATCH_SIZE, ids.size()));
+            for (User user : userMapper.selectBatchIds(batch)) {
+                if (user.getDeleted() == 1) {
+                    continue;
+                }
+                UserResponseVO vo = convertToVO(user);
+                // 不覆盖 Redis 中已有的值，避免用可能更旧的快照覆盖并发更新
+                warm(cache, user.getId(), vo);
+                if (responseCache != null) {
+                    warm(responseCache, user.getId(), responseBody(vo));
+                }
+                warmed++;
+            }
+        }
+        return warmed;
+    }
+
+    private static void warm(Cache cache, Long id, Object value) {
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            twoLevelCache.warm(id, value);
+        } else {
+            cache.putIfAbsent(id, value);
+        }
+    }
+
+    /**
+     * 与 ResponseUtil.success 使用同一个响应体结构和 MVC 的 ObjectMapper，输出逐字节一致
+     */
+    private byte[] responseBody(UserResponseVO user) {
+        try {
+            return objectMapper.writeValueAsBytes(ResponseUtil.successBody(user, ResponseStatus.SUCCESS));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize user " + user.getId(), e);
+        }
+    }
+
+    @Override
+    @Caching(put = @CachePut(cacheNames = "user", key = "#id"),
+            evict = @CacheEvict(cacheNames = "user-response", key = "#id"))
     public UserResponseVO updateUserById(Long id, UserUpdateRequest updateRequest) {
         // 1. 根据ID查找用户
         User user = userMapper.selectById(id);
@@ -133,13 +344,20 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
 
         // 3. 如果邮箱不同，则验证新邮箱的唯一性
         //    (确保新邮箱未被其他活跃用户占用，如果已占用则抛出业务异常)
-        if (userMapper
+        if (!userIdentityIndex.isEmailDefinitelyFree(updateRequest.getEmail())
+                && userMapper
                 .selectOne(new QueryWrapper<User>().eq("email", updateRequest.getEmail()).eq("deleted", 0)) != null) {
             throw new IllegalArgumentException("Email already exists");
         }
         user.setEmail(updateRequest.getEmail());
         user.setUpdatedAt(LocalDateTime.now());
-        userMapper.updateById(user);
+        try {
+            userMapper.updateById(user);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("Email already exists");
+        }
+        userIdentityIndex.add(null, user.getEmail());
+        unknownIdentifierCache.forget(user.getEmail());
         return convertToVO(user);
     }
 
@@ -157,22 +375,25 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
             throw new IllegalArgumentException("User not found");
         }
 
-        // 3. 验证旧密码: 使用 BCryptPasswordEncoder 的 matches 方法，验证用户提交的 oldPassword
-        if (!passwordEncoder.matches(changePasswordRequest.getOldPassword(), user.getPassword())) {
+        // 3. 验证旧密码: 使用 PasswordHasher 的 matches 方法，验证用户提交的 oldPassword
+        if (!passwordHasher.matches(changePasswordRequest.getOldPassword(), user.getPassword())) {
             // 是否与数据库中存储的加密密码匹配。这是最关键的安全校验。
             throw new IllegalArgumentException("Invalid old password");
         }
 
-        // 4. 加密新密码: 如果旧密码验证通过，则使用 passwordEncoder.encode 方法对 newPassword 进行加密。
-        user.setPassword(passwordEncoder.encode(changePasswordRequest.getNewPassword()));
+        // 4. 加密新密码: 如果旧密码验证通过，则使用 passwordHasher.encode 方法对 newPassword 进行加密。
+        user.setPassword(passwordHasher.encode(changePasswordRequest.getNewPassword()));
         user.setUpdatedAt(LocalDateTime.now());
 
         // 5. 更新数据库: 将加密后的新密码更新到 User 实体中，并将其保存回数据库。
         userMapper.updateById(user);
+
+        // 6. 吊销该用户此前签发的所有 Token，其他设备上的会话需要使用新密码重新登录
+        tokenRevocationRegistry.revokeAllForUser(userId);
     }
 
     @Override
-    @CacheEvict(cacheNames = "user", key = "#id")
+    @CacheEvict(cacheNames = {"user", "user-response"}, key = "#id")
     public void deleteUser(Long id) {
         // 1. 根据ID查找用户
         User user = userMapper.selectById(id);
@@ -185,6 +406,17 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
         // 3. 执行逻辑删除
         // ServiceImpl<M, T> 提供了 removeById(id) 方法，它会自动处理 @TableLogic 注解
         this.removeById(id);
+
+        // 4. 吊销该用户的所有 Token
+        tokenRevocationRegistry.revokeAllForUser(id);
+    }
+
+    private UserResponseVO loadUser(Long id) {
+        User user = userMapper.selectById(id);
+        if (user == null || user.getDeleted() == 1) {
+            return null; // 或者抛出异常
+        }
+        return convertToVO(user);
     }
 
     private UserResponseVO convertToVO(User user) {
@@ -201,19 +433,25 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     }
 
     @Override
-    public void logout(String token) {
+    public void logout(String token, String refreshToken) {
         try {
             Claims claims = jwtUtil.parseTokenAndGetClaims(token);
+
+            // 吊销刷新令牌后，访问令牌最多在其短有效期内继续可用
+            if (refreshToken != null && !refreshToken.isBlank()) {
+                refreshTokenStore.revoke(refreshToken, Long.valueOf(claims.getSubject()));
+                if (!blacklistAccessTokenOnLogout) {
+                    return;
+                }
+            }
+
             String jti = claims.getId();
             Date expiration = claims.getExpiration();
 
-            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
-
-            // 只有当 token 尚未过期时，才将其加入黑名单
-            if (remainingMillis > 0) {
-                String key = "jwt:blacklist:" + jti;
-                redisTemplate.opsForValue().set(key, "1", remainingMillis, TimeUnit.MILLISECONDS);
-            }
+            // 写入 Redis 黑名单并广播给所有节点的本地镜像（已过期的 token 会被忽略）
+            tokenRevocationRegistry.revoke(jti, expiration.getTime());
+            // 本节点的已验签缓存不再需要保留该 Token
+            verifiedTokenCache.invalidate(token);
         } catch (Exception e) {
             // 如果 token 解析失败（例如已过期或格式错误），我们无需做任何事，因为它已经无法通过验证。
             // 这里可以添加日志记录，用于调试。
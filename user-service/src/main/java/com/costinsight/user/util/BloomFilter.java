@@ -0,0 +1,91 @@
+package com.costinsight.user.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * <p>
+ * mightContain 返回 false 时表示"一定不存在"，返回 true 时需要再由精确结构确认。
+ * 位数组使用 AtomicLongArray，写入无锁，读取无需同步。
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+
+    /**
+     * @param expectedInsertions 预计插入的元素数量
+     * @param fpp                期望的误判率（0 ~ 1）
+     */
+    public BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1L, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.max(1L, (bits + 63) >>> 6);
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * Long.SIZE;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    public void put(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1, h2, i);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    public boolean mightContain(String value) {
+        long hash = hash64(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 1; i <= hashCount; i++) {
+            long index = bitIndex(h1, h2, i);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitCount;
+    }
+
+    private long bitIndex(int h1, int h2, int i) {
+        long combined = h1 + (long) i * h2;
+        if (combined < 0) {
+            combined = ~combined;
+        }
+        return combined % bitCount;
+    }
+
+    /**
+     * FNV-1a 64 位哈希，再经过 MurmurHash3 的 fmix64 打散高低位
+     */
+    private static long hash64(String value) {
+        long h = 0xcbf29ce484222325L;
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            h ^= (b & 0xff);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,906 @@
+package com.costinsight.user.util;
+
+import com.costinsight.user.security.TokenClaims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.security.SignatureException;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * 本服务自签 HS512 Token 的专用签发与验签引擎
+ * <p>
+ * 只处理由 JwtUtil 签发的标准形态 Token：header 固定为 {"alg":"HS512"}，载荷是扁平 JSON。
+ * 已初始化的 Mac、随机数生成器和编解码缓冲区组成工作区，放在一个有界池中复用：每次调用借出一个、用完归还，
+ * 池空时新建，池满时丢弃。签发和验签过程中除结果字符串外不产生额外对象，且不依赖线程的复用（兼容虚拟线程）。
+ * 验签时任何不符合预期形态的 Token（其他算法、nbf、转义字符、嵌套结构等）都返回 null，
+ * 由调用方回退到 jjwt 完成完整校验，因此本引擎永远不会比 jjwt 更宽松。
+ * <p>
+ * 另外支持二进制载荷的紧凑 Token（header 为 {"alg":"HS512","typ":"bin"}），格式见 {@link #mintBinary}。
+ * 这种 Token 只有本引擎能够解析，验签失败时直接抛出与 jjwt 相同类型的异常。
+ */
+final class Hs512TokenEngine {
+
+    static final String ALGORITHM = "HmacSHA512";
+
+    /**
+     * jjwt 对 HS512 签名生成的 header 段
+     */
+    static final String HEADER_SEGMENT = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS512\"}".getBytes(StandardCharsets.US_ASCII));
+
+    /**
+     * 二进制载荷 Token 的 header 段
+     */
+    static final String BINARY_HEADER_SEGMENT = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString("{\"alg\":\"HS512\",\"typ\":\"bin\"}".getBytes(StandardCharsets.US_ASCII));
+
+    private static final byte BINARY_VERSION = 2; // 版本 1 不含权限位集
+
+    private static final int SIGNATURE_LENGTH = 64;
+    private static final int SIGNATURE_SEGMENT_LENGTH = 86; // 64 字节的无填充 Base64URL 长度
+
+    private static final byte[] SUB = ascii("sub");
+    private static final byte[] JTI = ascii("jti");
+    private static final byte[] IAT = ascii("iat");
+    private static final byte[] EXP = ascii("exp");
+    private static final byte[] NBF = ascii("nbf");
+    private static final byte[] ROLE = ascii("role");
+    private static final byte[] ROLE_SHORT = ascii("r"); // 精简模式下的角色声明名
+    private static final byte[] PERMISSIONS = ascii("pm");
+
+    private static final int JTI_BYTES = 16; // 128 位随机数，Base64URL 后 22 个字符
+
+    private static final byte[] ALPHABET =
+            ascii("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+    private static final int[] BASE64URL = new int[128];
+
+    static {
+        Arrays.fill(BASE64URL, -1);
+        for (int i = 0; i < ALPHABET.length; i++) {
+            BASE64URL[ALPHABET[i]] = i;
+        }
+    }
+
+    // 工作区池：不用 ThreadLocal，虚拟线程每个请求一个新线程，ThreadLocal 会让 Mac/DRBG 每次都重新初始化
+    private final BlockingQueue<Workspace> workspaces;
+    private final SecretKeySpec key;
+
+    Hs512TokenEngine(byte[] keyBytes) {
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.workspaces = new ArrayBlockingQueue<>(Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
+    }
+
+    private Workspace acquire() {
+        Workspace ws = workspaces.poll();
+        return ws != null ? ws : new Workspace(key);
+    }
+
+    private void release(Workspace ws) {
+        // 池满时直接丢弃，由 GC 回收
+        workspaces.offer(ws);
+    }
+
+    /**
+     * 生成一个不可预测的 JTI
+     * <p>
+     * 每个工作区持有独立的 DRBG 实例，避免共享 SecureRandom 的锁竞争，也不会在熵池上阻塞。
+     *
+     * @return 22 个字符的 Base64URL 字符串
+     */
+    String newJti() {
+        Workspace ws = acquire();
+        try {
+            ws.random.nextBytes(ws.jti);
+            int length = encode(ws.jti, 0, JTI_BYTES, ws.jtiChars, 0);
+            return new String(ws.jtiChars, 0, length, StandardCharsets.ISO_8859_1);
+        } finally {
+            release(ws);
+        }
+    }
+
+    /**
+     * 签发 Token
+     * <p>
+     * 载荷直接按字节写入复用缓冲区，header 段预先编码，整个 Token 在一块缓冲区内拼装完成。
+     * 值为 null 的声明不会写入，与 jjwt 的行为一致。
+     *
+     * @param subject    用户ID
+     * @param jti        Token 唯一标识
+     * @param username   用户名
+     * @param email      邮箱
+     * @param role        角色
+     * @param permissions 权限位集，为负数时不写入
+     * @param issuedAt    签发时间（秒）
+     * @param expiration  过期时间（秒）
+     * @return String JWT Token
+     */
+    String mint(String subject, String jti, String username, String email, String role, long permissions,
+                long issuedAt, long expiration) {
+        Workspace ws = acquire();
+        try {
+            ClaimsWriter writer = ws.writer;
+            writer.begin();
+            writer.string("sub", subject);
+            writer.string("jti", jti);
+            writer.string("username", username);
+            writer.string("email", email);
+            writer.string("role", role);
+            if (permissions >= 0) {
+                writer.number("pm", permissions);
+            }
+            writer.number("iat", issuedAt);
+            writer.number("exp", expiration);
+            writer.end();
+            return sign(ws, writer.buf, writer.length);
+        } finally {
+            release(ws);
+        }
+    }
+
+    /**
+     * 签发精简 Token：只包含鉴权需要的声明，角色使用短声明名 "r"
+     *
+     * @param subject    用户ID
+     * @param jti        Token 唯一标识
+     * @param role        角色
+     * @param permissions 权限位集，为负数时不写入
+     * @param issuedAt    签发时间（秒）
+     * @param expiration  过期时间（秒）
+     * @return String JWT Token
+     */
+    String mintSlim(String subject, String jti, String role, long permissions, long issuedAt, long expiration) {
+        Workspace ws = acquire();
+        try {
+            ClaimsWriter writer = ws.writer;
+            writer.begin();
+            writer.string("sub", subject);
+            writer.string("jti", jti);
+            writer.string("r", role);
+            if (permissions >= 0) {
+                writer.number("pm", permissions);
+            }
+            writer.number("iat", issuedAt);
+            writer.number("exp", expiration);
+            writer.end();
+            return sign(ws, writer.buf, writer.length);
+        } finally {
+            release(ws);
+        }
+    }
+
+    /**
+     * 签发二进制载荷 Token
+     * <p>
+     * 载荷布局：版本号(1 字节) | 用户ID(varint) | JTI 原始字节(16) | 签发时间(varint，秒) |
+     * 有效期(zigzag varint，秒) | 角色长度(1 字节) | 角色(UTF-8) | 权限位集 + 1(varint，0 表示缺失)。
+     *
+     * @param subject     用户ID，必须是非负整数
+     * @param jti         由 {@link #newJti()} 生成的 Token 唯一标识
+     * @param role        角色，可以为 null
+     * @param permissions 权限位集，为负数时不写入
+     * @param issuedAt    签发时间（秒）
+     * @param expiration  过期时间（秒）
+     * @return String Token
+     * @throws IllegalArgumentException 如果声明无法用二进制格式表示
+     */
+    String mintBinary(String subject, String jti, String role, long permissions, long issuedAt, long expiration) {
+        long userId = Long.parseLong(subject);
+        byte[] roleBytes = role != null ? role.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        if (userId < 0 || issuedAt < 0 || expiration < 0 || roleBytes.length > 255) {
+            throw new IllegalArgumentException("Claims cannot be encoded as a binary token");
+        }
+        Workspace ws = acquire();
+        try {
+            if (jti.length() != ws.jtiChars.length || decode(jti, 0, jti.length(), ws.jti) != JTI_BYTES) {
+                throw new IllegalArgumentException("Claims cannot be encoded as a binary token");
+            }
+            byte[] buf = ws.payload(1 + 10 + JTI_BYTES + 10 + 10 + 1 + roleBytes.length + 10);
+            int pos = 0;
+            buf[pos++] = BINARY_VERSION;
+            pos = writeVarint(buf, pos, userId);
+            System.arraycopy(ws.jti, 0, buf, pos, JTI_BYTES);
+            pos += JTI_BYTES;
+            pos = writeVarint(buf, pos, issuedAt);
+            long lifetime = expiration - issuedAt;
+            pos = writeVarint(buf, pos, (lifetime << 1) ^ (lifetime >> 63));
+            buf[pos++] = (byte) roleBytes.length;
+            System.arraycopy(roleBytes, 0, buf, pos, roleBytes.length);
+            pos += roleBytes.length;
+            pos = writeVarint(buf, pos, permissions >= 0 ? permissions + 1 : 0);
+            return sign(ws, BINARY_HEADER_SEGMENT, buf, pos);
+        } finally {
+            release(ws);
+        }
+    }
+
+    private String sign(Workspace ws, byte[] payload, int payloadLength) {
+        return sign(ws, HEADER_SEGMENT, payload, payloadLength);
+    }
+
+    private String sign(Workspace ws, String header, byte[] payload, int payloadLength) {
+        int headerLength = header.length();
+        int payloadChars = (payloadLength * 4 + 2) / 3;
+        byte[] out = ws.output(headerLength + 1 + payloadChars + 1 + SIGNATURE_SEGMENT_LENGTH);
+
+        int pos = 0;
+        for (int i = 0; i < headerLength; i++) {
+            out[pos++] = (byte) header.charAt(i);
+        }
+        out[pos++] = '.';
+        pos = encode(payload, 0, payloadLength, out, pos);
+        try {
+            ws.mac.update(out, 0, pos);
+            ws.mac.doFinal(ws.expected, 0);
+        } catch (GeneralSecurityException e) {
+            ws.mac.reset();
+            throw new IllegalStateException("Failed to sign token", e);
+        }
+        out[pos++] = '.';
+        pos = encode(ws.expected, 0, SIGNATURE_LENGTH, out, pos);
+        return new String(out, 0, pos, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * 校验 Token 并返回载荷视图
+     *
+     * @param token     JWT Token
+     * @param nowMillis 当前时间（毫秒）
+     * @return TokenClaims，Token 无效或不是标准形态时返回 null
+     */
+    TokenClaims verify(String token, long nowMillis) {
+        int firstDot = token.indexOf('.');
+        if (firstDot != HEADER_SEGMENT.length() || !token.startsWith(HEADER_SEGMENT)) {
+            return null;
+        }
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.length() - secondDot - 1 != SIGNATURE_SEGMENT_LENGTH) {
+            return null;
+        }
+
+        Workspace ws = acquire();
+        try {
+            // 1. 验签：header.payload 按 ASCII 写入复用缓冲区后计算 HMAC
+            if (!signatureMatches(ws, token, secondDot)) {
+                return null;
+            }
+
+            // 2. 解码载荷到复用缓冲区
+            byte[] payload = ws.payload((secondDot - firstDot - 1) * 3 / 4 + 3);
+            int payloadLength = decode(token, firstDot + 1, secondDot, payload);
+            if (payloadLength < 0) {
+                return null;
+            }
+
+            // 3. 解析扁平 JSON，只提取鉴权需要的字段
+            ClaimsReader reader = ws.reader;
+            if (!reader.read(payload, payloadLength)) {
+                return null;
+            }
+            if (reader.notBefore || reader.jti == null || reader.expiration == Long.MIN_VALUE) {
+                return null;
+            }
+            long expirationMillis = reader.expiration * 1000;
+            if (expirationMillis <= nowMillis) {
+                return null;
+            }
+            return new TokenClaims(reader.subject, reader.jti, reader.issuedAt, expirationMillis, reader.role,
+                    reader.permissions);
+        } finally {
+            release(ws);
+        }
+    }
+
+    /**
+     * 判断是否为二进制载荷 Token
+     */
+    boolean isBinary(String token) {
+        return token.startsWith(BINARY_HEADER_SEGMENT)
+                && token.length() > BINARY_HEADER_SEGMENT.length()
+                && token.charAt(BINARY_HEADER_SEGMENT.length()) == '.';
+    }
+
+    /**
+     * 校验二进制载荷 Token
+     *
+     * @param token     由 {@link #mintBinary} 签发的 Token
+     * @param nowMillis 当前时间（毫秒）
+     * @return TokenClaims 载荷视图
+     * @throws SignatureException    如果签名无效
+     * @throws MalformedJwtException 如果 Token 格式错误
+     * @throws ExpiredJwtException   如果 Token 已过期
+     */
+    TokenClaims verifyBinary(String token, long nowMillis) {
+        int firstDot = BINARY_HEADER_SEGMENT.length();
+        int secondDot = token.indexOf('.', firstDot + 1);
+        if (secondDot < 0 || token.length() - secondDot - 1 != SIGNATURE_SEGMENT_LENGTH) {
+            throw new MalformedJwtException("Malformed binary token");
+        }
+        Workspace ws = acquire();
+        try {
+            if (!signatureMatches(ws, token, secondDot)) {
+                throw new SignatureException("JWT signature does not match locally computed signature. " +
+                        "JWT validity cannot be asserted and should not be trusted.");
+            }
+
+            byte[] payload = ws.payload((secondDot - firstDot - 1) * 3 / 4 + 3);
+            int length = decode(token, firstDot + 1, secondDot, payload);
+            BinaryReader reader = ws.binaryReader;
+            if (length < 0 || !reader.read(payload, length)) {
+                throw new MalformedJwtException("Malformed binary token payload");
+            }
+            int jtiLength = encode(payload, reader.jtiOffset, reader.jtiOffset + JTI_BYTES, ws.jtiChars, 0);
+            String jti = new String(ws.jtiChars, 0, jtiLength, StandardCharsets.ISO_8859_1);
+            long expirationMillis = (reader.issuedAt + reader.lifetime) * 1000;
+            if (expirationMillis <= nowMillis) {
+                throw new ExpiredJwtException(null, null, "JWT expired at " + Instant.ofEpochMilli(expirationMillis)
+                        + ". Current time: " + Instant.ofEpochMilli(nowMillis) + ".");
+            }
+            String role = reader.roleLength > 0
+                    ? new String(payload, reader.roleOffset, reader.roleLength, StandardCharsets.UTF_8)
+                    : null;
+            return new TokenClaims(Long.toString(reader.userId), jti, reader.issuedAt, expirationMillis, role,
+                    reader.permissions);
+        } finally {
+            release(ws);
+        }
+    }
+
+    private static boolean signatureMatches(Workspace ws, String token, int secondDot) {
+        byte[] input = ws.input(secondDot);
+        for (int i = 0; i < secondDot; i++) {
+            char c = token.charAt(i);
+            if (c > 0x7f) {
+                return false;
+            }
+            input[i] = (byte) c;
+        }
+        if (decode(token, secondDot + 1, token.length(), ws.signature) != SIGNATURE_LENGTH) {
+            return false;
+        }
+        try {
+            ws.mac.update(input, 0, secondDot);
+            ws.mac.doFinal(ws.expected, 0);
+        } catch (GeneralSecurityException e) {
+            ws.mac.reset();
+            return false;
+        }
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= ws.expected[i] ^ ws.signature[i];
+        }
+        return diff == 0;
+    }
+
+    private static int writeVarint(byte[] buf, int pos, long value) {
+        while ((value & ~0x7fL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+
+    /**
+     * 将 Base64URL（无填充）解码到目标缓冲区
+     *
+     * @return 解码后的字节数，非法输入返回 -1
+     */
+    static int decode(String source, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int outLength = length / 4 * 3 + (length % 4 == 0 ? 0 : length % 4 - 1);
+        if (outLength > out.length) {
+            return -1;
+        }
+        int o = 0;
+        int bits = 0;
+        int bitCount = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? BASE64URL[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[o++] = (byte) (bits >> bitCount);
+            }
+        }
+        return o;
+    }
+
+    /**
+     * 将字节编码为 Base64URL（无填充）写入目标缓冲区
+     *
+     * @return 写入后的位置
+     */
+    static int encode(byte[] source, int from, int to, byte[] out, int outPos) {
+        int i = from;
+        for (; i + 3 <= to; i += 3) {
+            int bits = (source[i] & 0xff) << 16 | (source[i + 1] & 0xff) << 8 | (source[i + 2] & 0xff);
+            out[outPos++] = ALPHABET[bits >>> 18];
+            out[outPos++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[outPos++] = ALPHABET[(bits >>> 6) & 0x3f];
+            out[outPos++] = ALPHABET[bits & 0x3f];
+        }
+        int remaining = to - i;
+        if (remaining == 1) {
+            int bits = (source[i] & 0xff) << 16;
+            out[outPos++] = ALPHABET[bits >>> 18];
+            out[outPos++] = ALPHABET[(bits >>> 12) & 0x3f];
+        } else if (remaining == 2) {
+            int bits = (source[i] & 0xff) << 16 | (source[i + 1] & 0xff) << 8;
+            out[outPos++] = ALPHABET[bits >>> 18];
+            out[outPos++] = ALPHABET[(bits >>> 12) & 0x3f];
+            out[outPos++] = ALPHABET[(bits >>> 6) & 0x3f];
+        }
+        return outPos;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * 一次调用独占的 Mac 实例和缓冲区，从工作区池借出，调用结束后归还
+     */
+    private static final class Workspace {
+
+        private final Mac mac;
+        private final byte[] signature = new byte[SIGNATURE_LENGTH];
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final ClaimsReader reader = new ClaimsReader();
+        private final ClaimsWriter writer = new ClaimsWriter();
+        private final BinaryReader binaryReader = new BinaryReader();
+        private final SecureRandom random = newRandom();
+        private final byte[] jti = new byte[JTI_BYTES];
+        private final byte[] jtiChars = new byte[(JTI_BYTES * 4 + 2) / 3];
+        private byte[] input = new byte[512];
+        private byte[] payload = new byte[512];
+        private byte[] output = new byte[1024];
+
+        Workspace(SecretKeySpec key) {
+            try {
+                this.mac = Mac.getInstance(ALGORITHM);
+                this.mac.init(key);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("Failed to initialize " + ALGORITHM, e);
+            }
+        }
+
+        private static SecureRandom newRandom() {
+            try {
+                return SecureRandom.getInstance("DRBG");
+            } catch (NoSuchAlgorithmException e) {
+                return new SecureRandom();
+            }
+        }
+
+        byte[] output(int length) {
+            if (output.length < length) {
+                output = new byte[Math.max(length, output.length * 2)];
+            }
+            return output;
+        }
+
+        byte[] input(int length) {
+            if (input.length < length) {
+                input = new byte[Math.max(length, input.length * 2)];
+            }
+            return input;
+        }
+
+        byte[] payload(int length) {
+            if (payload.length < length) {
+                payload = new byte[Math.max(length, payload.length * 2)];
+            }
+            return payload;
+        }
+    }
+
+    /**
+     * 扁平 JSON 对象的字节级写入器
+     */
+    private static final class ClaimsWriter {
+
+        private byte[] buf = new byte[512];
+        private int length;
+        private boolean first;
+
+        void begin() {
+            length = 0;
+            first = true;
+            put((byte) '{');
+        }
+
+        void end() {
+            put((byte) '}');
+        }
+
+        void string(String name, String value) {
+            if (value == null) {
+                return;
+            }
+            name(name);
+            put((byte) '"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    put((byte) '\\');
+                    put((byte) c);
+                } else if (c < 0x20) {
+                    put((byte) '\\');
+                    put((byte) 'u');
+                    put((byte) '0');
+                    put((byte) '0');
+                    put(HEX[c >> 4]);
+                    put(HEX[c & 0xf]);
+                } else if (c < 0x80) {
+                    put((byte) c);
+                } else if (c < 0x800) {
+                    put((byte) (0xc0 | (c >> 6)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    put((byte) (0xf0 | (codePoint >> 18)));
+                    put((byte) (0x80 | ((codePoint >> 12) & 0x3f)));
+                    put((byte) (0x80 | ((codePoint >> 6) & 0x3f)));
+                    put((byte) (0x80 | (codePoint & 0x3f)));
+                } else if (Character.isSurrogate(c)) {
+                    put((byte) '?'); // 与 String.getBytes(UTF_8) 对孤立代理字符的处理一致
+                } else {
+                    put((byte) (0xe0 | (c >> 12)));
+                    put((byte) (0x80 | ((c >> 6) & 0x3f)));
+                    put((byte) (0x80 | (c & 0x3f)));
+                }
+            }
+            put((byte) '"');
+        }
+
+        void number(String name, long value) {
+            name(name);
+            if (value < 0) {
+                put((byte) '-');
+                value = -value;
+            }
+            int start = length;
+            do {
+                put((byte) ('0' + value % 10));
+                value /= 10;
+            } while (value > 0);
+            // 数字是逆序写入的，原地翻转
+            for (int i = start, j = length - 1; i < j; i++, j--) {
+                byte tmp = buf[i];
+                buf[i] = buf[j];
+                buf[j] = tmp;
+            }
+        }
+
+        private void name(String name) {
+            if (!first) {
+                put((byte) ',');
+            }
+            first = false;
+            put((byte) '"');
+            for (int i = 0; i < name.length(); i++) {
+                put((byte) name.charAt(i));
+            }
+            put((byte) '"');
+            put((byte) ':');
+        }
+
+        private void put(byte b) {
+            if (length == buf.length) {
+                buf = Arrays.copyOf(buf, buf.length * 2);
+            }
+            buf[length++] = b;
+        }
+    }
+
+    /**
+     * 扁平 JSON 对象的最小解析器
+     * <p>
+     * 只接受字符串（不含转义）、整数、true/false/null 作为值，遇到其他结构时返回 false。
+     */
+    private static final class ClaimsReader {
+
+        String subject;
+        String jti;
+        String role;
+        long issuedAt;
+        long expiration;
+        long permissions;
+        boolean notBefore;
+
+        private byte[] buf;
+        private int pos;
+        private int end;
+
+        boolean read(byte[] buf, int length) {
+            this.buf = buf;
+            this.pos = 0;
+            this.end = length;
+            subject = null;
+            jti = null;
+            role = null;
+            issuedAt = 0L;
+            expiration = Long.MIN_VALUE;
+            permissions = TokenClaims.UNKNOWN_PERMISSIONS;
+            notBefore = false;
+
+            skipWhitespace();
+            if (!consume('{')) {
+                return false;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return trailingWhitespaceOnly();
+            }
+            while (true) {
+                skipWhitespace();
+                if (!consume('"')) {
+                    return false;
+                }
+                int keyStart = pos;
+                int keyEnd = scanString();
+                if (keyEnd < 0) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return false;
+                }
+                skipWhitespace();
+                if (!readValue(keyStart, keyEnd - keyStart)) {
+                    return false;
+                }
+                skipWhitespace();
+                if (consume(',')) {
+                    continue;
+                }
+                if (consume('}')) {
+                    return trailingWhitespaceOnly();
+                }
+                return false;
+            }
+        }
+
+        private boolean readValue(int keyStart, int keyLength) {
+            if (pos >= end) {
+                return false;
+            }
+            byte b = buf[pos];
+            if (b == '"') {
+                pos++;
+                int valueStart = pos;
+                int valueEnd = scanString();
+                if (valueEnd < 0) {
+                    return false;
+                }
+                if (keyEquals(keyStart, keyLength, SUB)) {
+                    subject = new String(buf, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+                } else if (keyEquals(keyStart, keyLength, JTI)) {
+                    jti = new String(buf, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+                } else if (keyEquals(keyStart, keyLength, ROLE) || keyEquals(keyStart, keyLength, ROLE_SHORT)) {
+                    role = new String(buf, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8);
+                } else if (isNumericClaim(keyStart, keyLength)) {
+                    return false;
+                }
+                return true;
+            }
+            if (b == '-' || (b >= '0' && b <= '9')) {
+                long value = readLong();
+                if (value == Long.MIN_VALUE) {
+                    return false;
+                }
+                if (keyEquals(keyStart, keyLength, EXP)) {
+                    expiration = value;
+                } else if (keyEquals(keyStart, keyLength, IAT)) {
+                    issuedAt = value;
+                } else if (keyEquals(keyStart, keyLength, PERMISSIONS)) {
+                    if (value < 0) {
+                        return false;
+                    }
+                    permissions = value;
+                } else if (keyEquals(keyStart, keyLength, NBF)) {
+                    notBefore = true;
+                } else if (isStringClaim(keyStart, keyLength)) {
+                    return false;
+                }
+                return true;
+            }
+            if (consumeLiteral("true") || consumeLiteral("false") || consumeLiteral("null")) {
+                // 标准声明出现非预期类型时交给 jjwt 处理
+                return !isStringClaim(keyStart, keyLength) && !isNumericClaim(keyStart, keyLength);
+            }
+            return false;
+        }
+
+        private boolean isStringClaim(int keyStart, int keyLength) {
+            return keyEquals(keyStart, keyLength, SUB) || keyEquals(keyStart, keyLength, JTI)
+                    || keyEquals(keyStart, keyLength, ROLE) || keyEquals(keyStart, keyLength, ROLE_SHORT);
+        }
+
+        private boolean isNumericClaim(int keyStart, int keyLength) {
+            return keyEquals(keyStart, keyLength, EXP) || keyEquals(keyStart, keyLength, IAT)
+                    || keyEquals(keyStart, keyLength, NBF) || keyEquals(keyStart, keyLength, PERMISSIONS);
+        }
+
+        /**
+         * 扫描到字符串结束引号
+         *
+         * @return 结束引号的位置（不含），遇到转义或未闭合时返回 -1
+         */
+        private int scanString() {
+            while (pos < end) {
+                byte b = buf[pos];
+                if (b == '"') {
+                    return pos++;
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) {
+                    return -1;
+                }
+                pos++;
+            }
+            return -1;
+        }
+
+        private long readLong() {
+            boolean negative = consume('-');
+            int start = pos;
+            long value = 0;
+            while (pos < end && buf[pos] >= '0' && buf[pos] <= '9') {
+                if (pos - start >= 18) {
+                    return Long.MIN_VALUE;
+                }
+                value = value * 10 + (buf[pos++] - '0');
+            }
+            if (pos == start) {
+                return Long.MIN_VALUE;
+            }
+            if (pos < end && (buf[pos] == '.' || buf[pos] == 'e' || buf[pos] == 'E')) {
+                return Long.MIN_VALUE;
+            }
+            return negative ? -value : value;
+        }
+
+        private boolean keyEquals(int keyStart, int keyLength, byte[] name) {
+            if (keyLength != name.length) {
+                return false;
+            }
+            for (int i = 0; i < keyLength; i++) {
+                if (buf[keyStart + i] != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean consumeLiteral(String literal) {
+            int length = literal.length();
+            if (end - pos < length) {
+                return false;
+            }
+            for (int i = 0; i < length; i++) {
+                if (buf[pos + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += length;
+            return true;
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && buf[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void skipWhitespace() {
+            while (pos < end) {
+                byte b = buf[pos];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean trailingWhitespaceOnly() {
+            skipWhitespace();
+            return pos == end;
+        }
+    }
+
+    /**
+     * 二进制载荷的解析器，字段位置记录在实例上，不复制字节
+     */
+    private static final class BinaryReader {
+
+        long userId;
+        int jtiOffset;
+        long issuedAt;
+        long lifetime;
+        int roleOffset;
+        int roleLength;
+        long permissions;
+
+        private byte[] buf;
+        private int pos;
+        private int end;
+
+        boolean read(byte[] buf, int length) {
+            this.buf = buf;
+            this.pos = 0;
+            this.end = length;
+            if (end < 1) {
+                return false;
+            }
+            byte version = buf[pos++];
+            if (version != 1 && version != BINARY_VERSION) {
+                return false;
+            }
+            userId = readVarint();
+            if (userId < 0 || end - pos < JTI_BYTES) {
+                return false;
+            }
+            jtiOffset = pos;
+            pos += JTI_BYTES;
+            issuedAt = readVarint();
+            long zigzag = readVarint();
+            if (issuedAt < 0 || zigzag < 0 || pos >= end) {
+                return false;
+            }
+            lifetime = (zigzag >>> 1) ^ -(zigzag & 1);
+            roleLength = buf[pos++] & 0xff;
+            roleOffset = pos;
+            pos += roleLength;
+            if (pos > end) {
+                return false;
+            }
+            permissions = TokenClaims.UNKNOWN_PERMISSIONS;
+            if (version >= 2) {
+                long encoded = readVarint();
+                if (encoded < 0) {
+                    return false;
+                }
+                permissions = encoded - 1;
+            }
+            return pos == end;
+        }
+
+        /**
+         * @return 解码后的值，格式错误时返回 -1
+         */
+        private long readVarint() {
+            long value = 0;
+            for (int shift = 0; shift < 63 && pos < end; shift += 7) {
+                byte b = buf[pos++];
+                value |= (long) (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -1,33 +1,72 @@
 package com.costinsight.user.util;
 
 import com.costinsight.user.entity.User;
+import com.costinsight.user.security.JwtKeyRing;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.PublicKey;
 import java.util.Base64;
 import java.util.Date;
-import java.util.UUID;
+import java.util.Locale;
 
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    /**
+     * Token 载荷形态
+     */
+    public enum TokenProfile {
+        /**
+         * 完整声明：sub、jti、username、email、role、iat、exp
+         */
+        FULL,
+        /**
+         * 精简声明：只保留鉴权需要的 sub、jti、r（角色）、iat、exp
+         */
+        SLIM,
+        /**
+         * 与 SLIM 相同的声明，载荷使用二进制编码，只能由本服务解析
+         */
+        BINARY
+    }
+
     @Value("${app.jwt.secret}")
     private String jwtSecretString;
 
     @Value("${app.jwt.expiration}")
     private long jwtExpirationMs;
 
+    @Value("${app.jwt.profile:full}")
+    private String tokenProfileName;
+
+    private TokenProfile tokenProfile;
+
+    @Autowired(required = false)
+    private JwtKeyRing keyRing; // 配置 RS256/ES256 时用于非对称签名
+
+    @Autowired(required = false)
+    private RolePermissionTable rolePermissionTable; // 签发时把角色编译为权限位集
+
     private SecretKey secretKey;
 
+    private JwtParser jwtParser; // 线程安全，初始化后复用
+
+    private Hs512TokenEngine tokenEngine;
+
     @PostConstruct
     public void init() {
         byte[] keyBytes;
@@ -49,6 +88,21 @@ public class JwtUtil {
             keyBytes = newKeyBytes;
         }
         this.secretKey = Keys.hmacShaKeyFor(keyBytes);
+        this.jwtParser = Jwts.parserBuilder().setSigningKeyResolver(new SigningKeyResolverAdapter() {
+            @Override
+            public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                return resolveVerificationKey(header);
+            }
+        }).build();
+        this.tokenEngine = new Hs512TokenEngine(keyBytes);
+
+        this.tokenProfile = tokenProfileName != null
+                ? TokenProfile.valueOf(tokenProfileName.trim().toUpperCase(Locale.ROOT))
+                : TokenProfile.FULL;
+        if (tokenProfile == TokenProfile.BINARY && keyRing != null && keyRing.isAsymmetric()) {
+            logger.warn("Binary token profile is only supported for HS512, using the slim profile for {}",
+                    keyRing.getAlgorithm().getValue());
+        }
     }
 
     /**
@@ -67,23 +121,94 @@ public class JwtUtil {
      * @return String JWT Token
      */
     public String generateToken(User user) {
-        // 获取签名密钥
-        SecretKey key = getSigningKey();
-
-        // 设置过期时间
-        Date expiryDate = new Date((new Date()).getTime() + jwtExpirationMs);
-
-        // 构建并返回 JWT Token
-        return Jwts.builder()
-                .setSubject(user.getId().toString()) // 设置主题为用户ID
-                .setId(UUID.randomUUID().toString()) // 设置 JTI，Token 的唯一标识
-                .claim("username", user.getUsername()) // 添加 username
-                .claim("email", user.getEmail())       // 添加 email
-                .claim("role", user.getRole())         // 添加 role
-                .setIssuedAt(new Date()) // 设置签发时间
-                .setExpiration(expiryDate) // 设置过期时间
-                .signWith(key, SignatureAlgorithm.HS512) // 使用 HS512 算法和密钥签名
-                .compact(); // 生成紧凑的 JWT 字符串
+        if (keyRing != null && keyRing.isAsymmetric()) {
+            return generateAsymmetricToken(user);
+        }
+
+        // 签发时间与过期时间（秒），避免创建 Date 对象
+        long nowMillis = System.currentTimeMillis();
+        long issuedAt = nowMillis / 1000;
+        long expiration = (nowMillis + jwtExpirationMs) / 1000;
+
+        String subject = user.getId().toString();
+        long permissions = permissionsOf(user);
+        switch (tokenProfile) {
+            case SLIM:
+                return tokenEngine.mintSlim(subject, tokenEngine.newJti(), user.getRole(), permissions, issuedAt, expiration);
+            case BINARY:
+                return tokenEngine.mintBinary(subject, tokenEngine.newJti(), user.getRole(), permissions, issuedAt, expiration);
+            default:
+                break;
+        }
+
+        // 预编码 header + 字节级载荷序列化 + 线程独占 Mac 签名，输出与 jjwt 签发的 Token 完全兼容
+        return tokenEngine.mint(
+                subject,                 // 主题为用户ID
+                tokenEngine.newJti(),    // JTI，Token 的唯一标识
+                user.getUsername(),
+                user.getEmail(),
+                user.getRole(),
+                permissions,
+                issuedAt,
+                expiration);
+    }
+
+    /**
+     * 使用密钥环中的活动密钥签发 RS256/ES256 Token，header 中携带 kid 供下游服务从 JWKS 中选择公钥
+     *
+     * @param user 用户实体
+     * @return String JWT Token
+     */
+    private String generateAsymmetricToken(User user) {
+        JwtKeyRing.KeyEntry signingKey = keyRing.getActiveKey();
+        long nowMillis = System.currentTimeMillis();
+        JwtBuilder builder = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, signingKey.getKid())
+                .setSubject(user.getId().toString())
+                .setId(tokenEngine.newJti());
+        long permissions = permissionsOf(user);
+        if (permissions >= 0) {
+            builder.claim("pm", permissions);
+        }
+        if (tokenProfile == TokenProfile.FULL) {
+            builder.claim("username", user.getUsername())
+                    .claim("email", user.getEmail())
+                    .claim("role", user.getRole());
+        } else {
+            builder.claim("r", user.getRole());
+        }
+        return builder
+                .setIssuedAt(new Date(nowMillis))
+                .setExpiration(new Date(nowMillis + jwtExpirationMs))
+                .signWith(signingKey.getPrivateKey(), signingKey.getAlgorithm())
+                .compact();
+    }
+
+    /**
+     * 用户角色对应的权限位集，未注入映射表时返回 -1（不写入 Token）
+     */
+    private long permissionsOf(User user) {
+        return rolePermissionTable != null
+                ? rolePermissionTable.permissionsOf(user.getRole())
+                : TokenClaims.UNKNOWN_PERMISSIONS;
+    }
+
+    /**
+     * 根据 header 选择验签密钥：HMAC 使用服务密钥，非对称算法按 kid 从密钥环中查找公钥
+     */
+    private Key resolveVerificationKey(JwsHeader<?> header) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (algorithm.isHmac()) {
+            return getSigningKey();
+        }
+        if (keyRing == null || !keyRing.isAsymmetric()) {
+            throw new UnsupportedJwtException("Asymmetric JWT verification is not enabled");
+        }
+        PublicKey publicKey = keyRing.getVerificationKey(header.getKeyId());
+        if (publicKey == null) {
+            throw new UnsupportedJwtException("Unknown JWT key id: " + header.getKeyId());
+        }
+        return publicKey;
     }
 
     /**
@@ -94,11 +219,8 @@ public class JwtUtil {
      */
     public boolean validateToken(String token) {
         try {
-            // 获取签名密钥
-            SecretKey key = getSigningKey();
-
             // 解析 Token
-            Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token);
+            verifyToken(token);
             return true; // 如果没有抛出异常，则 Token 有效
         } catch (JwtException | IllegalArgumentException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
@@ -120,7 +242,7 @@ public class JwtUtil {
      * 从 JWT Token 中获取用户名
      *
      * @param token JWT Token
-     * @return String 用户名
+     * @return String 用户名，精简和二进制 Token 不包含该声明，返回 null
      */
     public String getUsernameFromToken(String token) {
         return parseTokenAndGetClaims(token).get("username", String.class);
@@ -130,7 +252,7 @@ public class JwtUtil {
      * 从 JWT Token 中获取邮箱
      *
      * @param token JWT Token
-     * @return String 邮箱
+     * @return String 邮箱，精简和二进制 Token 不包含该声明，返回 null
      */
     public String getEmailFromToken(String token) {
         return parseTokenAndGetClaims(token).get("email", String.class);
@@ -149,11 +271,45 @@ public class JwtUtil {
      * @throws IllegalArgumentException 如果参数错误
      */
     public Claims parseTokenAndGetClaims(String token) {
-        SecretKey key = getSigningKey();
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+        if (token != null && tokenEngine.isBinary(token)) {
+            // 二进制载荷 jjwt 无法解析，转换为等价的 Claims
+            TokenClaims verified = tokenEngine.verifyBinary(token, System.currentTimeMillis());
+            Claims claims = Jwts.claims()
+                    .setSubject(verified.getSubject())
+                    .setId(verified.getJti())
+                    .setIssuedAt(new Date(verified.getIssuedAt() * 1000))
+                    .setExpiration(new Date(verified.getExpiration()));
+            if (verified.getRole() != null) {
+                claims.put("r", verified.getRole());
+            }
+            if (verified.hasPermissions()) {
+                claims.put("pm", verified.getPermissions());
+            }
+            return claims;
+        }
+        return jwtParser.parseClaimsJws(token).getBody();
+    }
+
+    /**
+     * 校验 Token 并返回鉴权所需的载荷视图
+     * <p>
+     * 本服务签发的标准 HS512 Token 走专用验签引擎（复用 Mac 和缓冲区，不经过 Jackson），
+     * 其他形态或校验失败的 Token 回退到 jjwt，由 jjwt 给出准确的异常类型。
+     * 二进制载荷 Token 只能由验签引擎处理，异常类型与 jjwt 保持一致。
+     *
+     * @param token JWT Token
+     * @return TokenClaims 载荷视图
+     * @throws JwtException             如果 Token 无效、过期或缺少 JTI
+     * @throws IllegalArgumentException 如果参数错误
+     */
+    public TokenClaims verifyToken(String token) {
+        if (token != null && tokenEngine.isBinary(token)) {
+            return tokenEngine.verifyBinary(token, System.currentTimeMillis());
+        }
+        TokenClaims claims = tokenEngine.verify(token, System.currentTimeMillis());
+        if (claims != null) {
+            return claims;
+        }
+        return TokenClaims.from(parseTokenAndGetClaims(token));
     }
 }
\ No newline at end of file
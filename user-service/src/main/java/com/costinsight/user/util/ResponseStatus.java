@@ -7,6 +7,7 @@ public enum ResponseStatus {
     // 成功
     SUCCESS(200, "Success"),
     TOKEN_VALID(200, "Token is valid"),
+    TOKEN_REFRESHED(200, "Token refreshed successfully"),
 
     // 用户相关错误
     USER_REGISTERED_SUCCESS(200, "User registered successfully"),
@@ -22,7 +23,9 @@ public enum ResponseStatus {
     UNAUTHORIZED(401, "Unauthorized"),
     FORBIDDEN(403, "Forbidden"),
     NOT_FOUND(404, "Not found"),
+    TOO_MANY_REQUESTS(429, "Too many requests"),
     INTERNAL_SERVER_ERROR(500, "Internal server error"),
+    SERVICE_BUSY(503, "Service busy, please retry later"),
     REGISTRATION_ERROR(500, "An error occurred during registration"),
     LOGIN_ERROR(500, "An error occurred during login");
 
@@ -1,5 +1,7 @@
 package com.costinsight.user.util;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
 import java.util.HashMap;
@@ -14,11 +16,30 @@ public class ResponseUtil {
      * @return ResponseEntity 成功响应
      */
     public static ResponseEntity<?> success(Object data, ResponseStatus status) {
+        return ResponseEntity.ok(successBody(data, status));
+    }
+
+    /**
+     * 构建成功响应体（code/message/data），供需要预先序列化响应的场景使用
+     * @param data 响应数据
+     * @param status 响应状态
+     * @return Map 响应体
+     */
+    public static Map<String, Object> successBody(Object data, ResponseStatus status) {
         Map<String, Object> response = new HashMap<>();
         response.put("code", status.getCode());
         response.put("message", status.getMessage());
         response.put("data", data);
-        return ResponseEntity.ok(response);
+        return response;
+    }
+
+    /**
+     * 构建已序列化的 JSON 成功响应，字节原样写入输出流
+     * @param body 由 successBody 序列化得到的响应体
+     * @return ResponseEntity 成功响应
+     */
+    public static ResponseEntity<byte[]> successJson(byte[] body) {
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
     }
 
     /**
@@ -57,6 +78,22 @@ public class ResponseUtil {
         return ResponseEntity.status(getHttpStatus(status.getCode())).body(response);
     }
 
+    /**
+     * 构建需要客户端稍后重试的错误响应（429/503），附带 Retry-After 头
+     * @param status 错误状态
+     * @param retryAfterSeconds 建议的重试间隔（秒）
+     * @return ResponseEntity 错误响应
+     */
+    public static ResponseEntity<?> retryLater(ResponseStatus status, long retryAfterSeconds) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("code", status.getCode());
+        response.put("message", status.getMessage());
+        response.put("data", null);
+        return ResponseEntity.status(getHttpStatus(status.getCode()))
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(response);
+    }
+
     /**
      * 根据错误码获取HTTP状态码
      * @param code 错误码
@@ -72,6 +109,10 @@ public class ResponseUtil {
                 return 403; // FORBIDDEN
             case 404:
                 return 404; // NOT_FOUND
+            case 429:
+                return 429; // TOO_MANY_REQUESTS
+            case 503:
+                return 503; // SERVICE_UNAVAILABLE
             default:
                 return 500; // INTERNAL_SERVER_ERROR
         }
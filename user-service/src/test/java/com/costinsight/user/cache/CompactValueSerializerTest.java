@@ -0,0 +1,114 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.dto.UserResponseVO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CompactValueSerializerTest {
+
+    private RedisSerializer<Object> fallback;
+    private CompactValueSerializer serializer;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        fallback = mock(RedisSerializer.class);
+        serializer = new CompactValueSerializer(List.of(new UserResponseVOCodec()), fallback, 512);
+    }
+
+    @Test
+    void testRoundTrip_UserResponseVO() {
+        UserResponseVO user = user("alice", "alice@example.com");
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertEquals(CompactValueSerializer.MAGIC, bytes[0]);
+        assertEquals(user, serializer.deserialize(bytes));
+        verifyNoInteractions(fallback);
+    }
+
+    @Test
+    void testRoundTrip_NullFieldsAreOmitted() {
+        UserResponseVO user = new UserResponseVO();
+        user.setId(-5L);
+
+        UserResponseVO decoded = (UserResponseVO) serializer.deserialize(serializer.serialize(user));
+
+        assertEquals(-5L, decoded.getId());
+        assertNull(decoded.getUsername());
+        assertNull(decoded.getCreatedAt());
+    }
+
+    @Test
+    void testSerialize_LargeValueIsCompressed() {
+        UserResponseVO user = user("a".repeat(2000), "b".repeat(2000) + "@example.com");
+
+        byte[] bytes = serializer.serialize(user);
+
+        assertEquals(CompactValueSerializer.FLAG_LZ4, bytes[1]);
+        assertTrue(bytes.length < 1000);
+        assertEquals(user, serializer.deserialize(bytes));
+    }
+
+    @Test
+    void testSerialize_CompressionDisabledBelowThreshold() {
+        byte[] bytes = new CompactValueSerializer(List.of(new UserResponseVOCodec()), fallback, 0)
+                .serialize(user("a".repeat(2000), "alice@example.com"));
+
+        assertEquals(0, bytes[1]);
+    }
+
+    @Test
+    void testUnregisteredTypeAndLegacyJson_UseFallback() {
+        byte[] legacy = "[\"java.util.ArrayList\",[]]".getBytes(StandardCharsets.UTF_8);
+        when(fallback.serialize("plain")).thenReturn(legacy);
+        when(fallback.deserialize(legacy)).thenReturn(List.of());
+
+        assertArrayEquals(legacy, serializer.serialize("plain"));
+        assertEquals(List.of(), serializer.deserialize(legacy));
+    }
+
+    @Test
+    void testDeserialize_NullAndEmpty() {
+        assertNull(serializer.deserialize(null));
+        assertNull(serializer.deserialize(new byte[0]));
+        assertEquals(0, serializer.serialize(null).length);
+    }
+
+    @Test
+    void testDeserialize_CorruptDataThrowsSerializationException() {
+        byte[] bytes = serializer.serialize(user("alice", "alice@example.com"));
+        byte[] truncated = Arrays.copyOf(bytes, bytes.length - 4);
+        byte[] unknownTag = bytes.clone();
+        unknownTag[2] = 99;
+
+        assertThrows(SerializationException.class, () -> serializer.deserialize(truncated));
+        assertThrows(SerializationException.class, () -> serializer.deserialize(unknownTag));
+    }
+
+    @Test
+    void testConstructor_DuplicateTagRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CompactValueSerializer(
+                List.of(new UserResponseVOCodec(), new UserResponseVOCodec()), fallback, 0));
+    }
+
+    private static UserResponseVO user(String username, String email) {
+        UserResponseVO user = new UserResponseVO();
+        user.setId(1234567L);
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setCreatedAt(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000));
+        user.setUpdatedAt(LocalDateTime.of(2024, 5, 2, 8, 0));
+        return user;
+    }
+}
@@ -0,0 +1,91 @@
+package com.costinsight.user.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HotKeyDetectorTest {
+
+    @Test
+    void testRotate_MarksKeysAboveThresholdAndNotifiesOnce() {
+        // 1 秒窗口、不抽样、阈值 10 次/秒
+        HotKeyDetector detector = new HotKeyDetector(true, 8, 1, 1000, 10);
+        List<Set<String>> notified = new ArrayList<>();
+        detector.addListener((source, keys) -> notified.add(keys));
+        for (int i = 0; i < 50; i++) {
+            detector.record("user", "42");
+        }
+        for (int i = 0; i < 5; i++) {
+            detector.record("user", "7");
+        }
+
+        detector.rotate();
+
+        assertTrue(detector.isHot("user", "42"));
+        assertFalse(detector.isHot("user", "7"));
+        List<HotKeyDetector.HotKey> top = detector.snapshot().get("user");
+        assertEquals("42", top.get(0).key());
+        assertEquals(50, top.get(0).count());
+        assertEquals(List.of(Set.of("42")), notified);
+
+        // 仍然是热点时不重复通知
+        for (int i = 0; i < 50; i++) {
+            detector.record("user", "42");
+        }
+        detector.rotate();
+        assertEquals(1, notified.size());
+
+        // 窗口内没有读取后热点状态消失
+        detector.rotate();
+        assertFalse(detector.isHot("user", "42"));
+    }
+
+    @Test
+    void testSpaceSaving_HeavyHitterSurvivesEviction() {
+        HotKeyDetector detector = new HotKeyDetector(true, 4, 1, 1000, 100);
+        for (int i = 0; i < 1000; i++) {
+            detector.record("jwt:blacklist", "hot");
+            detector.record("jwt:blacklist", "cold-" + i);
+        }
+
+        detector.rotate();
+
+        List<HotKeyDetector.HotKey> top = detector.snapshot().get("jwt:blacklist");
+        assertEquals(4, top.size());
+        assertEquals("hot", top.get(0).key());
+        assertTrue(top.get(0).count() - top.get(0).error() >= 500);
+        assertTrue(top.get(0).hot());
+        assertTrue(detector.isHot("jwt:blacklist", "hot"));
+    }
+
+    @Test
+    void testMetrics_ExportHotKeyCountPerSource() {
+        HotKeyDetector detector = new HotKeyDetector(true, 8, 1, 1000, 1);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        detector.bindTo(registry);
+        detector.record("user", "1");
+        detector.record("user", "2");
+
+        detector.rotate();
+
+        assertEquals(2, registry.get("cache.hot.keys").tag("source", "user").gauge().value());
+        assertEquals(2, registry.get("cache.hot.key.detections").counter().count());
+    }
+
+    @Test
+    void testDisabled_RecordsNothing() {
+        HotKeyDetector detector = new HotKeyDetector(false, 8, 1, 1000, 1);
+        detector.record("user", "1");
+
+        detector.rotate();
+
+        assertFalse(detector.isHot("user", "1"));
+        assertEquals(Map.of(), detector.snapshot());
+    }
+}
@@ -0,0 +1,114 @@
+package com.costinsight.user.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class HotSetRecorderTest {
+
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private ZSetOperations<String, String> zSetOperations;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        zSetOperations = mock(ZSetOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(redisTemplate.opsForZSet()).thenReturn(zSetOperations);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFlush_MergesTopKeysAndTrimsSnapshot() {
+        HotSetRecorder recorder = new HotSetRecorder(redisTemplate, true, 100, 2, 0.5, 60000, 3600000);
+        recorder.record("user", "1");
+        recorder.record("user", "1");
+        recorder.record("user", "1");
+        recorder.record("user", "2");
+        recorder.record("user", "2");
+        recorder.record("user", "3");
+        when(valueOperations.setIfAbsent(eq("cache:hotset:user:decay"), eq("1"), any(Duration.class)))
+                .thenReturn(true);
+
+        recorder.flush();
+
+        verify(zSetOperations).unionAndStore(eq("cache:hotset:user"), eq(List.of()), eq("cache:hotset:user"),
+                eq(Aggregate.SUM), eq(Weights.of(0.5)));
+        ArgumentCaptor<RedisCallback<Object>> callback = ArgumentCaptor.forClass(RedisCallback.class);
+        verify(redisTemplate).executePipelined(callback.capture());
+        StringRedisConnection connection = mock(StringRedisConnection.class);
+        callback.getValue().doInRedis(connection);
+        // 只合并本周期最热的 snapshot-size 个键
+        verify(connection).zIncrBy("cache:hotset:user", 3, "1");
+        verify(connection).zIncrBy("cache:hotset:user", 2, "2");
+        verify(connection, never()).zIncrBy(anyString(), anyDouble(), eq("3"));
+        verify(connection).zRemRange("cache:hotset:user", 0, -3);
+        verify(connection).pExpire("cache:hotset:user", 3600000);
+    }
+
+    @Test
+    void testFlush_SkipsDecayWhenAnotherNodeOwnsTheTurn() {
+        HotSetRecorder recorder = new HotSetRecorder(redisTemplate, true, 100, 10, 0.5, 60000, 3600000);
+        recorder.record("user", "1");
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        recorder.flush();
+
+        verify(zSetOperations, never()).unionAndStore(anyString(), any(), anyString(), any(), any());
+        verify(redisTemplate).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testRecord_StopsTrackingNewKeysAtLimitAndResetsAfterFlush() {
+        HotSetRecorder recorder = new HotSetRecorder(redisTemplate, true, 1, 10, 0.5, 60000, 3600000);
+        recorder.record("user", "1");
+        recorder.record("user", "2");
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+
+        recorder.flush();
+        recorder.flush();
+
+        // 第二次 flush 没有新的计数，不再写 Redis
+        verify(redisTemplate, times(1)).executePipelined(any(RedisCallback.class));
+    }
+
+    @Test
+    void testTopKeys_ReadsByDescendingScore() {
+        HotSetRecorder recorder = new HotSetRecorder(redisTemplate, true, 100, 10, 0.5, 60000, 3600000);
+        when(zSetOperations.reverseRange("cache:hotset:user", 0, 1))
+                .thenReturn(new LinkedHashSet<>(List.of("9", "4")));
+
+        assertEquals(List.of("9", "4"), recorder.topKeys("user", 2));
+    }
+
+    @Test
+    void testDisabled_RecordsNothing() {
+        HotSetRecorder recorder = new HotSetRecorder(redisTemplate, false, 100, 10, 0.5, 60000, 3600000);
+        recorder.record("user", "1");
+
+        recorder.flush();
+
+        verifyNoInteractions(redisTemplate);
+    }
+}
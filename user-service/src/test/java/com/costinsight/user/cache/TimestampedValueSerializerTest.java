@@ -0,0 +1,34 @@
+package com.costinsight.user.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TimestampedValueSerializerTest {
+
+    private final TimestampedValueSerializer serializer = new TimestampedValueSerializer(RedisSerializer.byteArray());
+
+    @Test
+    void testRoundTripCarriesWriteTime() {
+        long before = System.currentTimeMillis();
+        byte[] bytes = serializer.serialize("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+
+        TimestampedValueSerializer.Timestamped read = (TimestampedValueSerializer.Timestamped) serializer.deserialize(bytes);
+
+        assertEquals(TimestampedValueSerializer.MAGIC, bytes[0]);
+        assertArrayEquals("{\"id\":1}".getBytes(StandardCharsets.UTF_8), (byte[]) read.value());
+        assertTrue(read.writtenAt() >= before && read.writtenAt() <= System.currentTimeMillis());
+    }
+
+    @Test
+    void testEntriesWithoutWriteTimeAreReadAsIs() {
+        // 加上写入时间之前写入的条目
+        byte[] legacy = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        assertArrayEquals(legacy, (byte[]) serializer.deserialize(legacy));
+        assertNull(serializer.deserialize(null));
+    }
+}
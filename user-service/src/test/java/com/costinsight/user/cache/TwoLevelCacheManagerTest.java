@@ -0,0 +1,145 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.config.CacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheManagerTest {
+
+    private ConcurrentMapCacheManager remote;
+    private StringRedisTemplate redisTemplate;
+    private TwoLevelCacheManager manager;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("user");
+        redisTemplate = mock(StringRedisTemplate.class);
+        manager = new TwoLevelCacheManager(remote, redisTemplate, properties(true, 1000, 0));
+    }
+
+    @Test
+    void testGet_ServedFromLocalAfterFirstRead() {
+        remote.getCache("user").put(1L, "alice");
+        TwoLevelCache cache = (TwoLevelCache) manager.getCache("user");
+
+        assertEquals("alice", cache.get(1L).get());
+        // 直接修改 L2，L1 仍返回已回填的值
+        remote.getCache("user").put(1L, "changed");
+        assertEquals("alice", cache.get(1L, String.class));
+        assertEquals(1, cache.localSize());
+    }
+
+    @Test
+    void testPut_UpdatesBothLevelsAndBroadcasts() {
+        Cache cache = manager.getCache("user");
+
+        cache.put(1L, "alice");
+
+        assertEquals("alice", remote.getCache("user").get(1L).get());
+        assertEquals("alice", cache.get(1L).get());
+        verify(redisTemplate).convertAndSend(eq(TwoLevelCacheManager.CHANNEL), endsWith("|user|1"));
+    }
+
+    @Test
+    void testEvict_RemovesBothLevelsAndBroadcasts() {
+        Cache cache = manager.getCache("user");
+        cache.put(1L, "alice");
+
+        cache.evict(1L);
+
+        assertNull(remote.getCache("user").get(1L));
+        assertNull(cache.get(1L));
+        verify(redisTemplate, times(2)).convertAndSend(eq(TwoLevelCacheManager.CHANNEL), endsWith("|user|1"));
+    }
+
+    @Test
+    void testOnMessage_FromOtherNodeEvictsLocalOnly() {
+        remote.getCache("user").put(1L, "alice");
+        TwoLevelCache cache = (TwoLevelCache) manager.getCache("user");
+        cache.get(1L);
+        remote.getCache("user").put(1L, "bob");
+
+        manager.onMessage(message("other-node|user|1"), null);
+
+        assertEquals("bob", cache.get(1L).get());
+    }
+
+    @Test
+    void testOnMessage_ClearAll() {
+        TwoLevelCache cache = (TwoLevelCache) manager.getCache("user");
+        cache.put(1L, "alice");
+        cache.put(2L, "bob");
+
+        manager.onMessage(message("other-node|user|" + TwoLevelCacheManager.CLEAR_ALL), null);
+
+        assertEquals(0, cache.localSize());
+    }
+
+    @Test
+    void testPut_RedisPublishFailureDoesNotPropagate() {
+        doThrow(new RuntimeException("connection refused"))
+                .when(redisTemplate).convertAndSend(anyString(), anyString());
+        Cache cache = manager.getCache("user");
+
+        assertDoesNotThrow(() -> cache.put(1L, "alice"));
+        assertEquals("alice", cache.get(1L).get());
+    }
+
+    @Test
+    void testGetCache_LocalDisabledReturnsRemoteCache() {
+        TwoLevelCacheManager disabled = new TwoLevelCacheManager(remote, redisTemplate, properties(false, 1000, 0));
+
+        assertSame(remote.getCache("user"), disabled.getCache("user"));
+    }
+
+    @Test
+    void testGetCache_AppliesPerCachePolicy() {
+        CacheProperties properties = properties(true, 1000, 0);
+        CacheProperties.Policy policy = new CacheProperties.Policy();
+        policy.setMaxSize(1L);
+        policy.setKeyPrefix("us:");
+        properties.getCaches().put("user", policy);
+        TwoLevelCacheManager configured = new TwoLevelCacheManager(remote, redisTemplate, properties);
+
+        assertEquals("us:user::42", configured.redisKey("user", 42L));
+        assertEquals(1L, configured.getPolicy("user").getMaxSize());
+        assertEquals(1000L, configured.getPolicy("other").getMaxSize());
+    }
+
+    @Test
+    void testBindTo_RegistersLocalAndLoaderMetrics() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        manager.bindTo(registry);
+        Cache cache = manager.getCache("user");
+        cache.get(1L, () -> "alice");
+        cache.get(1L);
+
+        assertNotNull(registry.find("cache.gets").tag("cache", "user").tag("level", "local").meter());
+        assertEquals(1, registry.get("cache.loader.duration").tag("cache", "user").timer().count());
+    }
+
+    private static CacheProperties properties(boolean localEnabled, long localMaxSize, double beta) {
+        CacheProperties properties = new CacheProperties();
+        properties.getLocal().setEnabled(localEnabled);
+        properties.getLocal().setMaxSize(localMaxSize);
+        properties.getEarlyRefresh().setBeta(beta);
+        return properties;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(TwoLevelCacheManager.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,311 @@
+package com.costinsight.user.cache;
+
+import com.costinsight.user.config.CacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TwoLevelCacheTest {
+
+    private ConcurrentMapCacheManager remote;
+    private StringRedisTemplate redisTemplate;
+    private ValueOperations<String, String> valueOperations;
+    private TwoLevelCacheManager manager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("user");
+        redisTemplate = mock(StringRedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (manager != null) {
+            manager.destroy();
+        }
+    }
+
+    @Test
+    void testGetWithLoader_SingleFlightWithinNode() throws Exception {
+        Cache cache = cache(Duration.ofSeconds(1), 0);
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(1L, () -> {
+                        loads.incrementAndGet();
+                        TimeUnit.MILLISECONDS.sleep(200);
+                        return "alice";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("alice", result.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        assertEquals("alice", remote.getCache("user").get(1L).get());
+    }
+
+    @Test
+    void testGetWithLoader_WaitsForNodeHoldingLock() throws Exception {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        Cache cache = cache(Duration.ofSeconds(2), 0);
+        Thread otherNode = new Thread(() -> {
+            try {
+                TimeUnit.MILLISECONDS.sleep(150);
+            } catch (InterruptedException e) {
+                return;
+            }
+            remote.getCache("user").put(1L, "from-other-node");
+        });
+        otherNode.start();
+
+        String value = cache.get(1L, () -> fail("Loader must not run while another node holds the lock"));
+
+        assertEquals("from-other-node", value);
+        otherNode.join();
+    }
+
+    @Test
+    void testGetWithLoader_LockWaitPollingIsNotCountedAsReads() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        HotKeyDetector detector = mock(HotKeyDetector.class);
+        CacheProperties properties = new CacheProperties();
+        properties.getStampede().setLockTtlMs(300);
+        manager = new TwoLevelCacheManager(remote, redisTemplate, properties, null, detector);
+
+        assertEquals("alice", manager.getCache("user").get(1L, () -> "alice"));
+        // 只有最初的一次读取，等锁期间的轮询不计入
+        verify(detector, times(1)).record("user", "1");
+    }
+
+    @Test
+    void testGetWithLoader_LoadsAfterLockWaitTimesOut() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(false);
+        Cache cache = cache(Duration.ofMillis(200), 0);
+
+        assertEquals("alice", cache.get(1L, () -> "alice"));
+    }
+
+    @Test
+    void testGetWithLoader_RedisUnavailableStillLoads() {
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RuntimeException("connection refused"));
+        Cache cache = cache(Duration.ofSeconds(1), 0);
+
+        assertEquals("alice", cache.get(1L, () -> "alice"));
+    }
+
+    @Test
+    void testGetWithLoader_LoaderFailureIsWrapped() {
+        Cache cache = cache(Duration.ofSeconds(1), 0);
+
+        assertThrows(Cache.ValueRetrievalException.class,
+                () -> cache.get(1L, () -> {
+                    throw new IllegalStateException("database down");
+                }));
+        // 失败后不应残留进行中的加载
+        assertEquals("alice", cache.get(1L, () -> "alice"));
+    }
+
+    @Test
+    void testGetWithLoader_EarlyRefreshWhenRemoteEntryExpiring() throws Exception {
+        // 本节点写入的条目 TTL 只有 1ms，XFetch 一定会触发后台刷新
+        Cache cache = cache(Duration.ofSeconds(1), 1.0, 1);
+        cache.put(1L, "old");
+        CountDownLatch refreshed = new CountDownLatch(1);
+
+        TimeUnit.MILLISECONDS.sleep(5);
+        String value = cache.get(1L, () -> {
+            refreshed.countDown();
+            return "new";
+        });
+
+        assertEquals("old", value);
+        assertTrue(refreshed.await(2, TimeUnit.SECONDS));
+        waitUntil(() -> "new".equals(remote.getCache("user").get(1L).get()));
+        assertEquals("new", cache.get(1L).get());
+    }
+
+    @Test
+    void testGetWithLoader_NoEarlyRefreshWhenDisabled() throws Exception {
+        Cache cache = cache(Duration.ofSeconds(1), 0, 1);
+        cache.put(1L, "old");
+        TimeUnit.MILLISECONDS.sleep(5);
+
+        assertEquals("old", cache.get(1L, () -> fail("Early refresh is disabled")));
+    }
+
+    @Test
+    void testGetWithLoader_EarlyRefreshOfEntryFilledFromRedisWithDefaultTtls() throws Exception {
+        // 出厂默认配置：L1 30 秒、Redis 600 秒、beta 1.0；本节点只从 Redis 回填，从未写入这些条目
+        CacheProperties properties = new CacheProperties();
+        long ttlMs = properties.defaultPolicy().getTtlMs();
+        RedisCacheWriter writer = mock(RedisCacheWriter.class);
+        RedisSerializer<Object> values = RedisSerializer.java();
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(writer)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(Duration.ofMillis(ttlMs))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                                new TimestampedValueSerializer(values))))
+                .build();
+        redisCacheManager.afterPropertiesSet();
+        manager = new TwoLevelCacheManager(redisCacheManager, redisTemplate, properties);
+        // 其他节点在一个 TTL 之前写入的条目 1 已到期，刚写入的条目 2 还有 600 秒
+        long now = System.currentTimeMillis();
+        when(writer.get(eq("user"), any(byte[].class))).thenAnswer(invocation -> {
+            String redisKey = new String(invocation.<byte[]>getArgument(1), StandardCharsets.UTF_8);
+            long writtenAt = redisKey.equals("user::1") ? now - ttlMs : now;
+            return TimestampedValueSerializer.encode(writtenAt, values.serialize("old"));
+        });
+        Cache cache = manager.getCache("user");
+        CountDownLatch refreshed = new CountDownLatch(1);
+        AtomicInteger freshLoads = new AtomicInteger();
+
+        assertEquals("old", cache.get(2L, () -> {
+            freshLoads.incrementAndGet();
+            return "new";
+        }));
+        assertEquals("old", cache.get(1L, () -> {
+            refreshed.countDown();
+            return "new";
+        }));
+
+        assertTrue(refreshed.await(2, TimeUnit.SECONDS));
+        verify(writer, timeout(2000)).put(eq("user"), eq("user::1".getBytes(StandardCharsets.UTF_8)),
+                any(byte[].class), any());
+        assertEquals(0, freshLoads.get());
+        verify(redisTemplate, never()).getExpire(anyString(), any(TimeUnit.class));
+    }
+
+    @Test
+    void testGet_RemoteFillDoesNotQueryTtl() {
+        remote.getCache("user").put(1L, "alice");
+        Cache cache = cache(Duration.ofSeconds(1), 1.0);
+
+        assertEquals("alice", cache.get(1L, () -> fail("Value is already in Redis")));
+        // L1 未命中只有一次 Redis 读取，不再追加 PTTL 往返
+        verify(redisTemplate, never()).getExpire(anyString(), any(TimeUnit.class));
+    }
+
+    @Test
+    void testGetAll_ReturnsLocalAndRemoteHitsAndBackfillsLocal() {
+        TwoLevelCache cache = (TwoLevelCache) cache(Duration.ofSeconds(1), 0);
+        cache.put(1L, "alice");
+        remote.getCache("user").put(2L, "bob");
+        remote.getCache("user").put(3L, null);
+
+        Map<String, Cache.ValueWrapper> hits = cache.getAll(List.of(1L, 2L, 3L, 4L));
+
+        assertEquals(List.of("1", "2", "3"), new ArrayList<>(hits.keySet()));
+        assertEquals("bob", hits.get("2").get());
+        assertNull(hits.get("3").get());
+        assertNotNull(cache.peekLocal(2L));
+        assertNull(cache.peekLocal(4L));
+    }
+
+    @Test
+    void testPutAllIfAbsent_KeepsExistingRemoteValues() {
+        TwoLevelCache cache = (TwoLevelCache) cache(Duration.ofSeconds(1), 0);
+        remote.getCache("user").put(1L, "existing");
+        Map<Long, String> values = new LinkedHashMap<>();
+        values.put(1L, "stale");
+        values.put(2L, "bob");
+        values.put(3L, null);
+
+        cache.putAllIfAbsent(values);
+
+        assertEquals("existing", remote.getCache("user").get(1L).get());
+        assertEquals("bob", remote.getCache("user").get(2L).get());
+        assertNotNull(remote.getCache("user").get(3L));
+        assertEquals("existing", cache.peekLocal(1L).get());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void testHotKey_PinnedInLocalBeyondLocalTtl() throws Exception {
+        CacheProperties properties = new CacheProperties();
+        properties.getLocal().setTtlMs(100);
+        properties.getLocal().setPinnedTtlMs(10_000);
+        properties.getEarlyRefresh().setBeta(0);
+        HotKeyDetector detector = new HotKeyDetector(true, 8, 1, 1000, 5);
+        manager = new TwoLevelCacheManager(remote, redisTemplate, properties, null, detector);
+        TwoLevelCache cache = (TwoLevelCache) manager.getCache("user");
+        remote.getCache("user").put(1L, "alice");
+        remote.getCache("user").put(2L, "bob");
+        for (int i = 0; i < 10; i++) {
+            cache.get(1L);
+        }
+        cache.get(2L);
+
+        // 检测到热点时已在 L1 中的条目立即延长 TTL
+        detector.rotate();
+        TimeUnit.MILLISECONDS.sleep(300);
+
+        assertNotNull(cache.peekLocal(1L));
+        assertNull(cache.peekLocal(2L));
+    }
+
+    private Cache cache(Duration lockTtl, double beta) {
+        return cache(lockTtl, beta, 600_000L);
+    }
+
+    private Cache cache(Duration lockTtl, double beta, long remoteTtlMs) {
+        CacheProperties properties = new CacheProperties();
+        properties.getDefaults().setTtlMs(remoteTtlMs);
+        properties.getStampede().setLockTtlMs(lockTtl.toMillis());
+        properties.getEarlyRefresh().setBeta(beta);
+        manager = new TwoLevelCacheManager(remote, redisTemplate, properties);
+        return manager.getCache("user");
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
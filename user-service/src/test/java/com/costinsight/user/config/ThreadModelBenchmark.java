@@ -0,0 +1,88 @@
+package com.costinsight.user.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 平台线程池与虚拟线程在阻塞 I/O 型请求下的吞吐与尾延迟对比
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=ThreadModelBenchmark
+ * </pre>
+ * 每个模拟请求先等待一个“连接池”许可，再睡眠模拟 MySQL / Redis 往返。
+ * 平台线程模型使用与 Tomcat 默认值相同的 200 线程池，虚拟线程模型每个请求一个虚拟线程，
+ * 两者共享同样大小的连接池，输出吞吐（req/s）与 p50 / p99 延迟（ms）。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱，连续两次运行）：
+ * <pre>
+ * model             req/s     p50 ms     p99 ms
+ * platform          10762      812.0     1615.5
+ * virtual            7053     1585.7     2514.6
+ *
+ * platform          10922      725.2     1525.3
+ * virtual            6744     1701.2     2670.9
+ * </pre>
+ * 全部请求一次性提交，延迟主要是排队时间；吞吐上限由连接池决定（64 个连接 × 每秒 200 次查询 = 12,800 req/s）。
+ * 单核只有一个载体线程，两万个虚拟线程在同一个信号量上排队、唤醒与调度都挤在这个载体上，
+ * 因此虚拟线程在这里反而更慢。连接池是瓶颈时虚拟线程不会带来收益，
+ * 这也是 virtual-threads profile 默认不启用、只在多核且阻塞等待占主导的部署中按需开启的原因。
+ */
+class ThreadModelBenchmark {
+
+    private static final int REQUESTS = 20_000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final int CONNECTION_POOL = 64;
+    private static final long IO_MILLIS = 5;
+
+    @Test
+    void reportThreadModels() throws Exception {
+        System.out.printf("%-10s %12s %10s %10s%n", "model", "req/s", "p50 ms", "p99 ms");
+        run("platform", Executors.newFixedThreadPool(PLATFORM_THREADS));
+        run("virtual", Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    private static void run(String model, ExecutorService executor) throws Exception {
+        Semaphore connections = new Semaphore(CONNECTION_POOL);
+        long[] latencies = new long[REQUESTS];
+        List<Future<?>> futures = new ArrayList<>(REQUESTS);
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < REQUESTS; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    simulateRequest(connections);
+                    latencies[index] = System.nanoTime() - submitted;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        Arrays.sort(latencies);
+        System.out.printf("%-10s %12.0f %10.1f %10.1f%n", model, REQUESTS / seconds,
+                latencies[REQUESTS / 2] / 1e6, latencies[(int) (REQUESTS * 0.99)] / 1e6);
+    }
+
+    private static void simulateRequest(Semaphore connections) throws InterruptedException {
+        // 一次数据库查询（受连接池限制）加一次 Redis 往返（不受限）
+        connections.acquire();
+        try {
+            TimeUnit.MILLISECONDS.sleep(IO_MILLIS);
+        } finally {
+            connections.release();
+        }
+        TimeUnit.MILLISECONDS.sleep(IO_MILLIS);
+    }
+}
@@ -1,9 +1,21 @@
 package com.costinsight.user.controller;
 
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.dto.AvailabilityResponse;
+import com.costinsight.user.dto.BatchValidateRequest;
 import com.costinsight.user.dto.JwtResponse;
 import com.costinsight.user.dto.LoginRequest;
+import com.costinsight.user.dto.RefreshTokenRequest;
 import com.costinsight.user.dto.RegisterRequest;
+import com.costinsight.user.dto.TokenValidationResult;
 import com.costinsight.user.dto.UserResponseVO;
+import com.costinsight.user.exception.ServiceBusyException;
+import com.costinsight.user.security.AuthRateLimiter;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
+import com.costinsight.user.service.TokenService;
 import com.costinsight.user.service.UserService;
 import com.costinsight.user.util.JwtUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -15,9 +27,15 @@ import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.util.List;
+
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -55,6 +73,24 @@ class AuthControllerTest {
     @MockBean
     private StringRedisTemplate stringRedisTemplate;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @MockBean
+    private RolePermissionTable rolePermissionTable;
+
+    @MockBean
+    private HotKeyDetector hotKeyDetector;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private AuthRateLimiter authRateLimiter;
+
     /**
      * 测试用户注册成功的情况。
      * 构造一个有效的 RegisterRequest 请求体，并模拟 userService 返回已注册的用户对象。
@@ -175,4 +211,209 @@ class AuthControllerTest {
                 .andExpect(jsonPath("$.code").value(401))
                 .andExpect(jsonPath("$.message").value("Invalid password"));
     }
+
+    /**
+     * 测试用户名/邮箱可用性检查。
+     * 模拟 userService 返回用户名可用、邮箱已占用，验证结果原样返回。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testCheckAvailability() throws Exception {
+        // Given
+        AvailabilityResponse availability = new AvailabilityResponse();
+        availability.setUsernameAvailable(true);
+        availability.setEmailAvailable(false);
+        when(userService.checkAvailability("fresh", "taken@example.com")).thenReturn(availability);
+
+        // When & Then
+        mockMvc.perform(get("/api/auth/availability")
+                        .param("username", "fresh")
+                        .param("email", "taken@example.com"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.usernameAvailable").value(true))
+                .andExpect(jsonPath("$.data.emailAvailable").value(false));
+    }
+
+    /**
+     * 测试可用性检查未提供任何参数的情况，验证返回 400。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testCheckAvailability_MissingParameters() throws Exception {
+        mockMvc.perform(get("/api/auth/availability"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    /**
+     * 测试登录被限流的情况。
+     * 模拟限流器要求等待 1.5 秒，验证返回 429、Retry-After 向上取整，且不会调用 userService。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testAuthenticateUser_RateLimited() throws Exception {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("testuser");
+        loginRequest.setPassword("Password123");
+
+        when(authRateLimiter.clientIp(any())).thenReturn("10.0.0.1");
+        when(authRateLimiter.checkLogin("10.0.0.1", "testuser")).thenReturn(1500L);
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isTooManyRequests()) // 429
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.code").value(429));
+        verify(userService, never()).login(any());
+    }
+
+    /**
+     * 测试密码哈希隔离舱已满时的登录情况。
+     * 模拟 userService 抛出 ServiceBusyException，验证返回 503 并带有 Retry-After 头。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testAuthenticateUser_ServiceBusy() throws Exception {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("testuser");
+        loginRequest.setPassword("Password123");
+
+        when(userService.login(any(LoginRequest.class)))
+                .thenThrow(new ServiceBusyException("Password hashing capacity exhausted", 2));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(loginRequest)))
+                .andExpect(status().isServiceUnavailable()) // 503
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.code").value(503));
+    }
+
+    /**
+     * 测试批量验证 Token 的情况。
+     * 模拟 tokenService 返回一个有效和一个已吊销的结果，验证结果按请求顺序返回。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testValidateTokens_Batch() throws Exception {
+        // Given
+        BatchValidateRequest request = new BatchValidateRequest();
+        request.setTokens(List.of("token-a", "token-b"));
+
+        TokenClaims claims = new TokenClaims("1", "jti-a", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(tokenService.validateBatch(List.of("token-a", "token-b"))).thenReturn(List.of(
+                TokenValidationResult.valid(claims),
+                TokenValidationResult.failed(TokenValidationResult.Status.REVOKED, "Token has been blacklisted and cannot be used.")));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].status").value("VALID"))
+                .andExpect(jsonPath("$.data[0].userId").value(1))
+                .andExpect(jsonPath("$.data[1].status").value("REVOKED"));
+    }
+
+    /**
+     * 测试批量数量超出上限的情况，验证返回状态码为 400。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testValidateTokens_TooMany() throws Exception {
+        // Given
+        BatchValidateRequest request = new BatchValidateRequest();
+        request.setTokens(List.of("token-a", "token-b"));
+
+        when(tokenService.validateBatch(any()))
+                .thenThrow(new IllegalArgumentException("At most 1 tokens can be validated per request"));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    /**
+     * 测试批量验证被限流的情况，验证返回 429 且不进行验签。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testValidateTokens_RateLimited() throws Exception {
+        // Given
+        BatchValidateRequest request = new BatchValidateRequest();
+        request.setTokens(List.of("token-a", "token-b"));
+
+        when(authRateLimiter.clientIp(any())).thenReturn("10.0.0.1");
+        when(authRateLimiter.checkValidateBatch("10.0.0.1")).thenReturn(800L);
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isTooManyRequests()) // 429
+                .andExpect(header().string("Retry-After", "1"))
+                .andExpect(jsonPath("$.code").value(429));
+        verify(tokenService, never()).validateBatch(any());
+    }
+
+    /**
+     * 测试使用刷新令牌换取新 Token 的情况，验证返回新的访问令牌和轮换后的刷新令牌。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testRefreshToken_Success() throws Exception {
+        // Given
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("old-refresh");
+
+        when(userService.refresh("old-refresh"))
+                .thenReturn(new JwtResponse("new-access", 900000L, "new-refresh", 1209600000L));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("Token refreshed successfully"))
+                .andExpect(jsonPath("$.data.token").value("new-access"))
+                .andExpect(jsonPath("$.data.refreshToken").value("new-refresh"));
+    }
+
+    /**
+     * 测试刷新令牌无效（已使用或已过期）的情况，验证返回状态码为 401。
+     *
+     * @throws Exception 如果在执行 MockMvc 请求时发生异常
+     */
+    @Test
+    void testRefreshToken_Invalid() throws Exception {
+        // Given
+        RefreshTokenRequest request = new RefreshTokenRequest();
+        request.setRefreshToken("reused-refresh");
+
+        when(userService.refresh("reused-refresh"))
+                .thenThrow(new IllegalArgumentException("Invalid or expired refresh token"));
+
+        // When & Then
+        mockMvc.perform(post("/api/auth/refresh")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isUnauthorized())
+                .andExpect(jsonPath("$.message").value("Invalid or expired refresh token"));
+    }
 }
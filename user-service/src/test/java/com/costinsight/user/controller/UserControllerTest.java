@@ -1,13 +1,18 @@
 package com.costinsight.user.controller;
 
+import com.costinsight.user.cache.HotKeyDetector;
 import com.costinsight.user.dto.ChangePasswordRequest;
 import com.costinsight.user.dto.UserResponseVO;
 import com.costinsight.user.dto.UserUpdateRequest;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
 import com.costinsight.user.service.UserService;
 import com.costinsight.user.util.JwtUtil;
+import com.costinsight.user.util.ResponseStatus;
+import com.costinsight.user.util.ResponseUtil;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.impl.DefaultClaims;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -15,7 +20,13 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -39,6 +50,18 @@ class UserControllerTest {
     @MockBean
     private StringRedisTemplate stringRedisTemplate;
 
+    @MockBean
+    private VerifiedTokenCache verifiedTokenCache;
+
+    @MockBean
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @MockBean
+    private RolePermissionTable rolePermissionTable;
+
+    @MockBean
+    private HotKeyDetector hotKeyDetector;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -47,10 +70,8 @@ class UserControllerTest {
         // Given
         Long currentUserId = 1L;
         String token = "dummy-token";
-        Claims claims = new DefaultClaims();
-        claims.setSubject(String.valueOf(currentUserId));
-        claims.put("jti", "dummy-jti");
-        when(jwtUtil.parseTokenAndGetClaims(token)).thenReturn(claims);
+        TokenClaims claims = new TokenClaims(String.valueOf(currentUserId), "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
 
         UserUpdateRequest updateRequest = new UserUpdateRequest();
         updateRequest.setEmail("new.email@example.com");
@@ -79,16 +100,15 @@ class UserControllerTest {
         // Given
         Long userId = 1L;
         String token = "dummy-token";
-        Claims claims = new DefaultClaims();
-        claims.setSubject(String.valueOf(userId));
-        claims.put("jti", "dummy-jti");
-        when(jwtUtil.parseTokenAndGetClaims(token)).thenReturn(claims);
+        TokenClaims claims = new TokenClaims(String.valueOf(userId), "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
 
         UserResponseVO userVO = new UserResponseVO();
         userVO.setId(userId);
         userVO.setUsername("testuser");
 
-        when(userService.findUserById(userId)).thenReturn(userVO);
+        when(userService.findUserResponseBody(userId)).thenReturn(
+                objectMapper.writeValueAsBytes(ResponseUtil.successBody(userVO, ResponseStatus.SUCCESS)));
 
         // When & Then
         mockMvc.perform(get("/api/users/{id}", userId)
@@ -99,15 +119,70 @@ class UserControllerTest {
                 .andExpect(jsonPath("$.data.username").value("testuser"));
     }
 
+    @Test
+    void testGetUser_PreSerializedBodyMatchesMappedResponse() throws Exception {
+        // Given
+        Long userId = 1L;
+        String token = "dummy-token";
+        TokenClaims claims = new TokenClaims(String.valueOf(userId), "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
+
+        UserResponseVO userVO = new UserResponseVO();
+        userVO.setId(userId);
+        userVO.setUsername("testuser");
+        userVO.setEmail("test@example.com");
+        userVO.setCreatedAt(LocalDateTime.of(2024, 5, 1, 8, 30, 15));
+        userVO.setUpdatedAt(LocalDateTime.of(2024, 6, 2, 9, 45));
+        when(userService.updateUserById(eq(userId), any(UserUpdateRequest.class))).thenReturn(userVO);
+        when(userService.findUserResponseBody(userId)).thenReturn(
+                objectMapper.writeValueAsBytes(ResponseUtil.successBody(userVO, ResponseStatus.SUCCESS)));
+        UserUpdateRequest updateRequest = new UserUpdateRequest();
+        updateRequest.setEmail("test@example.com");
+
+        // When：PUT /me 仍由 Jackson 消息转换器序列化同样的响应体
+        MvcResult mapped = mockMvc.perform(put("/api/users/me")
+                        .header("Authorization", "Bearer " + token)
+                        .requestAttr("userId", userId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(updateRequest)))
+                .andReturn();
+        MvcResult raw = mockMvc.perform(get("/api/users/{id}", userId)
+                        .header("Authorization", "Bearer " + token))
+                .andReturn();
+
+        // Then
+        assertArrayEquals(mapped.getResponse().getContentAsByteArray(), raw.getResponse().getContentAsByteArray());
+        assertEquals(mapped.getResponse().getContentType(), raw.getResponse().getContentType());
+    }
+
+    @Test
+    void testGetUsers_ReturnsInRequestOrder() throws Exception {
+        // Given
+        String token = "dummy-token";
+        TokenClaims claims = new TokenClaims("1", "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
+
+        UserResponseVO second = new UserResponseVO();
+        second.setId(2L);
+        UserResponseVO first = new UserResponseVO();
+        first.setId(1L);
+        when(userService.findUsersByIds(List.of(2L, 1L))).thenReturn(List.of(second, first));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("ids", "2,1")
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].id").value(2))
+                .andExpect(jsonPath("$.data[1].id").value(1));
+    }
+
     @Test
     void testChangeCurrentUserPassword_Success() throws Exception {
         // Given
         Long currentUserId = 1L;
         String token = "dummy-token";
-        Claims claims = new DefaultClaims();
-        claims.setSubject(String.valueOf(currentUserId));
-        claims.put("jti", "dummy-jti");
-        when(jwtUtil.parseTokenAndGetClaims(token)).thenReturn(claims);
+        TokenClaims claims = new TokenClaims(String.valueOf(currentUserId), "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
 
         ChangePasswordRequest request = new ChangePasswordRequest();
         request.setOldPassword("OldPassword123");
@@ -132,10 +207,8 @@ class UserControllerTest {
         // Given
         Long currentUserId = 1L;
         String token = "dummy-token";
-        Claims claims = new DefaultClaims();
-        claims.setSubject(String.valueOf(currentUserId));
-        claims.put("jti", "dummy-jti");
-        when(jwtUtil.parseTokenAndGetClaims(token)).thenReturn(claims);
+        TokenClaims claims = new TokenClaims(String.valueOf(currentUserId), "dummy-jti", 0L, Long.MAX_VALUE, "ROLE_USER");
+        when(jwtUtil.verifyToken(token)).thenReturn(claims);
 
         ChangePasswordRequest request = new ChangePasswordRequest();
         request.setOldPassword("WrongOldPassword123");
@@ -0,0 +1,120 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AuthRateLimiterTest {
+
+    private static AuthRateLimiter localOnly(int identifierBurst) {
+        return new AuthRateLimiter(null, true, false, false, 1024, 600, 100, 1, identifierBurst, 120, 30, 600, 100);
+    }
+
+    @Test
+    void testIdentifierBurstIsEnforced() {
+        AuthRateLimiter limiter = localOnly(3);
+
+        assertEquals(0L, limiter.checkLogin("10.0.0.1", "alice"));
+        assertEquals(0L, limiter.checkLogin("10.0.0.2", "Alice"));
+        assertEquals(0L, limiter.checkLogin("10.0.0.3", "alice "));
+        long wait = limiter.checkLogin("10.0.0.4", "alice");
+
+        // 每分钟 1 次：第 4 次需要等待约 1 分钟
+        assertTrue(wait > 50_000L && wait <= 60_000L, "wait=" + wait);
+        assertEquals(0L, limiter.checkLogin("10.0.0.4", "bob"));
+    }
+
+    @Test
+    void testIdentifierBucketIgnoresDefaultLocale() {
+        Locale defaultLocale = Locale.getDefault();
+        // 土耳其语环境下 "I" 默认转为无点的 "ı"，不能因此让 "ADMIN" 与 "admin" 分属不同的桶
+        Locale.setDefault(Locale.forLanguageTag("tr-TR"));
+        try {
+            AuthRateLimiter limiter = localOnly(1);
+
+            assertEquals(0L, limiter.checkLogin("10.0.0.1", "admin"));
+            assertTrue(limiter.checkLogin("10.0.0.2", "ADMIN") > 0);
+        } finally {
+            Locale.setDefault(defaultLocale);
+        }
+    }
+
+    @Test
+    void testIpBurstIsEnforced() {
+        AuthRateLimiter limiter = new AuthRateLimiter(null, true, false, false, 1024, 1, 2, 600, 100, 120, 30, 600, 100);
+
+        assertEquals(0L, limiter.checkRegister("10.0.0.1"));
+        assertEquals(0L, limiter.checkRegister("10.0.0.1"));
+        assertTrue(limiter.checkRegister("10.0.0.1") > 0);
+        assertTrue(limiter.checkLogin("10.0.0.1", "alice") > 0);
+        assertEquals(0L, limiter.checkRegister("10.0.0.2"));
+    }
+
+    @Test
+    void testValidateBatchHasItsOwnBudget() {
+        AuthRateLimiter limiter = new AuthRateLimiter(null, true, false, false, 1024, 1, 1, 600, 100, 120, 30, 1, 2);
+
+        assertEquals(0L, limiter.checkValidateBatch("10.0.0.1"));
+        assertEquals(0L, limiter.checkValidateBatch("10.0.0.1"));
+        assertTrue(limiter.checkValidateBatch("10.0.0.1") > 0);
+        // 批量验证的额度与注册互不影响
+        assertEquals(0L, limiter.checkRegister("10.0.0.1"));
+        assertEquals(0L, limiter.checkValidateBatch("10.0.0.2"));
+    }
+
+    @Test
+    void testDisabledAllowsEverything() {
+        AuthRateLimiter limiter = new AuthRateLimiter(null, false, false, false, 1024, 1, 1, 1, 1, 120, 30, 600, 100);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0L, limiter.checkLogin("10.0.0.1", "alice"));
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGlobalLimitFromRedis() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(2500L);
+        AuthRateLimiter limiter = new AuthRateLimiter(redisTemplate, true, true, false, 1024, 600, 100, 600, 100, 120, 30, 600, 100);
+
+        assertEquals(2500L, limiter.checkLogin("10.0.0.1", "Alice"));
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("rl:ip:10.0.0.1", "rl:id:alice")),
+                any(Object[].class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRedisFailureFallsBackToLocalLimits() {
+        StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        AuthRateLimiter limiter = new AuthRateLimiter(redisTemplate, true, true, false, 1024, 600, 100, 600, 100, 120, 30, 600, 100);
+
+        assertEquals(0L, limiter.checkLogin("10.0.0.1", "alice"));
+    }
+
+    @Test
+    void testForwardedForIsOnlyTrustedWhenEnabled() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("192.168.1.10");
+        request.addHeader("X-Forwarded-For", "203.0.113.7, 192.168.1.10");
+
+        assertEquals("192.168.1.10", localOnly(1).clientIp(request));
+        assertEquals("203.0.113.7",
+                new AuthRateLimiter(null, true, false, true, 1024, 1, 1, 1, 1, 120, 30, 600, 100).clientIp(request));
+    }
+}
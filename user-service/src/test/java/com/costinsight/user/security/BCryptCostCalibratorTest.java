@@ -0,0 +1,26 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BCryptCostCalibratorTest {
+
+    @Test
+    void testCostDoublesUntilTarget() {
+        // 下限代价 10 耗时 60ms：11 -> 120ms，12 -> 240ms，13 -> 480ms 超出 250ms
+        assertEquals(12, BCryptCostCalibrator.costFor(60_000_000L, 10, 14, 250));
+    }
+
+    @Test
+    void testCostIsClampedToBounds() {
+        assertEquals(10, BCryptCostCalibrator.costFor(900_000_000L, 10, 14, 250));
+        assertEquals(14, BCryptCostCalibrator.costFor(1_000L, 10, 14, 250));
+    }
+
+    @Test
+    void testCalibrateOnThisMachine() {
+        int cost = BCryptCostCalibrator.calibrate(50, 4, 8);
+        assertTrue(cost >= 4 && cost <= 8);
+    }
+}
@@ -0,0 +1,103 @@
+package com.costinsight.user.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtKeyRingTest {
+
+    @Test
+    void testHmacAlgorithm_KeyRingDisabled() {
+        JwtKeyRing keyRing = new JwtKeyRing(new MockEnvironment(), "HS512");
+        keyRing.init();
+
+        assertFalse(keyRing.isAsymmetric());
+        assertEquals("{\"keys\":[]}", keyRing.getJwksJson());
+        assertThrows(IllegalStateException.class, keyRing::getActiveKey);
+    }
+
+    @Test
+    void testConfiguredRsaKeys_ActiveKidAndJwks() throws Exception {
+        KeyPair current = rsaKeyPair();
+        KeyPair previous = rsaKeyPair();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.jwt.key-ring.active-kid", "2024-02")
+                .withProperty("app.jwt.key-ring.keys[0].kid", "2024-02")
+                .withProperty("app.jwt.key-ring.keys[0].private-key", pem(current.getPrivate().getEncoded()))
+                .withProperty("app.jwt.key-ring.keys[1].kid", "2024-01")
+                .withProperty("app.jwt.key-ring.keys[1].public-key", pem(previous.getPublic().getEncoded()));
+
+        JwtKeyRing keyRing = new JwtKeyRing(environment, "RS256");
+        keyRing.init();
+
+        assertEquals("2024-02", keyRing.getActiveKey().getKid());
+        assertEquals(current.getPublic(), keyRing.getVerificationKey("2024-02"));
+        assertEquals(previous.getPublic(), keyRing.getVerificationKey("2024-01"));
+        assertNull(keyRing.getVerificationKey("unknown"));
+
+        JsonNode keys = new ObjectMapper().readTree(keyRing.getJwksJson()).get("keys");
+        assertEquals(2, keys.size());
+        assertEquals("RSA", keys.get(0).get("kty").asText());
+        assertEquals("RS256", keys.get(0).get("alg").asText());
+        assertNull(keys.get(0).get("d"), "JWKS must not expose private material");
+    }
+
+    @Test
+    void testReload_EtagChangesOnlyWhenKeysChange() throws Exception {
+        KeyPair keyPair = rsaKeyPair();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.jwt.key-ring.keys[0].kid", "k1")
+                .withProperty("app.jwt.key-ring.keys[0].private-key", pem(keyPair.getPrivate().getEncoded()));
+        JwtKeyRing keyRing = new JwtKeyRing(environment, "RS256");
+        keyRing.init();
+        String etag = keyRing.getJwksEtag();
+
+        keyRing.reload();
+        assertEquals(etag, keyRing.getJwksEtag());
+
+        environment.setProperty("app.jwt.key-ring.keys[0].kid", "k2");
+        keyRing.reload();
+        assertNotEquals(etag, keyRing.getJwksEtag());
+        assertEquals("k2", keyRing.getActiveKey().getKid());
+    }
+
+    @Test
+    void testNoConfiguredKeys_GeneratesEphemeralEcKey() {
+        JwtKeyRing keyRing = new JwtKeyRing(new MockEnvironment(), "ES256");
+        keyRing.init();
+
+        JwtKeyRing.KeyEntry active = keyRing.getActiveKey();
+        assertEquals(SignatureAlgorithm.ES256, active.getAlgorithm());
+        assertEquals(active.getPublicKey(), keyRing.getVerificationKey(active.getKid()));
+        assertTrue(keyRing.getJwksJson().contains("\"crv\":\"P-256\""));
+    }
+
+    @Test
+    void testActiveKidWithoutPrivateKey_Rejected() throws Exception {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.jwt.key-ring.active-kid", "k1")
+                .withProperty("app.jwt.key-ring.keys[0].kid", "k1")
+                .withProperty("app.jwt.key-ring.keys[0].public-key", pem(rsaKeyPair().getPublic().getEncoded()));
+        JwtKeyRing keyRing = new JwtKeyRing(environment, "RS256");
+
+        assertThrows(IllegalStateException.class, keyRing::init);
+    }
+
+    private static KeyPair rsaKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String pem(byte[] der) {
+        return "-----BEGIN KEY-----\n" + Base64.getMimeEncoder().encodeToString(der) + "\n-----END KEY-----";
+    }
+}
@@ -0,0 +1,85 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.exception.ServiceBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHasherTest {
+
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.destroy();
+        }
+    }
+
+    @Test
+    void testEncodeAndMatchesDelegateToBcrypt() {
+        hasher = new PasswordHasher(new BCryptPasswordEncoder(4), 2, 4, 5000L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hasher.bindTo(registry);
+
+        String hash = hasher.encode("secret");
+
+        assertTrue(hasher.matches("secret", hash));
+        assertFalse(hasher.matches("other", hash));
+        assertEquals(3, registry.get("password.hasher.execution").timer().count());
+        assertEquals(3, registry.get("password.hasher.wait").timer().count());
+    }
+
+    @Test
+    void testRejectsWhenQueueIsFull() throws Exception {
+        BCryptPasswordEncoder encoder = mock(BCryptPasswordEncoder.class);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.encode("slow")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return "hash";
+        });
+        hasher = new PasswordHasher(encoder, 1, 1, 5000L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        hasher.bindTo(registry);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> hasher.encode("slow"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> hasher.encode("slow"));
+        while (hasher.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+
+        ServiceBusyException e = assertThrows(ServiceBusyException.class, () -> hasher.encode("slow"));
+        assertTrue(e.getRetryAfterSeconds() >= 1);
+        assertEquals(1.0, registry.get("password.hasher.rejected").counter().count());
+
+        release.countDown();
+        assertEquals("hash", running.get(5, TimeUnit.SECONDS));
+        assertEquals("hash", queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testTimesOutWhenWaitExceedsLimit() throws Exception {
+        BCryptPasswordEncoder encoder = mock(BCryptPasswordEncoder.class);
+        CountDownLatch release = new CountDownLatch(1);
+        when(encoder.matches("slow", "hash")).thenAnswer(invocation -> release.await(5, TimeUnit.SECONDS));
+        hasher = new PasswordHasher(encoder, 1, 4, 50L);
+
+        try {
+            assertThrows(ServiceBusyException.class, () -> hasher.matches("slow", "hash"));
+        } finally {
+            release.countDown();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshTokenStoreTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new RefreshTokenStore(redisTemplate, tokenRevocationRegistry, 60000L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void testIssue_StoresDigestNotToken() {
+        String refreshToken = store.issue(7L);
+
+        ArgumentCaptor<String> key = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> value = ArgumentCaptor.forClass(String.class);
+        verify(valueOperations).set(key.capture(), value.capture(), eq(60000L), eq(TimeUnit.MILLISECONDS));
+        assertTrue(key.getValue().startsWith(RefreshTokenStore.KEY_PREFIX));
+        assertFalse(key.getValue().contains(refreshToken));
+        assertTrue(value.getValue().startsWith("7|"));
+        assertNotEquals(refreshToken, store.issue(7L));
+    }
+
+    @Test
+    void testConsume_ReturnsUserOnce() {
+        long issuedAt = System.currentTimeMillis() / 1000;
+        when(valueOperations.getAndDelete(anyString())).thenReturn("7|" + issuedAt).thenReturn(null);
+
+        assertEquals(7L, store.consume("refresh-token"));
+        assertNull(store.consume("refresh-token"));
+    }
+
+    @Test
+    void testConsume_RejectedAfterUserEpoch() {
+        long issuedAt = System.currentTimeMillis() / 1000;
+        when(valueOperations.getAndDelete(anyString())).thenReturn("7|" + issuedAt);
+        when(tokenRevocationRegistry.isIssuedBeforeUserEpoch("7", issuedAt)).thenReturn(true);
+
+        assertNull(store.consume("refresh-token"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testConsume_RejectedAfterResyncForOldEpoch() {
+        // 访问令牌 15 分钟、刷新令牌 14 天；纪元写入于 1 小时前，早已超出访问令牌有效期
+        TokenRevocationRegistry registry = new TokenRevocationRegistry(redisTemplate, 900_000L, 1_209_600_000L);
+        RefreshTokenStore refreshTokenStore = new RefreshTokenStore(redisTemplate, registry, 1_209_600_000L);
+        long now = System.currentTimeMillis() / 1000;
+        HashOperations<String, Object, Object> hashOperations = mock(HashOperations.class);
+        Cursor<String> cursor = mock(Cursor.class);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(hashOperations.entries(TokenRevocationRegistry.USER_EPOCH_KEY))
+                .thenReturn(Map.of("7", String.valueOf(now - 3600)));
+        registry.resync();
+
+        // 纪元之前签发的刷新令牌不能再换取新 Token
+        when(valueOperations.getAndDelete(anyString())).thenReturn("7|" + (now - 7200));
+
+        assertNull(refreshTokenStore.consume("refresh-token"));
+    }
+
+    @Test
+    void testRevoke_OnlyOwnToken() {
+        when(valueOperations.get(anyString())).thenReturn("7|100");
+
+        store.revoke("refresh-token", 8L);
+        verify(redisTemplate, never()).delete(anyString());
+
+        store.revoke("refresh-token", 7L);
+        verify(redisTemplate).delete(anyString());
+    }
+}
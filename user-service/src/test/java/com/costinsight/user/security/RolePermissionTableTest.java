@@ -0,0 +1,52 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.constant.RoleConstants;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RolePermissionTableTest {
+
+    @Test
+    void testDefaults() {
+        RolePermissionTable table = new RolePermissionTable(new MockEnvironment());
+        table.init();
+
+        long user = table.permissionsOf(RoleConstants.ROLE_USER);
+        assertNotEquals(0L, user & Permission.USER_READ.mask());
+        assertEquals(0L, user & Permission.USER_ADMIN.mask());
+        assertEquals(Permission.all(), table.permissionsOf(RoleConstants.ROLE_ADMIN));
+        assertEquals(0L, table.permissionsOf("ROLE_UNKNOWN"));
+        assertEquals(0L, table.permissionsOf(null));
+    }
+
+    @Test
+    void testReload_ReplacesTable() {
+        MockEnvironment environment = new MockEnvironment();
+        RolePermissionTable table = new RolePermissionTable(environment);
+        table.init();
+
+        environment.setProperty("app.security.roles[0].role", "ROLE_AUDITOR");
+        environment.setProperty("app.security.roles[0].permissions[0]", "USER_READ");
+        environment.setProperty("app.security.roles[0].permissions[1]", "CACHE_ADMIN");
+        environment.setProperty("app.security.roles[1].role", RoleConstants.ROLE_ADMIN);
+        environment.setProperty("app.security.roles[1].permissions[0]", "*");
+        table.reload();
+
+        assertEquals(Permission.maskOf(Permission.USER_READ, Permission.CACHE_ADMIN), table.permissionsOf("ROLE_AUDITOR"));
+        assertEquals(Permission.all(), table.permissionsOf(RoleConstants.ROLE_ADMIN));
+        // 配置中未列出的角色不再有任何权限
+        assertEquals(0L, table.permissionsOf(RoleConstants.ROLE_USER));
+    }
+
+    @Test
+    void testReload_UnknownPermissionRejected() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("app.security.roles[0].role", RoleConstants.ROLE_USER)
+                .withProperty("app.security.roles[0].permissions[0]", "NO_SUCH_PERMISSION");
+        RolePermissionTable table = new RolePermissionTable(environment);
+
+        assertThrows(IllegalStateException.class, table::init);
+    }
+}
@@ -0,0 +1,127 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.HashOperations;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenRevocationRegistryTest {
+
+    private static final long EXPIRATION_MS = 86400000L;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private HashOperations<String, Object, Object> hashOperations;
+
+    @Mock
+    private Cursor<String> cursor;
+
+    private TokenRevocationRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new TokenRevocationRegistry(redisTemplate, EXPIRATION_MS, EXPIRATION_MS);
+        when(redisTemplate.<Object, Object>opsForHash()).thenReturn(hashOperations);
+    }
+
+    @Test
+    void testRevokeAllForUser_RevokesTokensIssuedBeforeEpoch() {
+        // 完成首次同步，之后只查询本地镜像
+        syncWith(Map.of());
+        long now = System.currentTimeMillis() / 1000;
+
+        registry.revokeAllForUser(1L);
+
+        verify(hashOperations).put(eq(TokenRevocationRegistry.USER_EPOCH_KEY), eq("1"), any());
+        verify(redisTemplate).convertAndSend(eq(TokenRevocationRegistry.CHANNEL), startsWith("user:1|"));
+        assertTrue(registry.isRevoked(claims("1", now - 60)));
+        assertFalse(registry.isRevoked(claims("1", now + 60)));
+        assertFalse(registry.isRevoked(claims("2", now - 60)));
+    }
+
+    @Test
+    void testEpochMessage_UpdatesLocalMirror() {
+        syncWith(Map.of());
+        long now = System.currentTimeMillis() / 1000;
+
+        registry.onMessage(new DefaultMessage(TokenRevocationRegistry.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                ("user:7|" + now).getBytes(StandardCharsets.UTF_8)), null);
+
+        assertTrue(registry.isRevoked(claims("7", now - 1)));
+        boolean[] revoked = registry.areRevoked(List.of(claims("7", now - 1), claims("7", now)));
+        assertArrayEquals(new boolean[]{true, false}, revoked);
+    }
+
+    @Test
+    void testRevokeAllForUser_SameSecondBoundary() {
+        syncWith(Map.of());
+        long before = System.currentTimeMillis() / 1000;
+
+        registry.revokeAllForUser(1L);
+        long after = System.currentTimeMillis() / 1000;
+
+        // 吊销前同一秒内签发的 Token 失效，吊销返回后立即签发的 Token（如改密后重新登录）仍然有效
+        assertTrue(registry.isRevoked(claims("1", before)));
+        assertFalse(registry.isRevoked(claims("1", after)));
+        assertFalse(registry.isIssuedBeforeUserEpoch("1", after));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testResync_LoadsEpochsAndDropsStaleOnes() {
+        long now = System.currentTimeMillis() / 1000;
+        long stale = now - EXPIRATION_MS / 1000 - 60;
+
+        syncWith(Map.of("1", String.valueOf(now), "2", String.valueOf(stale)));
+
+        assertTrue(registry.isRevoked(claims("1", now - 10)));
+        assertFalse(registry.isRevoked(claims("2", stale - 10)));
+        // 过期的纪元同时从 Redis 哈希中删除，仍有效的纪元不受影响
+        verify(redisTemplate).execute(any(RedisScript.class), eq(List.of(TokenRevocationRegistry.USER_EPOCH_KEY)),
+                anyString(), eq("2"));
+    }
+
+    @Test
+    void testResync_KeepsEpochsForRefreshTokenLifetime() {
+        // 访问令牌 15 分钟、刷新令牌 14 天：1 小时前的纪元仍需约束刷新令牌
+        registry = new TokenRevocationRegistry(redisTemplate, 900_000L, 1_209_600_000L);
+        long now = System.currentTimeMillis() / 1000;
+        long epoch = now - 3600;
+
+        syncWith(Map.of("1", String.valueOf(epoch)));
+
+        assertTrue(registry.isIssuedBeforeUserEpoch("1", epoch - 3600));
+        assertFalse(registry.isIssuedBeforeUserEpoch("1", epoch + 1));
+    }
+
+    private void syncWith(Map<Object, Object> epochs) {
+        when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(cursor);
+        when(cursor.hasNext()).thenReturn(false);
+        when(hashOperations.entries(TokenRevocationRegistry.USER_EPOCH_KEY)).thenReturn(epochs);
+        registry.resync();
+    }
+
+    private static TokenClaims claims(String subject, long issuedAt) {
+        return new TokenClaims(subject, "jti-" + subject + "-" + issuedAt, issuedAt, Long.MAX_VALUE, "ROLE_USER");
+    }
+}
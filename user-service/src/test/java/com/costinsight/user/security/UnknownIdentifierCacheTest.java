@@ -0,0 +1,43 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UnknownIdentifierCacheTest {
+
+    @Test
+    void testMarkAndForget() {
+        UnknownIdentifierCache cache = new UnknownIdentifierCache(100, 60000L);
+
+        assertFalse(cache.isUnknown("ghost"));
+        cache.markUnknown("ghost");
+        cache.markUnknown("ghost@example.com");
+        assertTrue(cache.isUnknown("ghost"));
+
+        cache.forget("ghost", "ghost@example.com");
+        assertFalse(cache.isUnknown("ghost"));
+        assertFalse(cache.isUnknown("ghost@example.com"));
+    }
+
+    @Test
+    void testIdentifiersAreCaseInsensitive() {
+        UnknownIdentifierCache cache = new UnknownIdentifierCache(100, 60000L);
+
+        cache.markUnknown("Ghost@Example.com");
+        assertTrue(cache.isUnknown("ghost@example.com"));
+
+        cache.forget("GHOST@EXAMPLE.COM", null);
+        assertFalse(cache.isUnknown("Ghost@Example.com"));
+    }
+
+    @Test
+    void testEntriesExpire() throws InterruptedException {
+        UnknownIdentifierCache cache = new UnknownIdentifierCache(100, 20L);
+        cache.markUnknown("ghost");
+
+        Thread.sleep(50L);
+
+        assertFalse(cache.isUnknown("ghost"));
+    }
+}
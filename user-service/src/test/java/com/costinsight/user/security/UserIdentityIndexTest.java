@@ -0,0 +1,112 @@
+package com.costinsight.user.security;
+
+import com.costinsight.user.entity.User;
+import com.costinsight.user.mapper.UserMapper;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserIdentityIndexTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private UserIdentityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new UserIdentityIndex(userMapper, redisTemplate, 1000);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenRows(String... usernameEmailPairs) {
+        when(userMapper.selectCount(null)).thenReturn((long) usernameEmailPairs.length / 2);
+        doAnswer(invocation -> {
+            ResultHandler<User> handler = invocation.getArgument(0);
+            for (int i = 0; i < usernameEmailPairs.length; i += 2) {
+                User user = new User();
+                user.setUsername(usernameEmailPairs[i]);
+                user.setEmail(usernameEmailPairs[i + 1]);
+                ResultContext<User> context = mock(ResultContext.class);
+                when(context.getResultObject()).thenReturn(user);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(userMapper).scanIdentities(any());
+    }
+
+    @Test
+    void testNotReadyBeforeFirstRebuild() {
+        assertFalse(index.isUsernameDefinitelyFree("anyone"));
+        assertFalse(index.isEmailDefinitelyFree("anyone@example.com"));
+    }
+
+    @Test
+    void testRebuildIndexesExistingIdentities() {
+        givenRows("alice", "alice@example.com", "Bob", "bob@example.com");
+
+        index.rebuild();
+
+        assertTrue(index.isReady());
+        assertFalse(index.isUsernameDefinitelyFree("alice"));
+        assertFalse(index.isUsernameDefinitelyFree("BOB"));
+        assertFalse(index.isEmailDefinitelyFree("alice@example.com"));
+        assertTrue(index.isUsernameDefinitelyFree("carol"));
+        // 用户名和邮箱分属不同命名空间
+        assertTrue(index.isEmailDefinitelyFree("alice"));
+    }
+
+    @Test
+    void testAddIsVisibleLocallyAndBroadcast() {
+        givenRows();
+        index.rebuild();
+
+        index.add("carol", "carol@example.com");
+
+        assertFalse(index.isUsernameDefinitelyFree("carol"));
+        assertFalse(index.isEmailDefinitelyFree("carol@example.com"));
+        verify(redisTemplate).convertAndSend(eq(UserIdentityIndex.CHANNEL), eq("u:carol\ne:carol@example.com"));
+    }
+
+    @Test
+    void testBroadcastFromOtherNodeIsApplied() {
+        givenRows();
+        index.rebuild();
+
+        index.onMessage(new DefaultMessage(UserIdentityIndex.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                "e:dave@example.com".getBytes(StandardCharsets.UTF_8)), null);
+
+        assertFalse(index.isEmailDefinitelyFree("dave@example.com"));
+        assertTrue(index.isUsernameDefinitelyFree("dave"));
+    }
+
+    @Test
+    void testFailedRebuildKeepsIndexNotReady() {
+        when(userMapper.selectCount(null)).thenThrow(new RuntimeException("db down"));
+
+        index.rebuild();
+
+        assertFalse(index.isReady());
+        assertFalse(index.isUsernameDefinitelyFree("anyone"));
+    }
+}
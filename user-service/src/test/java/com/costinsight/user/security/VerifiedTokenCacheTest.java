@@ -0,0 +1,44 @@
+package com.costinsight.user.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VerifiedTokenCacheTest {
+
+    private VerifiedTokenCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new VerifiedTokenCache(100, 60000L);
+    }
+
+    @Test
+    void testPutAndGet() {
+        TokenClaims claims = new TokenClaims("1", "jti-1", 0L, System.currentTimeMillis() + 60000L, "ROLE_USER");
+        cache.put("token-1", claims);
+
+        assertSame(claims, cache.get("token-1"));
+        assertNull(cache.get("token-2"));
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    void testExpiredTokenIsNotReturned() {
+        TokenClaims claims = new TokenClaims("1", "jti-1", 0L, System.currentTimeMillis() - 1000L, "ROLE_USER");
+        cache.put("token-1", claims);
+
+        assertNull(cache.get("token-1"));
+    }
+
+    @Test
+    void testInvalidate() {
+        TokenClaims claims = new TokenClaims("1", "jti-1", 0L, System.currentTimeMillis() + 60000L, "ROLE_USER");
+        cache.put("token-1", claims);
+        cache.invalidate("token-1");
+
+        assertNull(cache.get("token-1"));
+    }
+}
@@ -0,0 +1,163 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.cache.HotKeyDetector;
+import com.costinsight.user.cache.HotSetRecorder;
+import com.costinsight.user.cache.TwoLevelCacheManager;
+import com.costinsight.user.config.CacheProperties;
+import com.costinsight.user.dto.CacheEntryInfo;
+import com.costinsight.user.dto.CacheSummary;
+import com.costinsight.user.dto.HotKeyInfo;
+import com.costinsight.user.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheAdminServiceImplTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private HotSetRecorder hotSetRecorder;
+
+    @Mock
+    private HotKeyDetector hotKeyDetector;
+
+    private ConcurrentMapCacheManager remote;
+    private TwoLevelCacheManager cacheManager;
+    private CacheAdminServiceImpl cacheAdminService;
+
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("user", "other");
+        cacheManager = new TwoLevelCacheManager(remote, redisTemplate, new CacheProperties());
+        cacheAdminService = new CacheAdminServiceImpl(cacheManager, redisTemplate, userService, hotSetRecorder,
+                hotKeyDetector);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cacheManager.destroy();
+    }
+
+    @Test
+    void testListCaches_ReportsPolicyAndLocalStats() {
+        cacheManager.getCache("user").put(1L, "alice");
+        cacheManager.getCache("user").get(1L);
+
+        List<CacheSummary> summaries = cacheAdminService.listCaches();
+
+        CacheSummary user = summaries.stream().filter(s -> s.getName().equals("user")).findFirst().orElseThrow();
+        assertEquals(600_000L, user.getTtlMs());
+        assertEquals("user::", user.getRedisKeyPrefix());
+        assertEquals(1, user.getLocalSize());
+        assertEquals(1, user.getLocalHits());
+        assertEquals(2, summaries.size());
+    }
+
+    @Test
+    void testInspect_RemoteOnlyEntry() {
+        remote.getCache("user").put("1", "alice");
+        when(redisTemplate.getExpire("user::1", TimeUnit.MILLISECONDS)).thenReturn(5_000L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.size("user::1")).thenReturn(42L);
+
+        CacheEntryInfo info = cacheAdminService.inspect("user", "1");
+
+        assertFalse(info.isInLocal());
+        assertTrue(info.isInRemote());
+        assertEquals("alice", info.getValue());
+        assertEquals(5_000L, info.getRemoteTtlMs());
+        assertEquals(42L, info.getRemoteSizeBytes());
+        // 查看不应回填 L1
+        assertFalse(cacheAdminService.inspect("user", "1").isInLocal());
+    }
+
+    @Test
+    void testInspect_MissingEntry() {
+        CacheEntryInfo info = cacheAdminService.inspect("user", "404");
+
+        assertFalse(info.isInLocal());
+        assertFalse(info.isInRemote());
+        assertNull(info.getValue());
+        verifyNoInteractions(redisTemplate);
+    }
+
+    @Test
+    void testUnknownCache_Rejected() {
+        assertThrows(NoSuchElementException.class, () -> cacheAdminService.inspect("missing", "1"));
+        assertThrows(NoSuchElementException.class, () -> cacheAdminService.evict("missing", "1"));
+        assertThrows(NoSuchElementException.class, () -> cacheAdminService.clear("missing"));
+    }
+
+    @Test
+    void testEvict_RemovesEntry() {
+        cacheManager.getCache("user").put("1", "alice");
+
+        cacheAdminService.evict("user", "1");
+
+        assertNull(remote.getCache("user").get("1"));
+        assertNull(cacheManager.getCache("user").get("1"));
+    }
+
+    @Test
+    void testPreload_WarmsInOneBatch() {
+        when(userService.warmUserCache(List.of(1L, 2L))).thenReturn(1);
+
+        assertEquals(1, cacheAdminService.preload("user", List.of("1", "2")));
+        verify(userService).warmUserCache(List.of(1L, 2L));
+    }
+
+    @Test
+    void testWarmUp_ReadsHotSetAndSkipsInvalidKeys() {
+        when(hotSetRecorder.topKeys("user-response", 3)).thenReturn(List.of("7", "bad"));
+        when(hotSetRecorder.topKeys("user", 3)).thenReturn(List.of("7", "3", "9"));
+        when(userService.warmUserCache(List.of(7L, 3L))).thenReturn(2);
+
+        // user-response 的热点在前，user 的热点只补齐到 limit
+        assertEquals(2, cacheAdminService.warmUp("user", 3));
+        assertThrows(IllegalArgumentException.class, () -> cacheAdminService.warmUp("user", 0));
+        assertThrows(IllegalArgumentException.class, () -> cacheAdminService.warmUp("other", 10));
+    }
+
+    @Test
+    void testPreload_InvalidKeyOrUnsupportedCache() {
+        assertThrows(IllegalArgumentException.class, () -> cacheAdminService.preload("user", List.of("abc")));
+        assertThrows(IllegalArgumentException.class, () -> cacheAdminService.preload("other", List.of("1")));
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void testHotKeys_MapsDetectorSnapshot() {
+        when(hotKeyDetector.snapshot()).thenReturn(Map.of("user",
+                List.of(new HotKeyDetector.HotKey("42", 3200, 16, 318.4, true))));
+
+        Map<String, List<HotKeyInfo>> hotKeys = cacheAdminService.hotKeys();
+
+        HotKeyInfo info = hotKeys.get("user").get(0);
+        assertEquals("42", info.getKey());
+        assertEquals(3200, info.getCount());
+        assertTrue(info.isHot());
+    }
+}
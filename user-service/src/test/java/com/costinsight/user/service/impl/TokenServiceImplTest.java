@@ -0,0 +1,133 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.dto.TokenValidationResult;
+import com.costinsight.user.security.TokenClaims;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
+import com.costinsight.user.util.JwtUtil;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TokenServiceImplTest {
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    private TokenServiceImpl tokenService;
+
+    @BeforeEach
+    void setUp() {
+        tokenService = new TokenServiceImpl(jwtUtil, tokenRevocationRegistry, new VerifiedTokenCache(1000, 60000), 100);
+    }
+
+    @Test
+    void testValidateBatch_MixedResults() {
+        // Given
+        TokenClaims valid = claims("jti-1");
+        TokenClaims revoked = claims("jti-2");
+        when(jwtUtil.verifyToken("valid")).thenReturn(valid);
+        when(jwtUtil.verifyToken("revoked")).thenReturn(revoked);
+        when(jwtUtil.verifyToken("expired")).thenThrow(new ExpiredJwtException(null, null, "expired"));
+        when(jwtUtil.verifyToken("garbage")).thenThrow(new MalformedJwtException("malformed"));
+        when(tokenRevocationRegistry.areRevoked(List.of(valid, revoked))).thenReturn(new boolean[]{false, true});
+
+        // When
+        List<TokenValidationResult> results = tokenService.validateBatch(List.of("valid", "expired", "revoked", "garbage", " "));
+
+        // Then
+        assertEquals(TokenValidationResult.Status.VALID, results.get(0).getStatus());
+        assertEquals(1L, results.get(0).getUserId());
+        assertEquals("jti-1", results.get(0).getJti());
+        assertEquals(1_700_000_000L, results.get(0).getIssuedAtSeconds());
+        assertEquals(4_102_444_800L, results.get(0).getExpiresAtSeconds());
+        assertEquals(TokenValidationResult.Status.EXPIRED, results.get(1).getStatus());
+        assertEquals(TokenValidationResult.Status.REVOKED, results.get(2).getStatus());
+        assertNull(results.get(2).getUserId());
+        assertEquals(TokenValidationResult.Status.INVALID, results.get(3).getStatus());
+        assertEquals(TokenValidationResult.Status.INVALID, results.get(4).getStatus());
+        verify(tokenRevocationRegistry, times(1)).areRevoked(anyList());
+    }
+
+    @Test
+    void testValidateBatch_NonNumericSubjectOnlyInvalidatesThatToken() {
+        // Given
+        TokenClaims service = new TokenClaims("billing-service", "jti-svc", 1_700_000_000L, 4_102_444_800_000L, "ROLE_SERVICE");
+        TokenClaims valid = claims("jti-1");
+        when(jwtUtil.verifyToken("service")).thenReturn(service);
+        when(jwtUtil.verifyToken("valid")).thenReturn(valid);
+        when(tokenRevocationRegistry.areRevoked(List.of(valid))).thenReturn(new boolean[]{false});
+
+        // When
+        List<TokenValidationResult> results = tokenService.validateBatch(List.of("service", "valid"));
+
+        // Then
+        assertEquals(TokenValidationResult.Status.INVALID, results.get(0).getStatus());
+        assertEquals(TokenValidationResult.Status.VALID, results.get(1).getStatus());
+        assertEquals(1L, results.get(1).getUserId());
+    }
+
+    @Test
+    void testValidateBatch_LargeBatchKeepsOrder() {
+        // Given
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            String token = "token-" + i;
+            tokens.add(token);
+            when(jwtUtil.verifyToken(token)).thenReturn(claims("jti-" + i));
+        }
+        when(tokenRevocationRegistry.areRevoked(anyList())).thenReturn(new boolean[100]);
+
+        // When
+        List<TokenValidationResult> results = tokenService.validateBatch(tokens);
+
+        // Then
+        for (int i = 0; i < 100; i++) {
+            assertEquals("jti-" + i, results.get(i).getJti());
+        }
+    }
+
+    @Test
+    void testValidateBatch_VerifiedTokenServedFromCache() {
+        // Given
+        when(jwtUtil.verifyToken("valid")).thenReturn(claims("jti-1"));
+        when(tokenRevocationRegistry.areRevoked(anyList())).thenReturn(new boolean[]{false});
+
+        // When
+        tokenService.validateBatch(List.of("valid"));
+        tokenService.validateBatch(List.of("valid"));
+
+        // Then
+        verify(jwtUtil, times(1)).verifyToken("valid");
+    }
+
+    @Test
+    void testValidateBatch_TooManyTokens() {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < 101; i++) {
+            tokens.add("token-" + i);
+        }
+
+        assertThrows(IllegalArgumentException.class, () -> tokenService.validateBatch(tokens));
+        verifyNoInteractions(jwtUtil, tokenRevocationRegistry);
+    }
+
+    private static TokenClaims claims(String jti) {
+        return new TokenClaims("1", jti, 1_700_000_000L, 4_102_444_800_000L, "ROLE_USER");
+    }
+}
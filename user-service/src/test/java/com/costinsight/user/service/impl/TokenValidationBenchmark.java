@@ -0,0 +1,103 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.entity.User;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.VerifiedTokenCache;
+import com.costinsight.user.util.JwtUtil;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量验证与逐个验证的吞吐对比
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=TokenValidationBenchmark
+ * </pre>
+ * 每批 BATCH_SIZE 个不同的 Token，吊销检查模拟为每次 Redis 往返 REDIS_RTT_MICROS 微秒（本地镜像同步前的情况）：
+ * 逐个验证为每个 Token 一次验签加一次往返，批量验证为并行验签加一次批量往返；
+ * 另外给出已验签缓存全部命中时的批量吞吐。HTTP 往返本身不计入。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱）：
+ * <pre>
+ * mode                               tokens/s
+ * one token per call                    3,290
+ * validateBatch, cold cache            64,433
+ * validateBatch, warm cache           201,447
+ * </pre>
+ * 逐个验证的吞吐几乎完全由吊销检查往返决定，批量接口把 500 次往返合并为一次后提升约 20 倍。
+ */
+class TokenValidationBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+    private static final long REDIS_RTT_MICROS = 200;
+    private static final int WARMUP_ROUNDS = 20;
+    private static final int MEASURED_ROUNDS = 50;
+
+    @Test
+    void reportBatchValidation() {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecretString",
+                "mySecretKeyForCostInsightApplicationWhichIsLongEnoughToBeSecureAndEvenLongerToMeetRequirements");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3600000L);
+        jwtUtil.init();
+
+        List<String> tokens = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            User user = new User();
+            user.setId(100_000L + i);
+            user.setUsername("user_" + i);
+            user.setEmail("user_" + i + "@costinsight-example.com");
+            user.setRole("ROLE_USER");
+            tokens.add(jwtUtil.generateToken(user));
+        }
+
+        TokenRevocationRegistry registry = mock(TokenRevocationRegistry.class);
+        when(registry.isRevoked(anyString())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            return false;
+        });
+        when(registry.areRevoked(anyList())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            return new boolean[invocation.<List<?>>getArgument(0).size()];
+        });
+
+        Runnable single = () -> {
+            for (String token : tokens) {
+                registry.isRevoked(jwtUtil.verifyToken(token).getJti());
+            }
+        };
+        // 最大条目数为 0 的缓存相当于每次都未命中
+        TokenServiceImpl cold = new TokenServiceImpl(jwtUtil, registry, new VerifiedTokenCache(0, 600000), BATCH_SIZE);
+        TokenServiceImpl warm = new TokenServiceImpl(jwtUtil, registry, new VerifiedTokenCache(10_000, 600000), BATCH_SIZE);
+
+        System.out.printf("%-28s %14s%n", "mode", "tokens/s");
+        System.out.printf("%-28s %,14.0f%n", "one token per call", measure(single));
+        System.out.printf("%-28s %,14.0f%n", "validateBatch, cold cache", measure(() -> cold.validateBatch(tokens)));
+        System.out.printf("%-28s %,14.0f%n", "validateBatch, warm cache", measure(() -> warm.validateBatch(tokens)));
+    }
+
+    private static double measure(Runnable round) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            round.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            round.run();
+        }
+        return (double) BATCH_SIZE * MEASURED_ROUNDS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void simulateRoundTrip() {
+        // 等待网络不占用 CPU，用 park 而不是忙等
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(REDIS_RTT_MICROS));
+    }
+}
@@ -0,0 +1,131 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.dto.UserImportResult;
+import com.costinsight.user.entity.User;
+import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.security.UnknownIdentifierCache;
+import com.costinsight.user.security.UserIdentityIndex;
+import com.costinsight.user.service.UserImportService;
+import com.costinsight.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.*;
+
+/**
+ * 批量导入与逐个注册的吞吐对比
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=UserImportBenchmark
+ * </pre>
+ * 使用与生产下限相同的 BCrypt 代价因子 10，每条 SQL 模拟为 DB_RTT_MILLIS 毫秒的往返：
+ * 逐个注册为每行一次唯一性查询、一次哈希、一次插入；批量导入为每块一次查询、并行哈希、一次批量插入。
+ * 同时给出单纯串行哈希的吞吐作为上限参考。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱）：
+ * <pre>
+ * mode                             rows/s
+ * bcrypt only, 1 thread               9.6
+ * one register per row                9.5
+ * import, 1 hash thread(s)            9.3
+ * </pre>
+ * 单核上每行约 100ms 的 BCrypt 哈希占满 CPU，三种方式都停在串行哈希的上限附近，彼此相差约 2%，在测量噪声范围内；
+ * 批量导入的收益来自多核上的并行哈希（导入线程数默认取 CPU 核数的一半）以及远端数据库往返的合并。
+ */
+class UserImportBenchmark {
+
+    private static final int ROWS = 200;
+    private static final int BCRYPT_STRENGTH = 10;
+    private static final long DB_RTT_MILLIS = 1;
+
+    @Test
+    void reportImportThroughput() throws Exception {
+        BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder(BCRYPT_STRENGTH);
+        Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+        StringBuilder csv = new StringBuilder("username,email,password\n");
+        for (int i = 0; i < ROWS; i++) {
+            csv.append("user_").append(i).append(",user_").append(i).append("@costinsight-example.com,Password")
+                    .append(i).append('\n');
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        // 预热 BCrypt
+        for (int i = 0; i < 20; i++) {
+            passwordEncoder.encode("Password" + i);
+        }
+
+        System.out.printf("%-28s %10s%n", "mode", "rows/s");
+        long start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            passwordEncoder.encode("Password" + i);
+        }
+        System.out.printf("%-28s %10.1f%n", "bcrypt only, 1 thread", rate(start));
+
+        start = System.nanoTime();
+        for (int i = 0; i < ROWS; i++) {
+            simulateRoundTrip(); // 唯一性查询
+            passwordEncoder.encode("Password" + i);
+            simulateRoundTrip(); // 插入
+        }
+        System.out.printf("%-28s %10.1f%n", "one register per row", rate(start));
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int parallelism : cores > 1 ? new int[]{1, cores} : new int[]{1}) {
+            UserImportServiceImpl importService = newImportService(passwordEncoder, validator, parallelism);
+            try {
+                start = System.nanoTime();
+                UserImportResult result = importService.importUsers(new ByteArrayInputStream(body),
+                        UserImportService.Format.CSV);
+                if (result.getCreated() != ROWS) {
+                    throw new IllegalStateException("Expected " + ROWS + " rows, created " + result.getCreated());
+                }
+                System.out.printf("%-28s %10.1f%n", "import, " + parallelism + " hash thread(s)", rate(start));
+            } finally {
+                importService.destroy();
+            }
+        }
+    }
+
+    private static UserImportServiceImpl newImportService(BCryptPasswordEncoder passwordEncoder, Validator validator,
+                                                          int parallelism) {
+        UserService userService = mock(UserService.class);
+        UserMapper userMapper = mock(UserMapper.class);
+        when(userMapper.selectTakenIdentities(any(), any())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            return List.of();
+        });
+        when(userService.saveBatch(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            simulateRoundTrip();
+            Collection<User> users = invocation.getArgument(0);
+            long id = 1;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return true;
+        });
+        return new UserImportServiceImpl(userService, userMapper, passwordEncoder, mock(UserIdentityIndex.class),
+                mock(UnknownIdentifierCache.class), validator, new ObjectMapper(), 500, ROWS, parallelism);
+    }
+
+    private static double rate(long start) {
+        return ROWS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void simulateRoundTrip() {
+        LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(DB_RTT_MILLIS));
+    }
+}
@@ -0,0 +1,166 @@
+package com.costinsight.user.service.impl;
+
+import com.costinsight.user.dto.UserImportResult;
+import com.costinsight.user.entity.User;
+import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.security.UnknownIdentifierCache;
+import com.costinsight.user.security.UserIdentityIndex;
+import com.costinsight.user.service.UserImportService;
+import com.costinsight.user.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceImplTest {
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private UserIdentityIndex userIdentityIndex;
+
+    @Mock
+    private UnknownIdentifierCache unknownIdentifierCache;
+
+    private UserImportServiceImpl importService;
+
+    @BeforeEach
+    void setUp() {
+        importService = new UserImportServiceImpl(userService, userMapper, new BCryptPasswordEncoder(4),
+                userIdentityIndex, unknownIdentifierCache,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(), 100, 1000, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        importService.destroy();
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void givenBatchInsertAssignsIds() {
+        when(userService.saveBatch(anyCollection(), anyInt())).thenAnswer(invocation -> {
+            Collection<User> users = invocation.getArgument(0);
+            long id = 100;
+            for (User user : users) {
+                user.setId(id++);
+            }
+            return true;
+        });
+    }
+
+    @Test
+    void testCsvImportReportsEachRow() throws Exception {
+        // Given
+        String csv = "username,email,password\n"
+                + "alice,alice@example.com,Password123\n"
+                + "bob,not-an-email,Password123\n"
+                + "ALICE,alice2@example.com,Password123\n"
+                + "carol,carol@example.com,Password123\n"
+                + "\"dave\",\"dave@example.com\",\"Pass,word123\"\n";
+        when(userMapper.selectTakenIdentities(any(), any())).thenReturn(List.of(taken("carol", "other@example.com")));
+        givenBatchInsertAssignsIds();
+
+        // When
+        UserImportResult result = importService.importUsers(body(csv), UserImportService.Format.CSV);
+
+        // Then
+        assertEquals(5, result.getTotal());
+        assertEquals(2, result.getCreated());
+        assertEquals(3, result.getFailed());
+        List<UserImportResult.RowResult> rows = result.getRows();
+        assertEquals(UserImportResult.Status.CREATED, rows.get(0).getStatus());
+        assertEquals(2, rows.get(0).getLine());
+        assertEquals(100L, rows.get(0).getUserId());
+        assertEquals(UserImportResult.Status.INVALID, rows.get(1).getStatus());
+        assertEquals(UserImportResult.Status.DUPLICATE, rows.get(2).getStatus());
+        assertEquals("Duplicate username in import", rows.get(2).getMessage());
+        assertEquals(UserImportResult.Status.DUPLICATE, rows.get(3).getStatus());
+        assertEquals("Username already exists", rows.get(3).getMessage());
+        assertEquals(UserImportResult.Status.CREATED, rows.get(4).getStatus());
+        verify(userIdentityIndex).add("dave", "dave@example.com");
+    }
+
+    @Test
+    void testNdjsonImportHashesPasswords() throws Exception {
+        // Given
+        String ndjson = "{\"username\":\"erin\",\"email\":\"erin@example.com\",\"password\":\"Password123\"}\n"
+                + "{not json}\n";
+        when(userIdentityIndex.isUsernameDefinitelyFree("erin")).thenReturn(true);
+        when(userIdentityIndex.isEmailDefinitelyFree("erin@example.com")).thenReturn(true);
+        givenBatchInsertAssignsIds();
+
+        // When
+        UserImportResult result = importService.importUsers(body(ndjson), UserImportService.Format.NDJSON);
+
+        // Then
+        assertEquals(1, result.getCreated());
+        assertEquals(UserImportResult.Status.INVALID, result.getRows().get(1).getStatus());
+        assertEquals("Malformed JSON", result.getRows().get(1).getMessage());
+        verify(userService).saveBatch(argThat((Collection<User> users) -> {
+            User user = users.iterator().next();
+            return new BCryptPasswordEncoder().matches("Password123", user.getPassword());
+        }), anyInt());
+    }
+
+    @Test
+    void testBatchConflictFallsBackToRowInserts() throws Exception {
+        // Given
+        String csv = "username,email,password\n"
+                + "frank,frank@example.com,Password123\n"
+                + "grace,grace@example.com,Password123\n";
+        when(userMapper.selectTakenIdentities(any(), any())).thenReturn(List.of());
+        when(userService.saveBatch(anyCollection(), anyInt())).thenThrow(new DuplicateKeyException("Duplicate entry"));
+        when(userMapper.insert(any(User.class)))
+                .thenReturn(1)
+                .thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        // When
+        UserImportResult result = importService.importUsers(body(csv), UserImportService.Format.CSV);
+
+        // Then
+        assertEquals(1, result.getCreated());
+        assertEquals(UserImportResult.Status.CREATED, result.getRows().get(0).getStatus());
+        assertEquals(UserImportResult.Status.DUPLICATE, result.getRows().get(1).getStatus());
+    }
+
+    @Test
+    void testMissingCsvColumnsAreRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> importService.importUsers(body("username,password\n"), UserImportService.Format.CSV));
+    }
+
+    private static User taken(String username, String email) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+}
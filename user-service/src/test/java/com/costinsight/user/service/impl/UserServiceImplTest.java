@@ -1,6 +1,7 @@
 package com.costinsight.user.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.costinsight.user.dto.AvailabilityResponse;
 import com.costinsight.user.dto.ChangePasswordRequest;
 import com.costinsight.user.dto.JwtResponse;
 import com.costinsight.user.dto.LoginRequest;
@@ -9,19 +10,35 @@ import com.costinsight.user.dto.UserResponseVO;
 import com.costinsight.user.dto.UserUpdateRequest;
 import com.costinsight.user.entity.User;
 import com.costinsight.user.mapper.UserMapper;
+import com.costinsight.user.security.PasswordHasher;
+import com.costinsight.user.security.RefreshTokenStore;
+import com.costinsight.user.security.TokenRevocationRegistry;
+import com.costinsight.user.security.UnknownIdentifierCache;
+import com.costinsight.user.security.UserIdentityIndex;
 import com.costinsight.user.util.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.Date;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,11 +54,29 @@ class UserServiceImplTest {
     private JwtUtil jwtUtil;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordHasher passwordHasher;
+
+    @Mock
+    private TokenRevocationRegistry tokenRevocationRegistry;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private UnknownIdentifierCache unknownIdentifierCache;
+
+    @Mock
+    private UserIdentityIndex userIdentityIndex;
+
+    @Mock
+    private CacheManager cacheManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
-        ReflectionTestUtils.setField(userService, "passwordEncoder", passwordEncoder);
+        ReflectionTestUtils.setField(userService, "passwordHasher", passwordHasher);
         ReflectionTestUtils.setField(userService, "jwtExpirationMs", 86400000L);
     }
 
@@ -55,7 +90,7 @@ class UserServiceImplTest {
         registerRequest.setConfirmPassword("password123");
 
         when(userMapper.selectOne(any(QueryWrapper.class))).thenReturn(null);
-        when(passwordEncoder.encode("password123")).thenReturn("encodedPassword");
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
 
         // When
         UserResponseVO result = userService.register(registerRequest);
@@ -67,7 +102,64 @@ class UserServiceImplTest {
 
         verify(userMapper, times(2)).selectOne(any(QueryWrapper.class));
         verify(userMapper, times(1)).insert(any(User.class));
-        verify(passwordEncoder, times(1)).encode("password123");
+        verify(passwordHasher, times(1)).encode("password123");
+        verify(unknownIdentifierCache).forget("testuser", "test@example.com");
+    }
+
+    @Test
+    void testRegister_IndexSkipsUniquenessQueries() {
+        // Given
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setUsername("fresh");
+        registerRequest.setEmail("fresh@example.com");
+        registerRequest.setPassword("password123");
+        registerRequest.setConfirmPassword("password123");
+
+        when(userIdentityIndex.isUsernameDefinitelyFree("fresh")).thenReturn(true);
+        when(userIdentityIndex.isEmailDefinitelyFree("fresh@example.com")).thenReturn(true);
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+
+        // When
+        userService.register(registerRequest);
+
+        // Then
+        verify(userMapper, never()).selectOne(any(QueryWrapper.class));
+        verify(userIdentityIndex).add("fresh", "fresh@example.com");
+    }
+
+    @Test
+    void testRegister_UniqueConstraintIsFinalArbiter() {
+        // Given
+        RegisterRequest registerRequest = new RegisterRequest();
+        registerRequest.setUsername("taken");
+        registerRequest.setEmail("taken@example.com");
+        registerRequest.setPassword("password123");
+        registerRequest.setConfirmPassword("password123");
+
+        when(userMapper.selectOne(any(QueryWrapper.class))).thenReturn(null);
+        when(passwordHasher.encode("password123")).thenReturn("encodedPassword");
+        when(userMapper.insert(any(User.class))).thenThrow(new DuplicateKeyException("Duplicate entry"));
+
+        // When & Then
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> userService.register(registerRequest));
+        assertEquals("Username or email already exists", e.getMessage());
+        verify(userIdentityIndex, never()).add(any(), any());
+    }
+
+    @Test
+    void testCheckAvailability() {
+        // Given
+        when(userIdentityIndex.isUsernameDefinitelyFree("fresh")).thenReturn(true);
+        when(userMapper.existsByEmail("maybe@example.com")).thenReturn(true);
+
+        // When
+        AvailabilityResponse response = userService.checkAvailability("fresh", "maybe@example.com");
+
+        // Then
+        assertTrue(response.getUsernameAvailable());
+        assertFalse(response.getEmailAvailable());
+        verify(userMapper, never()).existsByUsername(any());
     }
 
     @Test
@@ -92,6 +184,8 @@ class UserServiceImplTest {
         assertEquals(userId, result.getId());
         assertEquals("new@example.com", result.getEmail());
         verify(userMapper, times(1)).updateById(any(User.class));
+        // 新邮箱此前可能被记为不存在，需要立即可用于登录
+        verify(unknownIdentifierCache).forget("new@example.com");
     }
 
     @Test
@@ -113,6 +207,100 @@ class UserServiceImplTest {
         assertEquals("test", result.getUsername());
     }
 
+    @Test
+    void testFindUserResponseBody_SerializesEnvelopeFromUserCache() throws Exception {
+        // Given
+        ConcurrentMapCache cache = new ConcurrentMapCache("user");
+        when(cacheManager.getCache("user")).thenReturn(cache);
+        User user = new User();
+        user.setId(1L);
+        user.setUsername("test");
+        when(userMapper.selectById(1L)).thenReturn(user);
+
+        // When
+        byte[] body = userService.findUserResponseBody(1L);
+        userService.findUserResponseBody(1L);
+
+        // Then
+        JsonNode json = objectMapper.readTree(body);
+        assertEquals(200, json.get("code").asInt());
+        assertEquals("test", json.get("data").get("username").asText());
+        verify(userMapper, times(1)).selectById(1L); // 第二次从 user 缓存读取
+    }
+
+    @Test
+    void testFindUserResponseBody_UserNotFound() {
+        when(cacheManager.getCache("user")).thenReturn(new ConcurrentMapCache("user"));
+        when(userMapper.selectById(1L)).thenReturn(null);
+
+        assertNull(userService.findUserResponseBody(1L));
+    }
+
+    @Test
+    void testFindUsersByIds_LoadsInOneQueryAndKeepsRequestOrder() {
+        // Given
+        ReflectionTestUtils.setField(userService, "maxBatchLookupSize", 10);
+        ConcurrentMapCache cache = new ConcurrentMapCache("user");
+        when(cacheManager.getCache("user")).thenReturn(cache);
+        User first = new User();
+        first.setId(1L);
+        User second = new User();
+        second.setId(2L);
+        when(userMapper.selectBatchIds(List.of(2L, 9L, 1L))).thenReturn(List.of(first, second));
+
+        // When
+        List<UserResponseVO> result = userService.findUsersByIds(List.of(2L, 9L, 1L, 2L));
+
+        // Then
+        assertEquals(List.of(2L, 1L), result.stream().map(UserResponseVO::getId).toList());
+        assertNotNull(cache.get(1L));
+        assertNull(cache.get(9L).get()); // 不存在的ID以 null 缓存
+        verify(userMapper, times(1)).selectBatchIds(any());
+    }
+
+    @Test
+    void testFindUsersByIds_TooManyIds() {
+        ReflectionTestUtils.setField(userService, "maxBatchLookupSize", 1);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.findUsersByIds(List.of(1L, 2L)));
+        verifyNoInteractions(userMapper);
+    }
+
+    @Test
+    void testWarmUserCache_SkipsDeletedAndKeepsExistingEntries() throws Exception {
+        // Given
+        ConcurrentMapCache cache = new ConcurrentMapCache("user");
+        ConcurrentMapCache responseCache = new ConcurrentMapCache("user-response");
+        UserResponseVO cached = new UserResponseVO();
+        cache.put(2L, cached);
+        when(cacheManager.getCache("user")).thenReturn(cache);
+        when(cacheManager.getCache("user-response")).thenReturn(responseCache);
+        User active = new User();
+        active.setId(1L);
+        active.setDeleted(0);
+        User existing = new User();
+        existing.setId(2L);
+        existing.setDeleted(0);
+        User deleted = new User();
+        deleted.setId(3L);
+        deleted.setDeleted(1);
+        when(userMapper.selectBatchIds(List.of(1L, 2L, 3L, 4L))).thenReturn(List.of(active, existing, deleted));
+
+        // When
+        int warmed = userService.warmUserCache(List.of(1L, 2L, 3L, 4L));
+
+        // Then
+        assertEquals(2, warmed);
+        assertEquals(1L, ((UserResponseVO) cache.get(1L).get()).getId());
+        assertSame(cached, cache.get(2L).get());
+        assertNull(cache.get(3L));
+        // user-response 同时写入与 GET 接口一致的响应体
+        JsonNode json = objectMapper.readTree((byte[]) responseCache.get(1L).get());
+        assertEquals(1L, json.get("data").get("id").asLong());
+        assertNull(responseCache.get(3L));
+        verify(userMapper, times(1)).selectBatchIds(any());
+    }
+
     @Test
     void testChangePassword_Success() {
         // Given
@@ -127,8 +315,8 @@ class UserServiceImplTest {
         user.setPassword("encodedOldPass");
 
         when(userMapper.selectById(userId)).thenReturn(user);
-        when(passwordEncoder.matches("oldPass", "encodedOldPass")).thenReturn(true);
-        when(passwordEncoder.encode("newPass")).thenReturn("encodedNewPass");
+        when(passwordHasher.matches("oldPass", "encodedOldPass")).thenReturn(true);
+        when(passwordHasher.encode("newPass")).thenReturn("encodedNewPass");
 
         // When
         userService.changePassword(userId, request);
@@ -137,6 +325,7 @@ class UserServiceImplTest {
         ArgumentCaptor<User> userCaptor = ArgumentCaptor.forClass(User.class);
         verify(userMapper, times(1)).updateById(userCaptor.capture());
         assertEquals("encodedNewPass", userCaptor.getValue().getPassword());
+        verify(tokenRevocationRegistry, times(1)).revokeAllForUser(userId);
     }
 
     @Test
@@ -153,12 +342,151 @@ class UserServiceImplTest {
         user.setPassword("encodedOldPass");
 
         when(userMapper.selectById(userId)).thenReturn(user);
-        when(passwordEncoder.matches("wrongOldPass", "encodedOldPass")).thenReturn(false);
+        when(passwordHasher.matches("wrongOldPass", "encodedOldPass")).thenReturn(false);
 
         // When & Then
         assertThrows(IllegalArgumentException.class, () -> {
             userService.changePassword(userId, request);
         });
         verify(userMapper, never()).updateById(any(User.class));
+        verify(tokenRevocationRegistry, never()).revokeAllForUser(any());
+    }
+
+    @Test
+    void testLogin_IssuesRefreshToken() {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("testuser");
+        loginRequest.setPassword("password123");
+
+        User user = new User();
+        user.setId(1L);
+        user.setPassword("encodedPassword");
+        user.setDeleted(0);
+
+        when(userMapper.selectCredentials("testuser")).thenReturn(user);
+        when(passwordHasher.matches("password123", "encodedPassword")).thenReturn(true);
+        when(jwtUtil.generateToken(user)).thenReturn("access-token");
+        when(refreshTokenStore.issue(1L)).thenReturn("refresh-token");
+        when(refreshTokenStore.getExpirationMs()).thenReturn(1209600000L);
+
+        // When
+        JwtResponse response = userService.login(loginRequest);
+
+        // Then
+        assertEquals("access-token", response.getToken());
+        assertEquals("refresh-token", response.getRefreshToken());
+        assertEquals(1209600000L, response.getRefreshExpiresIn());
+    }
+
+    @Test
+    void testLogin_RehashesOutdatedCost() {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("testuser");
+        loginRequest.setPassword("password123");
+
+        User user = new User();
+        user.setId(1L);
+        user.setPassword("$2a$08$outdated");
+        user.setDeleted(0);
+
+        when(userMapper.selectCredentials("testuser")).thenReturn(user);
+        when(passwordHasher.matches("password123", "$2a$08$outdated")).thenReturn(true);
+        when(passwordHasher.needsRehash("$2a$08$outdated")).thenReturn(true);
+        when(passwordHasher.encode("password123")).thenReturn("$2a$12$upgraded");
+        when(jwtUtil.generateToken(user)).thenReturn("access-token");
+
+        // When
+        userService.login(loginRequest);
+
+        // Then
+        verify(userMapper).updatePasswordIfUnchanged(1L, "$2a$08$outdated", "$2a$12$upgraded");
+    }
+
+    @Test
+    void testLogin_UnknownIdentifierIsNegativelyCached() {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("nobody@example.com");
+        loginRequest.setPassword("password123");
+
+        when(userMapper.selectCredentials("nobody@example.com")).thenReturn(null);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.login(loginRequest));
+        verify(unknownIdentifierCache).markUnknown("nobody@example.com");
+    }
+
+    @Test
+    void testLogin_NegativeCacheHitSkipsDatabase() {
+        // Given
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setUsernameOrEmail("nobody");
+        loginRequest.setPassword("password123");
+
+        when(unknownIdentifierCache.isUnknown("nobody")).thenReturn(true);
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.login(loginRequest));
+        verify(userMapper, never()).selectCredentials(any());
+        verify(passwordHasher, never()).matches(any(), any());
+    }
+
+    @Test
+    void testRefresh_RotatesRefreshToken() {
+        // Given
+        User user = new User();
+        user.setId(1L);
+        user.setDeleted(0);
+
+        when(refreshTokenStore.consume("old-refresh")).thenReturn(1L);
+        when(userMapper.selectById(1L)).thenReturn(user);
+        when(jwtUtil.generateToken(user)).thenReturn("new-access");
+        when(refreshTokenStore.issue(1L)).thenReturn("new-refresh");
+
+        // When
+        JwtResponse response = userService.refresh("old-refresh");
+
+        // Then
+        assertEquals("new-access", response.getToken());
+        assertEquals("new-refresh", response.getRefreshToken());
+    }
+
+    @Test
+    void testRefresh_InvalidRefreshToken() {
+        when(refreshTokenStore.consume("unknown")).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> userService.refresh("unknown"));
+        verify(jwtUtil, never()).generateToken(any(User.class));
+    }
+
+    @Test
+    void testLogout_WithRefreshToken_RevokesOnlyRefreshToken() {
+        // Given
+        Claims claims = Jwts.claims().setSubject("1").setId("jti").setExpiration(new Date(System.currentTimeMillis() + 60000));
+        when(jwtUtil.parseTokenAndGetClaims("access-token")).thenReturn(claims);
+
+        // When
+        userService.logout("access-token", "refresh-token");
+
+        // Then
+        verify(refreshTokenStore).revoke("refresh-token", 1L);
+        verify(tokenRevocationRegistry, never()).revoke(any(), anyLong());
+    }
+
+    @Test
+    void testLogout_WithoutRefreshToken_BlacklistsAccessToken() {
+        // Given
+        Claims claims = Jwts.claims().setSubject("1").setId("jti")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000));
+        when(jwtUtil.parseTokenAndGetClaims("access-token")).thenReturn(claims);
+
+        // When
+        userService.logout("access-token", null);
+
+        // Then（载荷中的 exp 只精确到秒，期望值取自 claims 而不是构造时的 Date）
+        verify(tokenRevocationRegistry).revoke("jti", claims.getExpiration().getTime());
+        verifyNoInteractions(refreshTokenStore);
     }
 }
@@ -0,0 +1,97 @@
+package com.costinsight.user.util;
+
+import com.costinsight.user.entity.User;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.Supplier;
+
+/**
+ * Token 签发吞吐量基准
+ * <p>
+ * 不属于常规测试，需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=JwtMintingBenchmark
+ * </pre>
+ * 在不同并发线程数下对比 jjwt builder（原实现：UUID + Date + Jackson）与 JwtUtil.generateToken 的每秒签发数。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱，多线程行只反映竞争开销而非多核扩展）：
+ * <pre>
+ *   1 threads: jjwt builder       13,270 tokens/s | generateToken      117,417 tokens/s
+ *   4 threads: jjwt builder       14,280 tokens/s | generateToken      215,360 tokens/s
+ *  16 threads: jjwt builder       16,521 tokens/s | generateToken      180,978 tokens/s
+ *  64 threads: jjwt builder       15,368 tokens/s | generateToken      200,526 tokens/s
+ * </pre>
+ */
+class JwtMintingBenchmark {
+
+    private static final int TOKENS_PER_THREAD = 50_000;
+    private static final int[] THREAD_COUNTS = {1, 4, 16, 64};
+
+    @Test
+    void benchmarkMinting() throws InterruptedException {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecretString",
+                "mySecretKeyForCostInsightApplicationWhichIsLongEnoughToBeSecureAndEvenLongerToMeetRequirements");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3600000L);
+        jwtUtil.init();
+        SecretKey key = (SecretKey) ReflectionTestUtils.getField(jwtUtil, "secretKey");
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setRole("ROLE_USER");
+
+        Supplier<String> jjwt = () -> Jwts.builder()
+                .setSubject(user.getId().toString())
+                .setId(UUID.randomUUID().toString())
+                .claim("username", user.getUsername())
+                .claim("email", user.getEmail())
+                .claim("role", user.getRole())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 3600000L))
+                .signWith(key, SignatureAlgorithm.HS512)
+                .compact();
+        Supplier<String> fastPath = () -> jwtUtil.generateToken(user);
+
+        // 预热
+        run(jjwt, 4);
+        run(fastPath, 4);
+
+        for (int threads : THREAD_COUNTS) {
+            System.out.printf("%3d threads: jjwt builder %,12.0f tokens/s | generateToken %,12.0f tokens/s%n",
+                    threads, run(jjwt, threads), run(fastPath, threads));
+        }
+    }
+
+    private static double run(Supplier<String> minter, int threads) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    for (int j = 0; j < TOKENS_PER_THREAD; j++) {
+                        minter.get();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        done.await();
+        return (double) threads * TOKENS_PER_THREAD / ((System.nanoTime() - begin) / 1e9);
+    }
+}
@@ -0,0 +1,89 @@
+package com.costinsight.user.util;
+
+import com.costinsight.user.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * 各 Token 载荷形态的体积与解析成本报告
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=JwtProfileBenchmark
+ * </pre>
+ * 对每种形态输出：平均 Token 长度与 Authorization 请求头字节数、
+ * 从请求头取出 Token 并解码载荷段的耗时（header-parse），以及完整验签的耗时（verify）。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱）：
+ * <pre>
+ * profile   avg chars header bytes header-parse us/op   verify us/op
+ * full          331.8        353.8              0.432          4.827
+ * slim          238.0        260.0              0.748          3.582
+ * binary        174.0        196.0              0.295          2.497
+ * </pre>
+ * slim 去掉冗余声明后请求头缩小约 26%，binary 约 45%；验签耗时随载荷长度下降。
+ * header-parse 只做 Base64 解码，亚微秒级的差异在单核沙箱上处于噪声范围内（多次运行中 slim 与 full 互有高低）。
+ */
+class JwtProfileBenchmark {
+
+    private static final int USERS = 1_000;
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+
+    @Test
+    void reportTokenProfiles() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            User user = new User();
+            user.setId(100_000L + i);
+            user.setUsername("user_" + Integer.toHexString(i * 7919));
+            user.setEmail("user_" + i + "@costinsight-example.com");
+            user.setRole(i % 50 == 0 ? "ROLE_ADMIN" : "ROLE_USER");
+            users.add(user);
+        }
+
+        System.out.printf("%-8s %10s %12s %18s %14s%n", "profile", "avg chars", "header bytes", "header-parse us/op", "verify us/op");
+        for (JwtUtil.TokenProfile profile : JwtUtil.TokenProfile.values()) {
+            JwtUtil jwtUtil = new JwtUtil();
+            ReflectionTestUtils.setField(jwtUtil, "jwtSecretString",
+                    "mySecretKeyForCostInsightApplicationWhichIsLongEnoughToBeSecureAndEvenLongerToMeetRequirements");
+            ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3600000L);
+            ReflectionTestUtils.setField(jwtUtil, "tokenProfileName", profile.name());
+            jwtUtil.init();
+
+            List<String> headers = new ArrayList<>(USERS);
+            long totalChars = 0;
+            for (User user : users) {
+                String token = jwtUtil.generateToken(user);
+                totalChars += token.length();
+                headers.add("Bearer " + token);
+            }
+            double avgChars = (double) totalChars / USERS;
+
+            byte[] buffer = new byte[1024];
+            double parse = measure(headers, header -> {
+                String token = header.substring(7);
+                int firstDot = token.indexOf('.');
+                Hs512TokenEngine.decode(token, firstDot + 1, token.indexOf('.', firstDot + 1), buffer);
+            });
+            double verify = measure(headers, header -> jwtUtil.verifyToken(header.substring(7)));
+            System.out.printf("%-8s %10.1f %12.1f %18.3f %14.3f%n",
+                    profile.name().toLowerCase(), avgChars, avgChars + "Authorization: Bearer ".length(), parse, verify);
+        }
+    }
+
+    private static double measure(List<String> headers, Consumer<String> action) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            action.accept(headers.get(i % headers.size()));
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            action.accept(headers.get(i % headers.size()));
+        }
+        return (System.nanoTime() - start) / 1e3 / MEASURED_ITERATIONS;
+    }
+}
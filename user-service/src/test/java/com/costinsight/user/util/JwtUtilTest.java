@@ -1,8 +1,18 @@
 package com.costinsight.user.util;
 
+import com.costinsight.user.constant.RoleConstants;
 import com.costinsight.user.entity.User;
+import com.costinsight.user.security.JwtKeyRing;
+import com.costinsight.user.security.Permission;
+import com.costinsight.user.security.RolePermissionTable;
+import com.costinsight.user.security.TokenClaims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.UnsupportedJwtException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -75,4 +85,159 @@ class JwtUtilTest {
         String token = jwtUtil.generateToken(testUser);
         assertEquals(testUser.getEmail(), jwtUtil.getEmailFromToken(token));
     }
+
+    @Test
+    void testGenerateToken_SpecialCharactersRoundTrip() {
+        testUser.setUsername("张三 \"quoted\" \\ 😀");
+        String token = jwtUtil.generateToken(testUser);
+
+        assertEquals(testUser.getUsername(), jwtUtil.getUsernameFromToken(token));
+        assertEquals(testUser.getId(), jwtUtil.verifyToken(token).getUserId());
+    }
+
+    @Test
+    void testGenerateToken_UniqueJti() {
+        String first = jwtUtil.generateToken(testUser);
+        String second = jwtUtil.generateToken(testUser);
+
+        assertNotEquals(jwtUtil.parseTokenAndGetClaims(first).getId(), jwtUtil.parseTokenAndGetClaims(second).getId());
+    }
+
+    @Test
+    void testVerifyToken_ValidToken() {
+        testUser.setRole("ROLE_USER");
+        String token = jwtUtil.generateToken(testUser);
+
+        TokenClaims claims = jwtUtil.verifyToken(token);
+
+        assertEquals(testUser.getId(), claims.getUserId());
+        assertEquals(jwtUtil.parseTokenAndGetClaims(token).getId(), claims.getJti());
+        assertEquals("ROLE_USER", claims.getRole());
+        assertTrue(claims.getExpiration() > System.currentTimeMillis());
+        assertTrue(claims.getIssuedAt() > 0);
+    }
+
+    @Test
+    void testVerifyToken_TamperedSignature() {
+        String token = jwtUtil.generateToken(testUser);
+        int index = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+
+        assertThrows(JwtException.class, () -> jwtUtil.verifyToken(tampered));
+    }
+
+    @Test
+    void testVerifyToken_ExpiredToken() {
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", -1000L);
+        String expiredToken = jwtUtil.generateToken(testUser);
+
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(expiredToken));
+    }
+
+    @Test
+    void testAsymmetricToken_VerifiedWithKid() {
+        JwtKeyRing keyRing = new JwtKeyRing(new MockEnvironment(), "RS256");
+        keyRing.init();
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+
+        String token = jwtUtil.generateToken(testUser);
+
+        String kid = Jwts.parserBuilder().setSigningKey(keyRing.getActiveKey().getPublicKey()).build()
+                .parseClaimsJws(token).getHeader().getKeyId();
+        assertEquals(keyRing.getActiveKey().getKid(), kid);
+        assertEquals(testUser.getId(), jwtUtil.verifyToken(token).getUserId());
+        assertTrue(jwtUtil.validateToken(token));
+    }
+
+    @Test
+    void testAsymmetricToken_RejectedAfterKeyRemoved() {
+        MockEnvironment environment = new MockEnvironment();
+        JwtKeyRing keyRing = new JwtKeyRing(environment, "ES256");
+        keyRing.init();
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+        String token = jwtUtil.generateToken(testUser);
+
+        keyRing.reload(); // 未配置密钥时重新生成临时密钥，旧 kid 随之失效
+
+        assertThrows(UnsupportedJwtException.class, () -> jwtUtil.verifyToken(token));
+    }
+
+    @Test
+    void testSlimProfile_MinimalClaims() {
+        testUser.setRole("ROLE_ADMIN");
+        String fullToken = jwtUtil.generateToken(testUser);
+        ReflectionTestUtils.setField(jwtUtil, "tokenProfileName", "slim");
+        jwtUtil.init();
+
+        String token = jwtUtil.generateToken(testUser);
+
+        assertTrue(token.length() < fullToken.length());
+        assertNull(jwtUtil.getUsernameFromToken(token));
+        assertEquals("ROLE_ADMIN", jwtUtil.parseTokenAndGetClaims(token).get("r", String.class));
+        TokenClaims claims = jwtUtil.verifyToken(token);
+        assertEquals(testUser.getId(), claims.getUserId());
+        assertEquals("ROLE_ADMIN", claims.getRole());
+    }
+
+    @Test
+    void testBinaryProfile_RoundTrip() {
+        ReflectionTestUtils.setField(jwtUtil, "tokenProfileName", "binary");
+        jwtUtil.init();
+        testUser.setRole("ROLE_USER");
+
+        String token = jwtUtil.generateToken(testUser);
+
+        TokenClaims claims = jwtUtil.verifyToken(token);
+        assertEquals(testUser.getId(), claims.getUserId());
+        assertEquals("ROLE_USER", claims.getRole());
+        assertTrue(claims.getExpiration() > System.currentTimeMillis());
+        assertTrue(jwtUtil.validateToken(token));
+        // 登出、/validate 等依赖 Claims 的调用方同样可用
+        assertEquals(claims.getJti(), jwtUtil.parseTokenAndGetClaims(token).getId());
+        assertEquals("1", jwtUtil.getUserIdFromToken(token));
+    }
+
+    @Test
+    void testBinaryProfile_TamperedAndExpired() {
+        ReflectionTestUtils.setField(jwtUtil, "tokenProfileName", "binary");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", -1000L);
+        jwtUtil.init();
+        String expired = jwtUtil.generateToken(testUser);
+        assertThrows(ExpiredJwtException.class, () -> jwtUtil.verifyToken(expired));
+
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", jwtExpirationMs);
+        String token = jwtUtil.generateToken(testUser);
+        int index = token.indexOf('.') + 5;
+        char replacement = token.charAt(index) == 'A' ? 'B' : 'A';
+        String tampered = token.substring(0, index) + replacement + token.substring(index + 1);
+        assertThrows(JwtException.class, () -> jwtUtil.verifyToken(tampered));
+        assertFalse(jwtUtil.validateToken(tampered));
+    }
+
+    @Test
+    void testPermissionsCompiledIntoToken() {
+        RolePermissionTable table = new RolePermissionTable(new MockEnvironment());
+        table.init();
+        ReflectionTestUtils.setField(jwtUtil, "rolePermissionTable", table);
+        testUser.setRole(RoleConstants.ROLE_ADMIN);
+
+        for (String profile : new String[]{"full", "slim", "binary"}) {
+            ReflectionTestUtils.setField(jwtUtil, "tokenProfileName", profile);
+            jwtUtil.init();
+            String token = jwtUtil.generateToken(testUser);
+
+            TokenClaims claims = jwtUtil.verifyToken(token);
+            assertTrue(claims.hasPermissions(), profile);
+            assertEquals(Permission.all(), claims.getPermissions(), profile);
+            assertEquals(Permission.all(), TokenClaims.from(jwtUtil.parseTokenAndGetClaims(token)).getPermissions(), profile);
+        }
+    }
+
+    @Test
+    void testTokenWithoutRoleTable_HasNoPermissions() {
+        String token = jwtUtil.generateToken(testUser);
+
+        assertFalse(jwtUtil.verifyToken(token).hasPermissions());
+    }
 }
@@ -0,0 +1,90 @@
+package com.costinsight.user.util;
+
+import com.costinsight.user.entity.User;
+import com.costinsight.user.security.JwtKeyRing;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.function.Consumer;
+
+/**
+ * JWT 验签吞吐量基准
+ * <p>
+ * 不属于常规测试（类名不匹配 surefire 默认规则），需要时手动执行：
+ * <pre>
+ * mvn -pl user-service test -Dtest=JwtVerificationBenchmark
+ * </pre>
+ * 输出单线程（即每核）每秒验签次数：每次新建 parser（原实现）、复用 parser、专用验签引擎，
+ * 以及密钥环配置为 RS256 / ES256 时下游按 JWKS 本地验签的成本。
+ * <p>
+ * 参考结果（JDK 21，单核沙箱，RSA-2048 / P-256 临时密钥）：
+ * <pre>
+ * jjwt, parser built per call             6,312 verifications/s per core (158.44 us/op)
+ * jjwt, reused parser                   113,266 verifications/s per core (8.83 us/op)
+ * Hs512TokenEngine fast path            222,462 verifications/s per core (4.50 us/op)
+ * RS256 key ring                          4,215 verifications/s per core (237.22 us/op)
+ * ES256 key ring                            765 verifications/s per core (1307.66 us/op)
+ * </pre>
+ * 非对称验签每个 Token 的成本是 HS512 快速路径的 50～290 倍，只在下游确实需要按 JWKS 本地验签时启用。
+ */
+class JwtVerificationBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 50_000;
+    private static final int MEASURED_ITERATIONS = 200_000;
+    // 非对称验签慢一到两个数量级，减少迭代次数
+    private static final int ASYMMETRIC_WARMUP_ITERATIONS = 5_000;
+    private static final int ASYMMETRIC_MEASURED_ITERATIONS = 10_000;
+
+    @Test
+    void benchmarkVerification() {
+        JwtUtil jwtUtil = newJwtUtil(null);
+
+        User user = new User();
+        user.setId(42L);
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setRole("ROLE_USER");
+        String token = jwtUtil.generateToken(user);
+        SecretKey key = (SecretKey) ReflectionTestUtils.getField(jwtUtil, "secretKey");
+
+        run("jjwt, parser built per call", t -> Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(t), token,
+                WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+        run("jjwt, reused parser", jwtUtil::parseTokenAndGetClaims, token, WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+        run("Hs512TokenEngine fast path", jwtUtil::verifyToken, token, WARMUP_ITERATIONS, MEASURED_ITERATIONS);
+
+        // 未配置密钥时密钥环生成临时密钥对，足以衡量验签成本
+        for (String algorithm : new String[]{"RS256", "ES256"}) {
+            JwtKeyRing keyRing = new JwtKeyRing(new MockEnvironment(), algorithm);
+            keyRing.init();
+            JwtUtil asymmetric = newJwtUtil(keyRing);
+            run(algorithm + " key ring", asymmetric::verifyToken, asymmetric.generateToken(user),
+                    ASYMMETRIC_WARMUP_ITERATIONS, ASYMMETRIC_MEASURED_ITERATIONS);
+        }
+    }
+
+    private static JwtUtil newJwtUtil(JwtKeyRing keyRing) {
+        JwtUtil jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "jwtSecretString",
+                "mySecretKeyForCostInsightApplicationWhichIsLongEnoughToBeSecureAndEvenLongerToMeetRequirements");
+        ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", 3600000L);
+        ReflectionTestUtils.setField(jwtUtil, "keyRing", keyRing);
+        jwtUtil.init();
+        return jwtUtil;
+    }
+
+    private static void run(String name, Consumer<String> verifier, String token, int warmup, int measured) {
+        for (int i = 0; i < warmup; i++) {
+            verifier.accept(token);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < measured; i++) {
+            verifier.accept(token);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-32s %,12.0f verifications/s per core (%.2f us/op)%n",
+                name, measured / (elapsed / 1e9), elapsed / 1e3 / measured);
+    }
+}